@@ -0,0 +1,79 @@
+package com.arogyam.health.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Caffeine caches behind the @Cacheable annotations. Every cache is declared here
+ * with its own size bound and TTL; asking for an undeclared cache name fails
+ * instead of silently creating an unbounded one. Stats are recorded so the
+ * actuator publishes hit ratios under cache.gets.
+ */
+@Configuration
+public class CacheConfig {
+
+    // Village lists: one entry per district or state, rarely written. Writes evict only
+    // this node's caches, so the TTL bounds how stale another node's view can be
+    public static final String VILLAGES_BY_DISTRICT = "villagesByDistrict";
+    public static final String VILLAGES_BY_STATE = "villagesByState";
+    public static final String DISTRICTS_BY_STATE = "districtsByState";
+
+    // Single village lookups: many keys, resolved from user and alert records
+    public static final String VILLAGE_BY_ID = "villageById";
+    public static final String VILLAGE_BY_NAME_AND_DISTRICT = "villageByNameAndDistrict";
+
+    // Active user ids per (district, role) and (district, village, role), for alert recipients
+    public static final String RECIPIENTS_BY_DISTRICT = "recipientsByDistrict";
+    public static final String RECIPIENTS_BY_VILLAGE = "recipientsByVillage";
+
+    @Value("${app.cache.village-lists.max-size:2000}")
+    private long villageListsMaxSize;
+
+    @Value("${app.cache.village-lists.ttl:10m}")
+    private Duration villageListsTtl;
+
+    @Value("${app.cache.village-lookups.max-size:50000}")
+    private long villageLookupsMaxSize;
+
+    @Value("${app.cache.village-lookups.ttl:10m}")
+    private Duration villageLookupsTtl;
+
+    @Value("${app.cache.recipients.max-size:50000}")
+    private long recipientsMaxSize;
+
+    @Value("${app.cache.recipients.ttl:30m}")
+    private Duration recipientsTtl;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // An empty static name list switches off on-demand cache creation
+        cacheManager.setCacheNames(List.of());
+
+        register(cacheManager, VILLAGES_BY_DISTRICT, villageListsMaxSize, villageListsTtl);
+        register(cacheManager, VILLAGES_BY_STATE, villageListsMaxSize, villageListsTtl);
+        register(cacheManager, DISTRICTS_BY_STATE, villageListsMaxSize, villageListsTtl);
+        register(cacheManager, VILLAGE_BY_ID, villageLookupsMaxSize, villageLookupsTtl);
+        register(cacheManager, VILLAGE_BY_NAME_AND_DISTRICT, villageLookupsMaxSize, villageLookupsTtl);
+        register(cacheManager, RECIPIENTS_BY_DISTRICT, recipientsMaxSize, recipientsTtl);
+        register(cacheManager, RECIPIENTS_BY_VILLAGE, recipientsMaxSize, recipientsTtl);
+        // Puts and evictions issued inside a transaction apply after it commits
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    private static void register(CaffeineCacheManager cacheManager, String name, long maxSize, Duration ttl) {
+        cacheManager.registerCustomCache(name, Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build());
+    }
+}
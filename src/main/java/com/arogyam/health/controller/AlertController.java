@@ -0,0 +1,173 @@
+package com.arogyam.health.controller;
+
+import com.arogyam.health.dto.AlertBatchReceiptDto;
+import com.arogyam.health.dto.AlertDto;
+import com.arogyam.health.dto.ApiResponseDto;
+import com.arogyam.health.dto.CursorPageDto;
+import com.arogyam.health.dto.UserResponseDto;
+import com.arogyam.health.entity.UserRole;
+import com.arogyam.health.security.UserPrincipal;
+import com.arogyam.health.service.AlertBroadcaster;
+import com.arogyam.health.service.AlertIngestionService;
+import com.arogyam.health.service.AlertQueueFullException;
+import com.arogyam.health.service.AlertService;
+import com.arogyam.health.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/alerts")
+@CrossOrigin(origins = "*") // Consider restricting this in production
+public class AlertController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertController.class);
+
+    private static final String DEFAULT_PAGE_SIZE = "50";
+    private static final String RETRY_AFTER_SECONDS = "2";
+
+    @Autowired
+    private AlertIngestionService alertIngestionService;
+
+    @Autowired
+    private AlertService alertService;
+
+    @Autowired
+    private AlertBroadcaster alertBroadcaster;
+
+    @Autowired
+    private UserService userService;
+
+    @Value("${app.alerts.ingest.max-request-size:1000}")
+    private int maxRequestSize;
+
+    // Any signed-in worker may raise alerts; they are queued and written shortly after (202)
+    @PostMapping
+    public ResponseEntity<ApiResponseDto<AlertBatchReceiptDto>> raiseAlerts(@RequestBody List<AlertDto> alerts,
+                                                                            Authentication authentication) {
+        if (alerts == null || alerts.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponseDto.error("At least one alert is required"));
+        }
+        if (alerts.size() > maxRequestSize) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponseDto.error("At most " + maxRequestSize + " alerts can be sent at once"));
+        }
+
+        try {
+            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+            AlertBatchReceiptDto receipt = alertIngestionService.submit(alerts, userPrincipal.getId());
+            if (receipt.getAccepted() == 0) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(ApiResponseDto.validationError("No alerts accepted", receipt));
+            }
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(ApiResponseDto.success("Alerts accepted", receipt));
+
+        } catch (AlertQueueFullException e) {
+            logger.warn("Alerts from {} rejected, ingestion queue full", authentication.getName());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .body(ApiResponseDto.serviceUnavailable("Server is busy. Please retry shortly."));
+        } catch (Exception e) {
+            logger.error("Error accepting alerts from {}", authentication.getName(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to accept alerts"));
+        }
+    }
+
+    // Newest first; from/to are ISO date-times, to is exclusive
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN') or hasRole('HEALTH_OFFICIAL')")
+    public ResponseEntity<ApiResponseDto<List<AlertDto>>> getAlerts(
+            @RequestParam(required = false) String district,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        try {
+            CursorPageDto<AlertDto> alerts = alertService.getAlerts(
+                    StringUtils.hasText(district) ? district.trim() : null, from, to, cursor, size);
+            return ResponseEntity.ok(ApiResponseDto.page("Alerts retrieved successfully", alerts));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponseDto.badRequest(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error retrieving alerts for district {}", district, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to retrieve alerts"));
+        }
+    }
+
+    // Live alerts as Server-Sent Events: officials get their own district, admins may name any district,
+    // field workers get the alerts they are recipients of (their village's).
+    // Events: subscribed, alert (JSON), resync (reload the district through GET /api/alerts)
+    @GetMapping(value = "/stream", produces = {MediaType.TEXT_EVENT_STREAM_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> streamAlerts(@RequestParam(required = false) String district,
+                                          Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        String topic;
+        if (userPrincipal.getRole() == UserRole.ADMIN && StringUtils.hasText(district)) {
+            topic = district.trim();
+        } else {
+            topic = userService.getUserResponseByUsername(userPrincipal.getUsername())
+                    .map(UserResponseDto::getDistrict)
+                    .filter(StringUtils::hasText)
+                    .orElse(null);
+            if (topic == null) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(ApiResponseDto.error(userPrincipal.getRole() == UserRole.ADMIN
+                                ? "District parameter is required" : "No district assigned to this user"));
+            }
+        }
+
+        try {
+            UserRole role = userPrincipal.getRole();
+            SseEmitter emitter = role == UserRole.ADMIN || role == UserRole.HEALTH_OFFICIAL
+                    ? alertBroadcaster.subscribe(topic)
+                    : alertBroadcaster.subscribeAsRecipient(topic, userPrincipal.getId());
+            logger.info("Alert stream for {} opened by {}", topic, authentication.getName());
+            return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(emitter);
+        } catch (IllegalStateException e) {
+            logger.warn("Alert stream for {} refused: {}", topic, e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .body(ApiResponseDto.serviceUnavailable("Server is busy. Please retry shortly."));
+        }
+    }
+
+    @GetMapping("/{alertId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('HEALTH_OFFICIAL')")
+    public ResponseEntity<ApiResponseDto<AlertDto>> getAlert(@PathVariable Long alertId) {
+        try {
+            Optional<AlertDto> alert = alertService.getAlert(alertId);
+            if (alert.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(ApiResponseDto.error("Alert not found"));
+            }
+            return ResponseEntity.ok(ApiResponseDto.success("Alert retrieved successfully", alert.get()));
+        } catch (Exception e) {
+            logger.error("Error retrieving alert {}", alertId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to retrieve alert"));
+        }
+    }
+}
@@ -2,14 +2,24 @@ package com.arogyam.health.controller;
 
 import com.arogyam.health.dto.ApiResponseDto;
 import com.arogyam.health.dto.LoginRequestDto;
+import com.arogyam.health.dto.TokenIntrospectionDto;
+import com.arogyam.health.dto.TokenIntrospectionRequestDto;
 import com.arogyam.health.dto.UserRegistrationDto;
 import com.arogyam.health.dto.UserResponseDto;
 import com.arogyam.health.security.JwtTokenProvider;
+import com.arogyam.health.security.PasswordHashingRejectedException;
+import com.arogyam.health.security.RevokedTokenStore;
+import com.arogyam.health.security.TokenEpochRegistry;
+import com.arogyam.health.security.TokenIntrospectionService;
+import com.arogyam.health.security.UserPrincipal;
+import com.arogyam.health.security.VerifiedToken;
 import com.arogyam.health.service.UserService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -21,9 +31,9 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
-import java.util.Date;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -33,6 +43,7 @@ public class AuthController {
     private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
     private static final String BEARER_PREFIX = "Bearer ";
     private static final int BEARER_PREFIX_LENGTH = BEARER_PREFIX.length();
+    private static final String RETRY_AFTER_SECONDS = "2";
 
     @Autowired
     private AuthenticationManager authenticationManager;
@@ -43,6 +54,18 @@ public class AuthController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private TokenEpochRegistry tokenEpochRegistry;
+
+    @Autowired
+    private RevokedTokenStore revokedTokenStore;
+
+    @Autowired
+    private TokenIntrospectionService tokenIntrospectionService;
+
+    @Value("${app.jwt.introspection.max-batch:500}")
+    private int maxIntrospectionBatch;
+
     @PostMapping("/login")
     public ResponseEntity<ApiResponseDto<Map<String, Object>>> login(@Valid @RequestBody LoginRequestDto loginRequest) {
         try {
@@ -61,8 +84,9 @@ public class AuthController {
 
             String token = tokenProvider.generateToken(authentication);
 
-            // Update last login
-            userService.updateLastLogin(loginRequest.getUsername().trim());
+            // Update last login (buffered, flushed in batches)
+            UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+            userService.updateLastLogin(principal.getId());
 
             // Prepare response
             Map<String, Object> response = createLoginResponse(token, loginRequest.getUsername().trim());
@@ -70,6 +94,12 @@ public class AuthController {
             logger.info("User {} logged in successfully", loginRequest.getUsername());
             return ResponseEntity.ok(ApiResponseDto.success("Login successful", response));
 
+        } catch (PasswordHashingRejectedException e) {
+            logger.warn("Login rejected, password hashing saturated: {}", loginRequest.getUsername());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .body(ApiResponseDto.serviceUnavailable("Too many login attempts right now. Please retry shortly."));
+
         } catch (BadCredentialsException e) {
             logger.warn("Failed login attempt for username: {}", loginRequest.getUsername());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -102,6 +132,12 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(ApiResponseDto.success("User registered successfully", user));
 
+        } catch (PasswordHashingRejectedException e) {
+            logger.warn("Registration rejected, password hashing saturated");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .body(ApiResponseDto.serviceUnavailable("Server is busy. Please retry shortly."));
+
         } catch (IllegalArgumentException e) {
             logger.warn("Registration validation failed: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -134,8 +170,9 @@ public class AuthController {
                         .body(ApiResponseDto.badRequest("Invalid authorization header format"));
             }
 
-            boolean isValid = tokenProvider.validateToken(token);
-            Map<String, Object> response = createValidationResponse(token, isValid);
+            Optional<VerifiedToken> verified = tokenProvider.verify(token)
+                    .filter(this::isTokenActive);
+            Map<String, Object> response = createValidationResponse(verified.orElse(null));
 
             return ResponseEntity.ok(ApiResponseDto.success("Token validation completed", response));
 
@@ -146,6 +183,26 @@ public class AuthController {
         }
     }
 
+    // Batch form of validate-token for the API gateway; results are in request order
+    @PostMapping("/introspect")
+    public ResponseEntity<ApiResponseDto<List<TokenIntrospectionDto>>> introspectTokens(
+            @Valid @RequestBody TokenIntrospectionRequestDto request) {
+        try {
+            if (request.getTokens().size() > maxIntrospectionBatch) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(ApiResponseDto.badRequest("At most " + maxIntrospectionBatch + " tokens per request"));
+            }
+
+            List<TokenIntrospectionDto> results = tokenIntrospectionService.introspect(request.getTokens());
+            return ResponseEntity.ok(ApiResponseDto.success("Token introspection completed", results));
+
+        } catch (Exception e) {
+            logger.error("Token introspection error: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.serverError("Token introspection failed"));
+        }
+    }
+
     @PostMapping("/refresh-token")
     public ResponseEntity<ApiResponseDto<Map<String, Object>>> refreshToken(
             @RequestHeader("Authorization") String authHeader) {
@@ -156,13 +213,15 @@ public class AuthController {
                         .body(ApiResponseDto.error("Invalid authorization header format"));
             }
 
-            if (!tokenProvider.validateToken(token)) {
+            Optional<VerifiedToken> verified = tokenProvider.verify(token)
+                    .filter(this::isTokenActive);
+            if (verified.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(ApiResponseDto.error("Invalid or expired token"));
             }
 
-            String username = tokenProvider.getUsernameFromToken(token);
-            String newToken = tokenProvider.refreshToken(token);
+            String username = verified.get().getUsername();
+            String newToken = tokenProvider.refreshToken(verified.get());
 
             Map<String, Object> response = createLoginResponse(newToken, username);
 
@@ -181,11 +240,12 @@ public class AuthController {
             @RequestHeader("Authorization") String authHeader) {
         try {
             String token = extractTokenFromHeader(authHeader);
-            if (token != null && tokenProvider.validateToken(token)) {
-                String username = tokenProvider.getUsernameFromToken(token);
+            Optional<VerifiedToken> verified = token != null ? tokenProvider.verify(token) : Optional.empty();
+            if (verified.isPresent()) {
+                String username = verified.get().getUsername();
 
-                // Optionally: Add token to blacklist or perform cleanup
-                // tokenBlacklistService.blacklistToken(token);
+                // Revoked until its own expiry; the filter rejects it from now on
+                revokedTokenStore.revoke(verified.get());
 
                 logger.info("User {} logged out successfully", username);
                 return ResponseEntity.ok(ApiResponseDto.success("Logged out successfully"));
@@ -208,50 +268,45 @@ public class AuthController {
         return null;
     }
 
+    private boolean isTokenActive(VerifiedToken token) {
+        return tokenEpochRegistry.isCurrent(token) && !revokedTokenStore.isRevoked(token);
+    }
+
     private Map<String, Object> createLoginResponse(String token, String username) {
         Map<String, Object> response = new HashMap<>();
         response.put("token", token);
         response.put("type", "Bearer");
         response.put("username", username);
 
-        // Add token expiration information using your JwtTokenProvider methods
-        try {
-            Date expirationDate = tokenProvider.getExpirationDateFromToken(token);
-            response.put("expiresAt", expirationDate);
-
-            // Calculate remaining time in seconds
-            long expiresInSeconds = (expirationDate.getTime() - System.currentTimeMillis()) / 1000;
-            response.put("expiresIn", expiresInSeconds);
+        // Parse the freshly issued token once and read everything from the verified claims
+        Optional<VerifiedToken> verified = tokenProvider.verify(token);
+        if (verified.isPresent()) {
+            VerifiedToken claims = verified.get();
+            response.put("expiresAt", claims.getExpiration());
+            response.put("expiresIn", claims.getExpiresInSeconds());
 
             // Add user information from token
-            response.put("userId", tokenProvider.getUserIdFromToken(token));
-            response.put("role", tokenProvider.getRoleFromToken(token));
-            response.put("fullName", tokenProvider.getFullNameFromToken(token));
-
-        } catch (Exception e) {
-            logger.warn("Could not extract token information: {}", e.getMessage());
+            response.put("userId", claims.getUserId());
+            response.put("role", claims.getRole());
+            response.put("fullName", claims.getFullName());
+        } else {
+            logger.warn("Could not extract token information for user: {}", username);
         }
 
         return response;
     }
 
-    private Map<String, Object> createValidationResponse(String token, boolean isValid) {
+    private Map<String, Object> createValidationResponse(VerifiedToken verified) {
         Map<String, Object> response = new HashMap<>();
-        response.put("valid", isValid);
-
-        if (isValid) {
-            try {
-                response.put("username", tokenProvider.getUsernameFromToken(token));
-                response.put("userId", tokenProvider.getUserIdFromToken(token));
-                response.put("role", tokenProvider.getRoleFromToken(token));
-                response.put("fullName", tokenProvider.getFullNameFromToken(token));
-                response.put("expiresAt", tokenProvider.getExpirationDateFromToken(token));
-                response.put("isExpired", tokenProvider.isTokenExpired(token));
-            } catch (Exception e) {
-                logger.warn("Could not extract token claims: {}", e.getMessage());
-                response.put("valid", false);
-                response.put("error", "Invalid token format");
-            }
+        response.put("valid", verified != null);
+
+        if (verified != null) {
+            response.put("username", verified.getUsername());
+            response.put("userId", verified.getUserId());
+            response.put("role", verified.getRole());
+            response.put("fullName", verified.getFullName());
+            response.put("expiresAt", verified.getExpiration());
+            response.put("isExpired", verified.isExpired());
         }
 
         return response;
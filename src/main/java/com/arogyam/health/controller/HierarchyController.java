@@ -0,0 +1,117 @@
+package com.arogyam.health.controller;
+
+import com.arogyam.health.dto.ApiResponseDto;
+import com.arogyam.health.dto.HierarchyNodeDto;
+import com.arogyam.health.service.VillageHierarchy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Navigation of the state -> district -> village hierarchy, answered from the
+ * in-memory {@link VillageHierarchy} without touching the database. Requests
+ * name states and districts, the identifiers users and alerts store; the
+ * tree's node ids are renumbered by every rebuild and never leave the server.
+ */
+@RestController
+@RequestMapping("/api/hierarchy")
+@CrossOrigin(origins = "*") // Consider restricting this in production
+public class HierarchyController {
+
+    @Autowired
+    private VillageHierarchy villageHierarchy;
+
+    @GetMapping("/states")
+    public ResponseEntity<ApiResponseDto<List<HierarchyNodeDto>>> getStates() {
+        VillageHierarchy.Tree tree = villageHierarchy.current();
+        List<HierarchyNodeDto> states = new ArrayList<>(tree.stateCount());
+        for (int state = 0; state < tree.stateCount(); state++) {
+            states.add(stateNode(tree, state));
+        }
+        return ResponseEntity.ok(ApiResponseDto.success("States retrieved successfully", states));
+    }
+
+    @GetMapping("/districts")
+    public ResponseEntity<ApiResponseDto<List<HierarchyNodeDto>>> getDistricts(@RequestParam String state) {
+        VillageHierarchy.Tree tree = villageHierarchy.current();
+        int stateId = tree.stateId(state.trim());
+        if (stateId == VillageHierarchy.NOT_FOUND) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponseDto.error("State not found"));
+        }
+
+        List<HierarchyNodeDto> districts = new ArrayList<>(tree.districtsEnd(stateId) - tree.districtsStart(stateId));
+        for (int district = tree.districtsStart(stateId); district < tree.districtsEnd(stateId); district++) {
+            districts.add(districtNode(tree, district));
+        }
+        return ResponseEntity.ok(ApiResponseDto.success("Districts retrieved successfully", districts));
+    }
+
+    // The state can be left out when no other state has a district by that name
+    @GetMapping("/villages")
+    public ResponseEntity<ApiResponseDto<List<HierarchyNodeDto>>> getVillages(@RequestParam(required = false) String state,
+                                                                           @RequestParam String district) {
+        VillageHierarchy.Tree tree = villageHierarchy.current();
+        int districtId = districtId(tree, state, district);
+        if (districtId == VillageHierarchy.NOT_FOUND) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponseDto.error("District not found"));
+        }
+
+        List<HierarchyNodeDto> villages = new ArrayList<>(tree.villagesEnd(districtId) - tree.villagesStart(districtId));
+        for (int village = tree.villagesStart(districtId); village < tree.villagesEnd(districtId); village++) {
+            villages.add(new HierarchyNodeDto(tree.villageName(village), "VILLAGE", null,
+                    tree.villageId(village), 0, 1, tree.villagePopulation(village)));
+        }
+        return ResponseEntity.ok(ApiResponseDto.success("Villages retrieved successfully", villages));
+    }
+
+    // Counts and population of one named state or district
+    @GetMapping("/resolve")
+    public ResponseEntity<ApiResponseDto<HierarchyNodeDto>> resolve(@RequestParam(required = false) String state,
+                                                                    @RequestParam(required = false) String district) {
+        VillageHierarchy.Tree tree = villageHierarchy.current();
+        if (StringUtils.hasText(district)) {
+            int districtId = districtId(tree, state, district);
+            if (districtId == VillageHierarchy.NOT_FOUND) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(ApiResponseDto.error("District not found"));
+            }
+            return ResponseEntity.ok(ApiResponseDto.success("District resolved", districtNode(tree, districtId)));
+        }
+        if (StringUtils.hasText(state)) {
+            int stateId = tree.stateId(state.trim());
+            if (stateId == VillageHierarchy.NOT_FOUND) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(ApiResponseDto.error("State not found"));
+            }
+            return ResponseEntity.ok(ApiResponseDto.success("State resolved", stateNode(tree, stateId)));
+        }
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDto.error("State or district parameter is required"));
+    }
+
+    private int districtId(VillageHierarchy.Tree tree, String state, String district) {
+        return StringUtils.hasText(state)
+                ? tree.districtId(state.trim(), district.trim())
+                : tree.districtId(district.trim());
+    }
+
+    private HierarchyNodeDto stateNode(VillageHierarchy.Tree tree, int state) {
+        return new HierarchyNodeDto(tree.stateName(state), "STATE", null, null,
+                tree.districtsEnd(state) - tree.districtsStart(state),
+                tree.stateVillageCount(state), tree.statePopulation(state));
+    }
+
+    private HierarchyNodeDto districtNode(VillageHierarchy.Tree tree, int district) {
+        int villages = tree.villagesEnd(district) - tree.villagesStart(district);
+        return new HierarchyNodeDto(tree.districtName(district), "DISTRICT",
+                tree.stateName(tree.stateOfDistrict(district)), null,
+                villages, villages, tree.districtPopulation(district));
+    }
+}
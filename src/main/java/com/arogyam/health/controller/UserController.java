@@ -1,25 +1,43 @@
 package com.arogyam.health.controller;
 
 import com.arogyam.health.dto.ApiResponseDto;
+import com.arogyam.health.dto.BulkImportReportDto;
+import com.arogyam.health.dto.CursorPageDto;
 import com.arogyam.health.dto.UserRegistrationDto;
 import com.arogyam.health.dto.UserResponseDto;
-import com.arogyam.health.entity.UserEntity;
+import com.arogyam.health.dto.UserSearchHitDto;
 import com.arogyam.health.entity.UserRole;
+import com.arogyam.health.security.PasswordHashingRejectedException;
 import com.arogyam.health.security.UserPrincipal;
+import com.arogyam.health.service.UserBulkImportService;
+import com.arogyam.health.service.UserExportService;
+import com.arogyam.health.service.UserSearchIndex;
 import com.arogyam.health.service.UserService;
+import com.arogyam.health.service.WorkerCountMatrix;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/users")
@@ -27,10 +45,24 @@ import java.util.Optional;
 public class UserController {
 
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
+    private static final String DEFAULT_PAGE_SIZE = "50";
+    private static final int MAX_SEARCH_LIMIT = 100;
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserBulkImportService userBulkImportService;
+
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private WorkerCountMatrix workerCountMatrix;
+
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
     @GetMapping("/me")
     public ResponseEntity<ApiResponseDto<UserResponseDto>> getCurrentUser(Authentication authentication) {
         try {
@@ -41,18 +73,15 @@ public class UserController {
 
             UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
 
-            // More efficient: use findByUsername instead of filtering all users
-            Optional<UserEntity> userEntity = userService.findByUsername(userPrincipal.getUsername());
-            if (userEntity.isEmpty()) {
+            // Reads only the response columns; the entity (and password hash) is never loaded
+            Optional<UserResponseDto> user = userService.getUserResponseByUsername(userPrincipal.getUsername());
+            if (user.isEmpty()) {
                 logger.warn("Current user not found: {}", userPrincipal.getUsername());
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(ApiResponseDto.error("Current user not found"));
             }
 
-            // Convert to DTO using service method (assuming you have a conversion method)
-            UserResponseDto user = convertToResponseDto(userEntity.get());
-
-            return ResponseEntity.ok(ApiResponseDto.success("Current user retrieved", user));
+            return ResponseEntity.ok(ApiResponseDto.success("Current user retrieved", user.get()));
 
         } catch (ClassCastException e) {
             logger.error("Invalid authentication principal type", e);
@@ -67,11 +96,16 @@ public class UserController {
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('HEALTH_OFFICIAL')")
-    public ResponseEntity<ApiResponseDto<List<UserResponseDto>>> getAllUsers() {
+    public ResponseEntity<ApiResponseDto<List<UserResponseDto>>> getAllUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
         try {
-            List<UserResponseDto> users = userService.getAllUsers();
-            logger.info("Retrieved {} users", users.size());
-            return ResponseEntity.ok(ApiResponseDto.success("Users retrieved successfully", users));
+            CursorPageDto<UserResponseDto> users = userService.getAllUsers(cursor, size);
+            logger.info("Retrieved {} users", users.getItems().size());
+            return ResponseEntity.ok(ApiResponseDto.page("Users retrieved successfully", users));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponseDto.error("Invalid cursor"));
         } catch (Exception e) {
             logger.error("Error retrieving all users", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -79,13 +113,59 @@ public class UserController {
         }
     }
 
+    // Substring search over name, username and phone digits, ranked best first
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('HEALTH_OFFICIAL')")
+    public ResponseEntity<ApiResponseDto<List<UserSearchHitDto>>> searchUsers(
+            @RequestParam String q,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String district,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            UserRole userRole = null;
+            if (StringUtils.hasText(role)) {
+                try {
+                    userRole = UserRole.valueOf(role.toUpperCase().trim());
+                } catch (IllegalArgumentException e) {
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                            .body(ApiResponseDto.error("Invalid role: " + role + ". Valid roles are: " +
+                                    String.join(", ", getValidRoles())));
+                }
+            }
+
+            List<UserSearchHitDto> hits = userSearchIndex.search(q, userRole,
+                    StringUtils.hasText(district) ? district.trim() : null, Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT)));
+            return ResponseEntity.ok(ApiResponseDto.success("Search completed", hits));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponseDto.badRequest(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error searching users", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to search users"));
+        }
+    }
+
+    // Active workers per district and role, served from memory for dashboard tiles
+    @GetMapping("/counts")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('HEALTH_OFFICIAL')")
+    public ResponseEntity<ApiResponseDto<WorkerCountMatrix.Snapshot>> getWorkerCounts() {
+        return ResponseEntity.ok(ApiResponseDto.success("Worker counts retrieved successfully",
+                workerCountMatrix.getSnapshot()));
+    }
+
     @GetMapping("/active")
     @PreAuthorize("hasRole('ADMIN') or hasRole('HEALTH_OFFICIAL')")
-    public ResponseEntity<ApiResponseDto<List<UserResponseDto>>> getActiveUsers() {
+    public ResponseEntity<ApiResponseDto<List<UserResponseDto>>> getActiveUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
         try {
-            // Using the new method from updated UserService
-            List<UserResponseDto> users = userService.getActiveUsers();
-            return ResponseEntity.ok(ApiResponseDto.success("Active users retrieved successfully", users));
+            CursorPageDto<UserResponseDto> users = userService.getActiveUsers(cursor, size);
+            return ResponseEntity.ok(ApiResponseDto.page("Active users retrieved successfully", users));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponseDto.error("Invalid cursor"));
         } catch (Exception e) {
             logger.error("Error retrieving active users", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -95,7 +175,10 @@ public class UserController {
 
     @GetMapping("/role/{role}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('HEALTH_OFFICIAL')")
-    public ResponseEntity<ApiResponseDto<List<UserResponseDto>>> getUsersByRole(@PathVariable String role) {
+    public ResponseEntity<ApiResponseDto<List<UserResponseDto>>> getUsersByRole(
+            @PathVariable String role,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
         try {
             if (!StringUtils.hasText(role)) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -112,10 +195,13 @@ public class UserController {
                                 String.join(", ", getValidRoles())));
             }
 
-            List<UserResponseDto> users = userService.getUsersByRole(userRole);
-            logger.info("Retrieved {} users with role {}", users.size(), userRole);
-            return ResponseEntity.ok(ApiResponseDto.success("Users by role retrieved successfully", users));
+            CursorPageDto<UserResponseDto> users = userService.getUsersByRole(userRole, cursor, size);
+            logger.info("Retrieved {} users with role {}", users.getItems().size(), userRole);
+            return ResponseEntity.ok(ApiResponseDto.page("Users by role retrieved successfully", users));
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponseDto.error("Invalid cursor"));
         } catch (Exception e) {
             logger.error("Error retrieving users by role: {}", role, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -125,20 +211,23 @@ public class UserController {
 
     @GetMapping("/district/{district}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('HEALTH_OFFICIAL')")
-    public ResponseEntity<ApiResponseDto<List<UserResponseDto>>> getUsersByDistrict(@PathVariable String district) {
+    public ResponseEntity<ApiResponseDto<List<UserResponseDto>>> getUsersByDistrict(
+            @PathVariable String district,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
         try {
             if (!StringUtils.hasText(district)) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                         .body(ApiResponseDto.error("District parameter is required"));
             }
 
-            List<UserResponseDto> users = userService.getUsersByDistrict(district.trim());
-            logger.info("Retrieved {} users from district {}", users.size(), district);
-            return ResponseEntity.ok(ApiResponseDto.success("Users by district retrieved successfully", users));
+            CursorPageDto<UserResponseDto> users = userService.getUsersByDistrict(district.trim(), cursor, size);
+            logger.info("Retrieved {} users from district {}", users.getItems().size(), district);
+            return ResponseEntity.ok(ApiResponseDto.page("Users by district retrieved successfully", users));
 
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(ApiResponseDto.error("Invalid district parameter"));
+                    .body(ApiResponseDto.error("Invalid district or cursor parameter"));
         } catch (Exception e) {
             logger.error("Error retrieving users by district: {}", district, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -146,6 +235,69 @@ public class UserController {
         }
     }
 
+    // Streams a CSV body (header: username,password,fullName,phoneNumber,email,role,district,state,village)
+    @PostMapping(value = "/import", consumes = {"text/csv", "text/plain"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponseDto<BulkImportReportDto>> importUsers(HttpServletRequest request,
+                                                                           Authentication authentication) {
+        try (Reader reader = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8)) {
+            BulkImportReportDto report = userBulkImportService.importUsers(reader);
+            logger.info("User import by {}: {}", authentication.getName(), report);
+            return ResponseEntity.ok(ApiResponseDto.success("User import completed", report));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponseDto.badRequest(e.getMessage()));
+        } catch (IOException e) {
+            logger.warn("Malformed user import CSV: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponseDto.badRequest("Malformed CSV: " + e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error importing users", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to import users"));
+        }
+    }
+
+    // Full directory dump written row by row; format=ndjson|csv, gzip=true compresses on the fly
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('HEALTH_OFFICIAL')")
+    public ResponseEntity<?> exportUsers(@RequestParam(defaultValue = "ndjson") String format,
+                                         @RequestParam(defaultValue = "false") boolean gzip,
+                                         Authentication authentication) {
+        UserExportService.Format exportFormat;
+        try {
+            exportFormat = UserExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponseDto.badRequest("Invalid export format: " + format));
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            long startedAt = System.currentTimeMillis();
+            // syncFlush so the periodic flushes in the export actually reach the client
+            OutputStream out = gzip ? new GZIPOutputStream(outputStream, 8192, true) : outputStream;
+            long rows = userExportService.exportUsers(out, exportFormat);
+            if (gzip) {
+                ((GZIPOutputStream) out).finish();
+            }
+            logger.info("User export by {}: {} rows as {} in {} ms", authentication.getName(), rows,
+                    exportFormat, System.currentTimeMillis() - startedAt);
+        };
+
+        String extension = exportFormat == UserExportService.Format.CSV ? "csv" : "ndjson";
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(exportFormat == UserExportService.Format.CSV
+                        ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"users." + extension + (gzip ? ".gz" : "") + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     @PutMapping("/{userId}")
     @PreAuthorize("hasRole('ADMIN') or (hasRole('HEALTH_OFFICIAL') and @userController.canModifyUser(authentication, #userId))")
     public ResponseEntity<ApiResponseDto<UserResponseDto>> updateUser(
@@ -269,6 +421,11 @@ public class UserController {
                         .body(ApiResponseDto.error("Invalid old password"));
             }
 
+        } catch (PasswordHashingRejectedException e) {
+            logger.warn("Password change for user {} rejected, password hashing saturated", userId);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "2")
+                    .body(ApiResponseDto.serviceUnavailable("Server is busy. Please retry shortly."));
         } catch (Exception e) {
             logger.error("Error changing password for user {}", userId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -306,27 +463,6 @@ public class UserController {
                 .toArray(String[]::new);
     }
 
-    private UserResponseDto convertToResponseDto(UserEntity user) {
-        UserResponseDto dto = new UserResponseDto();
-        dto.setId(user.getId());
-        dto.setUsername(user.getUsername());
-        dto.setFullName(user.getFullName());
-        dto.setPhoneNumber(user.getPhoneNumber());
-        dto.setEmail(user.getEmail());
-        dto.setRole(user.getRole());
-        dto.setDistrict(user.getDistrict());
-        dto.setState(user.getState());
-        dto.setIsActive(user.getIsActive());
-        dto.setCreatedAt(user.getCreatedAt());
-        dto.setLastLogin(user.getLastLogin());
-
-        if (user.getVillage() != null) {
-            dto.setVillageName(user.getVillage());
-        }
-
-        return dto;
-    }
-
     // DTO for password change
     public static class ChangePasswordDto {
         private String oldPassword;
@@ -0,0 +1,240 @@
+package com.arogyam.health.controller;
+
+import com.arogyam.health.dto.ApiResponseDto;
+import com.arogyam.health.dto.BulkImportReportDto;
+import com.arogyam.health.dto.VillageDistanceDto;
+import com.arogyam.health.dto.VillageDto;
+import com.arogyam.health.service.VillageBulkImportService;
+import com.arogyam.health.service.VillageService;
+import com.arogyam.health.service.VillageSpatialIndex;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/villages")
+@CrossOrigin(origins = "*") // Consider restricting this in production
+public class VillageController {
+
+    private static final Logger logger = LoggerFactory.getLogger(VillageController.class);
+
+    @Autowired
+    private VillageService villageService;
+
+    @Autowired
+    private VillageSpatialIndex villageSpatialIndex;
+
+    @Autowired
+    private VillageBulkImportService villageBulkImportService;
+
+    @Value("${app.villages.spatial.max-radius-km:200}")
+    private double maxRadiusKm;
+
+    @Value("${app.villages.spatial.max-results:500}")
+    private int maxResults;
+
+    // Villages of a district (sorted by name) or of a whole state
+    @GetMapping
+    public ResponseEntity<ApiResponseDto<List<VillageDto>>> getVillages(
+            @RequestParam(required = false) String district,
+            @RequestParam(required = false) String state) {
+        try {
+            if (StringUtils.hasText(district)) {
+                return ResponseEntity.ok(ApiResponseDto.success("Villages retrieved successfully",
+                        villageService.getVillagesByDistrict(district.trim())));
+            }
+            if (StringUtils.hasText(state)) {
+                return ResponseEntity.ok(ApiResponseDto.success("Villages retrieved successfully",
+                        villageService.getVillagesByState(state.trim())));
+            }
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponseDto.error("District or state parameter is required"));
+        } catch (Exception e) {
+            logger.error("Error retrieving villages for district {} / state {}", district, state, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to retrieve villages"));
+        }
+    }
+
+    @GetMapping("/districts")
+    public ResponseEntity<ApiResponseDto<List<String>>> getDistricts(@RequestParam String state) {
+        try {
+            if (!StringUtils.hasText(state)) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(ApiResponseDto.error("State parameter is required"));
+            }
+            return ResponseEntity.ok(ApiResponseDto.success("Districts retrieved successfully",
+                    villageService.getDistricts(state.trim())));
+        } catch (Exception e) {
+            logger.error("Error retrieving districts for state {}", state, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to retrieve districts"));
+        }
+    }
+
+    // Villages within radiusKm of a point, nearest first
+    @GetMapping("/within")
+    public ResponseEntity<ApiResponseDto<List<VillageDistanceDto>>> getVillagesWithin(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam double radiusKm,
+            @RequestParam(defaultValue = "100") int limit) {
+        if (!isValidPoint(lat, lon)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponseDto.error("Latitude must be between -90 and 90 and longitude between -180 and 180"));
+        }
+        if (!(radiusKm > 0) || radiusKm > maxRadiusKm) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponseDto.error("Radius must be greater than 0 and at most " + maxRadiusKm + " km"));
+        }
+
+        List<VillageDistanceDto> villages = villageSpatialIndex.findWithin(lat, lon, radiusKm,
+                Math.max(1, Math.min(limit, maxResults)));
+        return ResponseEntity.ok(ApiResponseDto.success("Villages retrieved successfully", villages));
+    }
+
+    // The k villages nearest to a point, nearest first
+    @GetMapping("/near")
+    public ResponseEntity<ApiResponseDto<List<VillageDistanceDto>>> getNearestVillages(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "5") int k) {
+        if (!isValidPoint(lat, lon)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponseDto.error("Latitude must be between -90 and 90 and longitude between -180 and 180"));
+        }
+
+        List<VillageDistanceDto> villages = villageSpatialIndex.findNearest(lat, lon,
+                Math.max(1, Math.min(k, maxResults)), maxRadiusKm);
+        return ResponseEntity.ok(ApiResponseDto.success("Nearest villages retrieved successfully", villages));
+    }
+
+    @GetMapping("/{villageId}")
+    public ResponseEntity<ApiResponseDto<VillageDto>> getVillage(@PathVariable Long villageId) {
+        try {
+            Optional<VillageDto> village = villageService.getVillage(villageId);
+            if (village.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(ApiResponseDto.error("Village not found"));
+            }
+            return ResponseEntity.ok(ApiResponseDto.success("Village retrieved successfully", village.get()));
+        } catch (Exception e) {
+            logger.error("Error retrieving village {}", villageId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to retrieve village"));
+        }
+    }
+
+    // Resolves a village name as written on a user or alert record
+    @GetMapping("/lookup")
+    public ResponseEntity<ApiResponseDto<VillageDto>> lookupVillage(@RequestParam String name,
+                                                                    @RequestParam String district) {
+        try {
+            if (!StringUtils.hasText(name) || !StringUtils.hasText(district)) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(ApiResponseDto.error("Name and district parameters are required"));
+            }
+            Optional<VillageDto> village = villageService.findVillage(name.trim(), district.trim());
+            if (village.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(ApiResponseDto.error("Village not found"));
+            }
+            return ResponseEntity.ok(ApiResponseDto.success("Village retrieved successfully", village.get()));
+        } catch (Exception e) {
+            logger.error("Error looking up village {} in {}", name, district, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to look up village"));
+        }
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponseDto<VillageDto>> createVillage(@Valid @RequestBody VillageDto villageDto,
+                                                                    Authentication authentication) {
+        try {
+            VillageDto village = villageService.createVillage(villageDto);
+            logger.info("Village {} created by {}", village.getId(), authentication.getName());
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(ApiResponseDto.success("Village created successfully", village));
+
+        } catch (RuntimeException e) {
+            if (e.getMessage() != null && e.getMessage().contains("already exists")) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(ApiResponseDto.error("Village already exists in this district"));
+            }
+            logger.error("Error creating village", e);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponseDto.error("Village creation failed"));
+        }
+    }
+
+    // Streams a CSV body (header: name,district,state,latitude,longitude,population,primaryLanguage);
+    // villages already present are updated in place
+    @PostMapping(value = "/import", consumes = {"text/csv", "text/plain"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponseDto<BulkImportReportDto>> importVillages(HttpServletRequest request,
+                                                                              Authentication authentication) {
+        try (Reader reader = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8)) {
+            BulkImportReportDto report = villageBulkImportService.importVillages(reader);
+            logger.info("Village import by {}: {}", authentication.getName(), report);
+            return ResponseEntity.ok(ApiResponseDto.success("Village import completed", report));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponseDto.badRequest(e.getMessage()));
+        } catch (IOException e) {
+            logger.warn("Malformed village import CSV: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponseDto.badRequest("Malformed CSV: " + e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error importing villages", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDto.error("Failed to import villages"));
+        }
+    }
+
+    @PutMapping("/{villageId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponseDto<VillageDto>> updateVillage(@PathVariable Long villageId,
+                                                                    @Valid @RequestBody VillageDto villageDto,
+                                                                    Authentication authentication) {
+        try {
+            VillageDto village = villageService.updateVillage(villageId, villageDto);
+            logger.info("Village {} updated by {}", villageId, authentication.getName());
+            return ResponseEntity.ok(ApiResponseDto.success("Village updated successfully", village));
+
+        } catch (RuntimeException e) {
+            if (e.getMessage() != null && e.getMessage().contains("not found")) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(ApiResponseDto.error("Village not found"));
+            }
+            if (e.getMessage() != null && e.getMessage().contains("already exists")) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(ApiResponseDto.error("Village already exists in this district"));
+            }
+            logger.error("Error updating village {}", villageId, e);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponseDto.error("Village update failed"));
+        }
+    }
+
+    private boolean isValidPoint(double lat, double lon) {
+        return lat >= -90 && lat <= 90 && lon >= -180 && lon <= 180;
+    }
+}
@@ -0,0 +1,69 @@
+package com.arogyam.health.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Response to an alert submission. Accepted alerts are queued and written
+ * shortly after. Coalesced alerts are counted as accepted too, but were
+ * repeats of an open alert and only raised its occurrence count. Errors carry the 1-based position of the rejected alert in
+ * the submitted list.
+ */
+public class AlertBatchReceiptDto {
+    private int accepted;
+    private int coalesced;
+    private int rejected;
+    private List<BulkImportReportDto.RowError> errors = new ArrayList<>();
+
+    // Default constructor
+    public AlertBatchReceiptDto() {
+    }
+
+    // Getters and Setters
+    public int getAccepted() {
+        return accepted;
+    }
+
+    public void setAccepted(int accepted) {
+        this.accepted = accepted;
+    }
+
+    public int getCoalesced() {
+        return coalesced;
+    }
+
+    public void setCoalesced(int coalesced) {
+        this.coalesced = coalesced;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<BulkImportReportDto.RowError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<BulkImportReportDto.RowError> errors) {
+        this.errors = errors;
+    }
+
+    // Utility methods
+    public void accept() {
+        accepted++;
+    }
+
+    public void coalesce() {
+        accepted++;
+        coalesced++;
+    }
+
+    public void reject(int position, String message) {
+        rejected++;
+        errors.add(new BulkImportReportDto.RowError(position, message));
+    }
+}
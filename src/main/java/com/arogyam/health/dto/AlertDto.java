@@ -1,4 +1,190 @@
 package com.arogyam.health.dto;
 
+import com.arogyam.health.entity.AlertSeverity;
+import com.arogyam.health.entity.AlertStatus;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+
+/**
+ * An alert as submitted by a field worker and as returned to dashboards.
+ * On submission only disease, severity and either villageId or district are
+ * needed; id, district (when a village is given), raisedById, status,
+ * occurrenceCount and createdAt are filled in by the server.
+ */
 public class AlertDto {
+    private Long id;
+
+    private Long villageId;
+
+    private String villageName;
+
+    @Size(max = 100, message = "District must not exceed 100 characters")
+    private String district;
+
+    @Size(max = 100, message = "State must not exceed 100 characters")
+    private String state;
+
+    private Long raisedById;
+
+    @NotBlank(message = "Disease is required")
+    @Size(max = 100, message = "Disease must not exceed 100 characters")
+    private String disease;
+
+    @NotNull(message = "Severity is required")
+    private AlertSeverity severity;
+
+    private AlertStatus status;
+
+    @Size(max = 1000, message = "Description must not exceed 1000 characters")
+    private String description;
+
+    @Min(value = 1, message = "Case count must be at least 1")
+    private Integer caseCount;
+
+    private Integer occurrenceCount;
+
+    private LocalDateTime reportedAt;
+
+    private LocalDateTime createdAt;
+
+    // Default constructor
+    public AlertDto() {
+    }
+
+    // Read projection used by AlertRepository
+    public AlertDto(Long id, Long villageId, String villageName, String district, String state, Long raisedById,
+                    String disease, AlertSeverity severity, AlertStatus status, String description,
+                    Integer caseCount, Integer occurrenceCount, LocalDateTime reportedAt, LocalDateTime createdAt) {
+        this.id = id;
+        this.villageId = villageId;
+        this.villageName = villageName;
+        this.district = district;
+        this.state = state;
+        this.raisedById = raisedById;
+        this.disease = disease;
+        this.severity = severity;
+        this.status = status;
+        this.description = description;
+        this.caseCount = caseCount;
+        this.occurrenceCount = occurrenceCount;
+        this.reportedAt = reportedAt;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVillageId() {
+        return villageId;
+    }
+
+    public void setVillageId(Long villageId) {
+        this.villageId = villageId;
+    }
+
+    public String getVillageName() {
+        return villageName;
+    }
+
+    public void setVillageName(String villageName) {
+        this.villageName = villageName;
+    }
+
+    public String getDistrict() {
+        return district;
+    }
+
+    public void setDistrict(String district) {
+        this.district = district;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public Long getRaisedById() {
+        return raisedById;
+    }
+
+    public void setRaisedById(Long raisedById) {
+        this.raisedById = raisedById;
+    }
+
+    public String getDisease() {
+        return disease;
+    }
+
+    public void setDisease(String disease) {
+        this.disease = disease;
+    }
+
+    public AlertSeverity getSeverity() {
+        return severity;
+    }
+
+    public void setSeverity(AlertSeverity severity) {
+        this.severity = severity;
+    }
+
+    public AlertStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(AlertStatus status) {
+        this.status = status;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Integer getCaseCount() {
+        return caseCount;
+    }
+
+    public void setCaseCount(Integer caseCount) {
+        this.caseCount = caseCount;
+    }
+
+    public Integer getOccurrenceCount() {
+        return occurrenceCount;
+    }
+
+    public void setOccurrenceCount(Integer occurrenceCount) {
+        this.occurrenceCount = occurrenceCount;
+    }
+
+    public LocalDateTime getReportedAt() {
+        return reportedAt;
+    }
+
+    public void setReportedAt(LocalDateTime reportedAt) {
+        this.reportedAt = reportedAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
 }
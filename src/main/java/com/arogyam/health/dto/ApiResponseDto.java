@@ -1,6 +1,9 @@
 package com.arogyam.health.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Objects;
 
 public class ApiResponseDto<T> {
@@ -10,6 +13,10 @@ public class ApiResponseDto<T> {
     private LocalDateTime timestamp;
     private String error;
 
+    // Opaque keyset cursor for the next page of a listing; omitted when there is none
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
     // Default constructor
     public ApiResponseDto() {
         this.timestamp = LocalDateTime.now();
@@ -70,6 +77,14 @@ public class ApiResponseDto<T> {
         this.error = error;
     }
 
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
     // Builder pattern implementation (following pattern from other DTOs)
     public static <T> ApiResponseDtoBuilder<T> builder() {
         return new ApiResponseDtoBuilder<>();
@@ -112,6 +127,12 @@ public class ApiResponseDto<T> {
         return new ApiResponseDto<>(true, message, data);
     }
 
+    public static <T> ApiResponseDto<List<T>> page(String message, CursorPageDto<T> page) {
+        ApiResponseDto<List<T>> response = new ApiResponseDto<>(true, message, page.getItems());
+        response.setNextCursor(page.getNextCursor());
+        return response;
+    }
+
     public static <T> ApiResponseDto<T> success(String message) {
         return new ApiResponseDto<>(true, message, null);
     }
@@ -150,6 +171,10 @@ public class ApiResponseDto<T> {
         return new ApiResponseDto<>(false, message, null, "Bad request");
     }
 
+    public static <T> ApiResponseDto<T> serviceUnavailable(String message) {
+        return new ApiResponseDto<>(false, message, null, "Service unavailable");
+    }
+
     // Utility methods
     public boolean hasData() {
         return data != null;
@@ -175,13 +200,14 @@ public class ApiResponseDto<T> {
         if (!Objects.equals(message, that.message)) return false;
         if (!Objects.equals(data, that.data)) return false;
         if (!Objects.equals(timestamp, that.timestamp)) return false;
+        if (!Objects.equals(nextCursor, that.nextCursor)) return false;
         return Objects.equals(error, that.error);
     }
 
     // hashCode() method using modern approach
     @Override
     public int hashCode() {
-        return Objects.hash(success, message, data, timestamp, error);
+        return Objects.hash(success, message, data, timestamp, error, nextCursor);
     }
 
     // toString() method
@@ -193,6 +219,7 @@ public class ApiResponseDto<T> {
                 ", data=" + data +
                 ", timestamp=" + timestamp +
                 ", error='" + error + '\'' +
+                ", nextCursor='" + nextCursor + '\'' +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,132 @@
+package com.arogyam.health.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkImportReportDto {
+    private long totalRows;
+    private long importedRows;
+    // Rows that matched an existing record and updated it in place (village import)
+    private long updatedRows;
+    private long rejectedRows;
+    private long durationMs;
+    private double rowsPerSecond;
+    private List<RowError> errors = new ArrayList<>();
+    // True when more rows were rejected than are listed in errors
+    private boolean errorsTruncated;
+
+    // Default constructor
+    public BulkImportReportDto() {
+    }
+
+    // Getters and Setters
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    public void setTotalRows(long totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    public long getImportedRows() {
+        return importedRows;
+    }
+
+    public void setImportedRows(long importedRows) {
+        this.importedRows = importedRows;
+    }
+
+    public long getUpdatedRows() {
+        return updatedRows;
+    }
+
+    public void setUpdatedRows(long updatedRows) {
+        this.updatedRows = updatedRows;
+    }
+
+    public long getRejectedRows() {
+        return rejectedRows;
+    }
+
+    public void setRejectedRows(long rejectedRows) {
+        this.rejectedRows = rejectedRows;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    // Utility methods
+    public void reject(long row, String message, int maxErrors) {
+        rejectedRows++;
+        if (errors.size() < maxErrors) {
+            errors.add(new RowError(row, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    public void finish(long startedAtMillis) {
+        this.durationMs = System.currentTimeMillis() - startedAtMillis;
+        this.rowsPerSecond = durationMs > 0 ? totalRows * 1000.0 / durationMs : totalRows;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkImportReportDto{" +
+                "totalRows=" + totalRows +
+                ", importedRows=" + importedRows +
+                ", updatedRows=" + updatedRows +
+                ", rejectedRows=" + rejectedRows +
+                ", durationMs=" + durationMs +
+                ", rowsPerSecond=" + rowsPerSecond +
+                '}';
+    }
+
+    // Per-row failure; row is the 1-based line number in the uploaded file
+    public static class RowError {
+        private long row;
+        private String message;
+
+        public RowError() {
+        }
+
+        public RowError(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        public long getRow() { return row; }
+        public void setRow(long row) { this.row = row; }
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+}
@@ -0,0 +1,34 @@
+package com.arogyam.health.dto;
+
+import java.util.List;
+
+// One keyset page; nextCursor is null on the last page
+public class CursorPageDto<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    public CursorPageDto(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    @Override
+    public String toString() {
+        return "CursorPageDto{" +
+                "items=" + items.size() +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,91 @@
+package com.arogyam.health.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One state, district or village in the administrative hierarchy. States and
+ * districts are identified by name, districts also carry their state; villages
+ * carry their database id.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class HierarchyNodeDto {
+    private String name;
+    private String level;
+    private String state;
+    private Long villageId;
+    private int childCount;
+    private int villageCount;
+    private long population;
+
+    // Default constructor
+    public HierarchyNodeDto() {
+    }
+
+    public HierarchyNodeDto(String name, String level, String state, Long villageId,
+                            int childCount, int villageCount, long population) {
+        this.name = name;
+        this.level = level;
+        this.state = state;
+        this.villageId = villageId;
+        this.childCount = childCount;
+        this.villageCount = villageCount;
+        this.population = population;
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getLevel() {
+        return level;
+    }
+
+    public void setLevel(String level) {
+        this.level = level;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public Long getVillageId() {
+        return villageId;
+    }
+
+    public void setVillageId(Long villageId) {
+        this.villageId = villageId;
+    }
+
+    public int getChildCount() {
+        return childCount;
+    }
+
+    public void setChildCount(int childCount) {
+        this.childCount = childCount;
+    }
+
+    public int getVillageCount() {
+        return villageCount;
+    }
+
+    public void setVillageCount(int villageCount) {
+        this.villageCount = villageCount;
+    }
+
+    public long getPopulation() {
+        return population;
+    }
+
+    public void setPopulation(long population) {
+        this.population = population;
+    }
+}
@@ -0,0 +1,92 @@
+package com.arogyam.health.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Objects;
+
+// Compact per-token result; invalid tokens serialize as {"valid":false}
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenIntrospectionDto {
+
+    private boolean valid;
+    private Long userId;
+    private String role;
+    private Long exp; // seconds since epoch, as in the JWT
+
+    // Default constructor
+    public TokenIntrospectionDto() {
+    }
+
+    // All arguments constructor
+    public TokenIntrospectionDto(boolean valid, Long userId, String role, Long exp) {
+        this.valid = valid;
+        this.userId = userId;
+        this.role = role;
+        this.exp = exp;
+    }
+
+    public static TokenIntrospectionDto invalid() {
+        return new TokenIntrospectionDto(false, null, null, null);
+    }
+
+    // Getters and Setters
+    public boolean isValid() {
+        return valid;
+    }
+
+    public void setValid(boolean valid) {
+        this.valid = valid;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
+    public Long getExp() {
+        return exp;
+    }
+
+    public void setExp(Long exp) {
+        this.exp = exp;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        TokenIntrospectionDto that = (TokenIntrospectionDto) obj;
+
+        if (valid != that.valid) return false;
+        if (!Objects.equals(userId, that.userId)) return false;
+        if (!Objects.equals(role, that.role)) return false;
+        return Objects.equals(exp, that.exp);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(valid, userId, role, exp);
+    }
+
+    @Override
+    public String toString() {
+        return "TokenIntrospectionDto{" +
+                "valid=" + valid +
+                ", userId=" + userId +
+                ", role='" + role + '\'' +
+                ", exp=" + exp +
+                '}';
+    }
+}
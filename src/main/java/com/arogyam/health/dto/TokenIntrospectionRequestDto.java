@@ -0,0 +1,52 @@
+package com.arogyam.health.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+import java.util.Objects;
+
+public class TokenIntrospectionRequestDto {
+
+    @NotEmpty(message = "At least one token is required")
+    private List<String> tokens;
+
+    // Default constructor
+    public TokenIntrospectionRequestDto() {
+    }
+
+    // All arguments constructor
+    public TokenIntrospectionRequestDto(List<String> tokens) {
+        this.tokens = tokens;
+    }
+
+    // Getters and Setters
+    public List<String> getTokens() {
+        return tokens;
+    }
+
+    public void setTokens(List<String> tokens) {
+        this.tokens = tokens;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        TokenIntrospectionRequestDto that = (TokenIntrospectionRequestDto) obj;
+        return Objects.equals(tokens, that.tokens);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(tokens);
+    }
+
+    // toString() method (tokens masked for security)
+    @Override
+    public String toString() {
+        return "TokenIntrospectionRequestDto{" +
+                "tokens=" + (tokens != null ? tokens.size() : 0) +
+                '}';
+    }
+}
@@ -0,0 +1,109 @@
+package com.arogyam.health.dto;
+
+import com.arogyam.health.entity.UserRole;
+
+public class UserSearchHitDto {
+    private Long id;
+    private String username;
+    private String fullName;
+    private String phoneNumber;
+    private UserRole role;
+    private String district;
+    private Boolean isActive;
+    // Higher is better: exact field match, then prefix, then word start, then substring
+    private int score;
+
+    // Default constructor
+    public UserSearchHitDto() {
+    }
+
+    // All arguments constructor
+    public UserSearchHitDto(Long id, String username, String fullName, String phoneNumber,
+                            UserRole role, String district, Boolean isActive, int score) {
+        this.id = id;
+        this.username = username;
+        this.fullName = fullName;
+        this.phoneNumber = phoneNumber;
+        this.role = role;
+        this.district = district;
+        this.isActive = isActive;
+        this.score = score;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public void setFullName(String fullName) {
+        this.fullName = fullName;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    public void setPhoneNumber(String phoneNumber) {
+        this.phoneNumber = phoneNumber;
+    }
+
+    public UserRole getRole() {
+        return role;
+    }
+
+    public void setRole(UserRole role) {
+        this.role = role;
+    }
+
+    public String getDistrict() {
+        return district;
+    }
+
+    public void setDistrict(String district) {
+        this.district = district;
+    }
+
+    public Boolean getIsActive() {
+        return isActive;
+    }
+
+    public void setIsActive(Boolean isActive) {
+        this.isActive = isActive;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public void setScore(int score) {
+        this.score = score;
+    }
+
+    @Override
+    public String toString() {
+        return "UserSearchHitDto{" +
+                "id=" + id +
+                ", username='" + username + '\'' +
+                ", fullName='" + fullName + '\'' +
+                ", role=" + role +
+                ", district='" + district + '\'' +
+                ", score=" + score +
+                '}';
+    }
+}
@@ -0,0 +1,77 @@
+package com.arogyam.health.dto;
+
+/**
+ * A village returned by a proximity query, with its great-circle distance
+ * from the query point.
+ */
+public class VillageDistanceDto {
+    private Long villageId;
+    private String name;
+    private String district;
+    private double latitude;
+    private double longitude;
+    private double distanceKm;
+
+    // Default constructor
+    public VillageDistanceDto() {
+    }
+
+    public VillageDistanceDto(Long villageId, String name, String district,
+                              double latitude, double longitude, double distanceKm) {
+        this.villageId = villageId;
+        this.name = name;
+        this.district = district;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.distanceKm = distanceKm;
+    }
+
+    // Getters and Setters
+    public Long getVillageId() {
+        return villageId;
+    }
+
+    public void setVillageId(Long villageId) {
+        this.villageId = villageId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDistrict() {
+        return district;
+    }
+
+    public void setDistrict(String district) {
+        this.district = district;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(double latitude) {
+        this.latitude = latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(double longitude) {
+        this.longitude = longitude;
+    }
+
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public void setDistanceKm(double distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+}
@@ -0,0 +1,184 @@
+package com.arogyam.health.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "alerts")
+public class AlertEntity {
+
+    // Pooled like users and villages; AlertIngestionService allocates from the same sequence
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "alerts_id_seq")
+    @SequenceGenerator(name = "alerts_id_seq", sequenceName = "alerts_id_seq", allocationSize = 50)
+    private Long id;
+
+    // Optional: an alert may only be known down to its district
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "village_id")
+    private VillageEntity village;
+
+    // Copied from the village when there is one, so district queries need no join
+    @Column(nullable = false, length = 100)
+    private String district;
+
+    @Column(length = 100)
+    private String state;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "raised_by", nullable = false)
+    private UserEntity raisedBy;
+
+    @Column(nullable = false, length = 100)
+    private String disease;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private AlertSeverity severity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private AlertStatus status = AlertStatus.OPEN;
+
+    @Column(length = 1000)
+    private String description;
+
+    @Column(name = "case_count")
+    private Integer caseCount;
+
+    // Duplicate reports merged into this alert by AlertDeduplicator, this one included
+    @Column(name = "occurrence_count", nullable = false)
+    private Integer occurrenceCount = 1;
+
+    // When the worker observed it; may be well before created_at for reports queued offline
+    @Column(name = "reported_at", nullable = false)
+    private LocalDateTime reportedAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Default constructor
+    public AlertEntity() {
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public VillageEntity getVillage() {
+        return village;
+    }
+
+    public void setVillage(VillageEntity village) {
+        this.village = village;
+    }
+
+    public String getDistrict() {
+        return district;
+    }
+
+    public void setDistrict(String district) {
+        this.district = district;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public UserEntity getRaisedBy() {
+        return raisedBy;
+    }
+
+    public void setRaisedBy(UserEntity raisedBy) {
+        this.raisedBy = raisedBy;
+    }
+
+    public String getDisease() {
+        return disease;
+    }
+
+    public void setDisease(String disease) {
+        this.disease = disease;
+    }
+
+    public AlertSeverity getSeverity() {
+        return severity;
+    }
+
+    public void setSeverity(AlertSeverity severity) {
+        this.severity = severity;
+    }
+
+    public AlertStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(AlertStatus status) {
+        this.status = status;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Integer getCaseCount() {
+        return caseCount;
+    }
+
+    public void setCaseCount(Integer caseCount) {
+        this.caseCount = caseCount;
+    }
+
+    public Integer getOccurrenceCount() {
+        return occurrenceCount;
+    }
+
+    public void setOccurrenceCount(Integer occurrenceCount) {
+        this.occurrenceCount = occurrenceCount;
+    }
+
+    public LocalDateTime getReportedAt() {
+        return reportedAt;
+    }
+
+    public void setReportedAt(LocalDateTime reportedAt) {
+        this.reportedAt = reportedAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,18 @@
+package com.arogyam.health.entity;
+
+public enum AlertSeverity {
+    LOW("Low"),
+    MEDIUM("Medium"),
+    HIGH("High"),
+    CRITICAL("Critical");
+
+    private final String displayName;
+
+    AlertSeverity(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,17 @@
+package com.arogyam.health.entity;
+
+public enum AlertStatus {
+    OPEN("Open"),
+    ACKNOWLEDGED("Acknowledged"),
+    RESOLVED("Resolved");
+
+    private final String displayName;
+
+    AlertStatus(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -1,16 +1,21 @@
 package com.arogyam.health.entity;
 
+import com.arogyam.health.listener.WorkerCountListener;
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(WorkerCountListener.class)
 public class UserEntity {
 
+    // Pooled sequence (see V3 migration): one nextval per 50 inserts, and inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_seq")
+    @SequenceGenerator(name = "users_id_seq", sequenceName = "users_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -45,9 +50,33 @@ public class UserEntity {
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
-    @Column(name = "last_login")
+    // Written only by LastLoginUpdateBuffer through JDBC; read-only here, so saving a
+    // loaded user never writes back a stale value over a buffered flush
+    @Column(name = "last_login", insertable = false, updatable = false)
     private LocalDateTime lastLogin;
 
+    // Set on every insert and update; in-memory user indexes catch up on changes by this column
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Bumped whenever previously issued tokens must stop being accepted
+    @Column(name = "token_epoch")
+    private Integer tokenEpoch = 0;
+
+    @Column(name = "token_epoch_changed_at")
+    private LocalDateTime tokenEpochChangedAt;
+
+    // Role/district/active state last applied to WorkerCountMatrix; never persisted
+    @Transient
+    private UserRole countedRole;
+
+    @Transient
+    private String countedDistrict;
+
+    @Transient
+    private boolean countedActive;
+
     // Default constructor
     public UserEntity() {
     }
@@ -172,6 +201,49 @@ public class UserEntity {
         this.lastLogin = lastLogin;
     }
 
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public int getTokenEpoch() {
+        return tokenEpoch != null ? tokenEpoch : 0;
+    }
+
+    public void setTokenEpoch(Integer tokenEpoch) {
+        this.tokenEpoch = tokenEpoch;
+    }
+
+    public LocalDateTime getTokenEpochChangedAt() {
+        return tokenEpochChangedAt;
+    }
+
+    public void setTokenEpochChangedAt(LocalDateTime tokenEpochChangedAt) {
+        this.tokenEpochChangedAt = tokenEpochChangedAt;
+    }
+
+    public UserRole getCountedRole() {
+        return countedRole;
+    }
+
+    public String getCountedDistrict() {
+        return countedDistrict;
+    }
+
+    public boolean isCountedActive() {
+        return countedActive;
+    }
+
+    // Remembers the current state as the one reflected in the worker counts
+    public void markCounted() {
+        this.countedRole = role;
+        this.countedDistrict = district;
+        this.countedActive = Boolean.TRUE.equals(isActive);
+    }
+
     @Override
     public String toString() {
         return "UserEntity{" +
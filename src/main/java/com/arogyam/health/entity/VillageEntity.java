@@ -10,8 +10,10 @@ import java.time.LocalDateTime;
 @Table(name = "villages")
 public class VillageEntity {
 
+    // Ids come in blocks of 50 from villages_id_seq (V3 migration)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "villages_id_seq")
+    @SequenceGenerator(name = "villages_id_seq", sequenceName = "villages_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 200)
@@ -0,0 +1,91 @@
+package com.arogyam.health.listener;
+
+import com.arogyam.health.entity.UserEntity;
+import com.arogyam.health.entity.UserRole;
+import com.arogyam.health.service.WorkerCountMatrix;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Objects;
+
+/**
+ * Keeps {@link WorkerCountMatrix} in step with UserEntity writes. Each entity
+ * remembers the state it was last counted in, so an update only moves the
+ * cells whose role, district or active flag actually changed. Counters move
+ * after commit; rolled back writes never touch them.
+ */
+@Component
+public class WorkerCountListener {
+
+    // Lazy: the matrix needs UserRepository, which needs the EntityManagerFactory this listener is part of
+    @Autowired
+    @Lazy
+    private WorkerCountMatrix workerCountMatrix;
+
+    @PostLoad
+    public void loaded(UserEntity user) {
+        user.markCounted();
+    }
+
+    @PostPersist
+    public void created(UserEntity user) {
+        UserRole role = user.getRole();
+        String district = user.getDistrict();
+        if (Boolean.TRUE.equals(user.getIsActive())) {
+            afterCommit(() -> workerCountMatrix.increment(role, district));
+        }
+        user.markCounted();
+    }
+
+    @PostUpdate
+    public void updated(UserEntity user) {
+        UserRole oldRole = user.getCountedRole();
+        String oldDistrict = user.getCountedDistrict();
+        boolean wasActive = user.isCountedActive();
+        UserRole newRole = user.getRole();
+        String newDistrict = user.getDistrict();
+        boolean isActive = Boolean.TRUE.equals(user.getIsActive());
+
+        if (wasActive == isActive && oldRole == newRole && Objects.equals(oldDistrict, newDistrict)) {
+            return;
+        }
+        afterCommit(() -> {
+            if (wasActive) {
+                workerCountMatrix.decrement(oldRole, oldDistrict);
+            }
+            if (isActive) {
+                workerCountMatrix.increment(newRole, newDistrict);
+            }
+        });
+        user.markCounted();
+    }
+
+    @PostRemove
+    public void removed(UserEntity user) {
+        UserRole role = user.getCountedRole();
+        String district = user.getCountedDistrict();
+        if (user.isCountedActive()) {
+            afterCommit(() -> workerCountMatrix.decrement(role, district));
+        }
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
@@ -1,5 +1,69 @@
 package com.arogyam.health.repository;
 
-public interface AlertRepository {
+import com.arogyam.health.dto.AlertDto;
+import com.arogyam.health.entity.AlertEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AlertRepository extends JpaRepository<AlertEntity, Long> {
+
+    // Listings select straight into the DTO; raisedBy.id reads the foreign key without a join
+    String RESPONSE_PROJECTION = "SELECT new com.arogyam.health.dto.AlertDto(" +
+            "a.id, v.id, v.name, a.district, a.state, a.raisedBy.id, a.disease, a.severity, a.status, " +
+            "a.description, a.caseCount, a.occurrenceCount, a.reportedAt, a.createdAt) FROM AlertEntity a LEFT JOIN a.village v ";
+
+    // Newest first within [from, to); callers continue from the (reportedAt, id) of the last row seen
+    String BEFORE_CURSOR = "a.reportedAt >= :from " +
+            "AND (a.reportedAt < :beforeTime OR (a.reportedAt = :beforeTime AND a.id < :beforeId)) " +
+            "ORDER BY a.reportedAt DESC, a.id DESC";
+
+    @Query(RESPONSE_PROJECTION + "WHERE a.id = :id")
+    Optional<AlertDto> findResponseById(@Param("id") Long id);
+
+    @Query(RESPONSE_PROJECTION + "WHERE a.district = :district AND " + BEFORE_CURSOR)
+    List<AlertDto> findPageByDistrict(@Param("district") String district,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("beforeTime") LocalDateTime beforeTime,
+                                      @Param("beforeId") long beforeId,
+                                      Pageable limit);
+
+    // (id, createdAt, district) of alerts inserted on any node after a (createdAt, id) mark and up to
+    // a time, oldest first; the live stream pages through these and loads only the ones it has not sent.
+    // The redundant createdAt >= :afterTime keeps the range on idx_alerts_created_at instead of an OR
+    // with a primary key scan
+    @Query("SELECT a.id, a.createdAt, a.district FROM AlertEntity a " +
+            "WHERE a.district IN :districts AND a.createdAt >= :afterTime AND a.createdAt <= :until " +
+            "AND (a.createdAt > :afterTime OR (a.createdAt = :afterTime AND a.id > :afterId)) " +
+            "ORDER BY a.createdAt, a.id")
+    List<Object[]> findKeysCreatedAfter(@Param("afterTime") LocalDateTime afterTime,
+                                        @Param("afterId") long afterId,
+                                        @Param("until") LocalDateTime until,
+                                        @Param("districts") Collection<String> districts,
+                                        Pageable limit);
+
+    // (id, createdAt, district) of alerts inserted within [from, to]; the live stream re-checks
+    // the span behind its mark for alerts that committed late
+    @Query("SELECT a.id, a.createdAt, a.district FROM AlertEntity a " +
+            "WHERE a.district IN :districts AND a.createdAt >= :from AND a.createdAt <= :to")
+    List<Object[]> findKeysCreatedBetween(@Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to,
+                                          @Param("districts") Collection<String> districts);
+
+    @Query(RESPONSE_PROJECTION + "WHERE a.id IN :ids ORDER BY a.createdAt, a.id")
+    List<AlertDto> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(RESPONSE_PROJECTION + "WHERE " + BEFORE_CURSOR)
+    List<AlertDto> findPage(@Param("from") LocalDateTime from,
+                            @Param("beforeTime") LocalDateTime beforeTime,
+                            @Param("beforeId") long beforeId,
+                            Pageable limit);
 }
@@ -1,14 +1,21 @@
 package com.arogyam.health.repository;
 
+import com.arogyam.health.dto.UserResponseDto;
 import com.arogyam.health.entity.UserEntity;
 import com.arogyam.health.entity.UserRole;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<UserEntity, Long> {
@@ -17,6 +24,9 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
 
     Optional<UserEntity> findByPhoneNumber(String phoneNumber);
 
+    @Query("SELECT u.id FROM UserEntity u WHERE u.phoneNumber = :phoneNumber")
+    Optional<Long> findIdByPhoneNumber(@Param("phoneNumber") String phoneNumber);
+
     boolean existsByUsername(String username);
 
     boolean existsByPhoneNumber(String phoneNumber);
@@ -25,6 +35,16 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
 
     List<UserEntity> findByDistrictAndRole(String district, UserRole role);
 
+    // Alert recipients (RecipientResolver): ids only, active users, ascending
+    @Query("SELECT u.id FROM UserEntity u WHERE u.district = :district AND u.role = :role " +
+            "AND u.isActive = true ORDER BY u.id")
+    List<Long> findActiveIdsByDistrictAndRole(@Param("district") String district, @Param("role") UserRole role);
+
+    @Query("SELECT u.id FROM UserEntity u WHERE u.district = :district AND u.village = :village " +
+            "AND u.role = :role AND u.isActive = true ORDER BY u.id")
+    List<Long> findActiveIdsByVillageAndRole(@Param("district") String district, @Param("village") String village,
+                                             @Param("role") UserRole role);
+
     List<UserEntity> findByIsActiveTrue();
 
     @Query("SELECT u FROM UserEntity u WHERE u.role = :role AND u.isActive = true")
@@ -32,4 +52,68 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
 
     @Query("SELECT COUNT(u) FROM UserEntity u WHERE u.role = :role AND u.district = :district")
     long countByRoleAndDistrict(@Param("role") UserRole role, @Param("district") String district);
-}
\ No newline at end of file
+
+    // Rows are [role, district, count]; seeds and reconciles WorkerCountMatrix
+    @Query("SELECT u.role, u.district, COUNT(u) FROM UserEntity u WHERE u.isActive = true GROUP BY u.role, u.district")
+    List<Object[]> countActiveByRoleAndDistrict();
+
+    // Rows are [id, tokenEpoch, tokenEpochChangedAt]
+    @Query("SELECT u.id, u.tokenEpoch, u.tokenEpochChangedAt FROM UserEntity u WHERE u.tokenEpoch > 0")
+    List<Object[]> findTokenEpochs();
+
+    @Query("SELECT u.id, u.tokenEpoch, u.tokenEpochChangedAt FROM UserEntity u WHERE u.tokenEpochChangedAt > :since")
+    List<Object[]> findTokenEpochsChangedSince(@Param("since") LocalDateTime since);
+
+    // Rows are [id, username] changed since a given time, on any node; evicts UserPrincipalCache
+    @Query("SELECT u.id, u.username FROM UserEntity u WHERE u.updatedAt > :since")
+    List<Object[]> findIdsAndUsernamesChangedSince(@Param("since") LocalDateTime since);
+
+    // Rows are [username, phoneNumber]; used to dedupe bulk imports without a query per row
+    @Query("SELECT u.username, u.phoneNumber FROM UserEntity u")
+    List<Object[]> findAllUsernamesAndPhoneNumbers();
+
+    // Rows are [id, phoneNumber] in id order; loads PhoneNumberIndex
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.id, u.phoneNumber FROM UserEntity u ORDER BY u.id")
+    Stream<Object[]> streamIdsAndPhoneNumbers();
+
+    // Rows inserted or changed since a given time, on any node; catches up PhoneNumberIndex
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.id, u.phoneNumber FROM UserEntity u WHERE u.updatedAt > :since ORDER BY u.id")
+    Stream<Object[]> streamIdsAndPhoneNumbersChangedSince(@Param("since") LocalDateTime since);
+
+    // Read-only listings select straight into the response DTO: no password hash, no managed entities
+    String RESPONSE_PROJECTION = "SELECT new com.arogyam.health.dto.UserResponseDto(" +
+            "u.id, u.username, u.fullName, u.phoneNumber, u.email, u.role, u.district, u.state, " +
+            "u.village, u.isActive, u.createdAt, u.lastLogin) FROM UserEntity u ";
+
+    @Query(RESPONSE_PROJECTION + "WHERE u.username = :username")
+    Optional<UserResponseDto> findResponseByUsername(@Param("username") String username);
+
+    // Keyset pages: callers pass the last id they saw and a Pageable that only carries the limit
+    @Query(RESPONSE_PROJECTION + "WHERE u.id > :afterId ORDER BY u.id")
+    List<UserResponseDto> findPageAfter(@Param("afterId") long afterId, Pageable limit);
+
+    @Query(RESPONSE_PROJECTION + "WHERE u.isActive = true AND u.id > :afterId ORDER BY u.id")
+    List<UserResponseDto> findActivePageAfter(@Param("afterId") long afterId, Pageable limit);
+
+    @Query(RESPONSE_PROJECTION + "WHERE u.role = :role AND u.isActive = true AND u.id > :afterId ORDER BY u.id")
+    List<UserResponseDto> findActiveByRolePageAfter(@Param("role") UserRole role,
+                                                    @Param("afterId") long afterId,
+                                                    Pageable limit);
+
+    @Query(RESPONSE_PROJECTION + "WHERE u.district = :district AND u.isActive = true AND u.id > :afterId ORDER BY u.id")
+    List<UserResponseDto> findActiveByDistrictPageAfter(@Param("district") String district,
+                                                        @Param("afterId") long afterId,
+                                                        Pageable limit);
+
+    // Forward-only cursor for exports; must be consumed inside a transaction and closed
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(RESPONSE_PROJECTION + "ORDER BY u.id")
+    Stream<UserResponseDto> streamAllOrderById();
+
+    // Rows inserted or changed since a given time, on any node; catches up the search index
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(RESPONSE_PROJECTION + "WHERE u.updatedAt > :since ORDER BY u.id")
+    Stream<UserResponseDto> streamChangedSince(@Param("since") LocalDateTime since);
+}
@@ -1,13 +1,17 @@
 package com.arogyam.health.repository;
 
 import com.arogyam.health.entity.VillageEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface VillageRepository extends JpaRepository<VillageEntity, Long> {
@@ -22,4 +26,24 @@ public interface VillageRepository extends JpaRepository<VillageEntity, Long> {
 
     boolean existsByNameAndDistrict(String name, String district);
 
+    @Query("SELECT DISTINCT v.district FROM VillageEntity v WHERE v.state = :state ORDER BY v.district")
+    List<String> findDistinctDistrictsByState(@Param("state") String state);
+
+    // Rows are [name, district]; preloads the village import's duplicate check
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("SELECT v.name, v.district FROM VillageEntity v")
+    Stream<Object[]> streamNamesAndDistricts();
+
+    // Rows are [id, name, district, state, population] in hierarchy order; builds VillageHierarchy
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT v.id, v.name, v.district, v.state, v.population FROM VillageEntity v " +
+            "ORDER BY v.state, v.district, v.name, v.id")
+    Stream<Object[]> streamHierarchyRows();
+
+    // Rows are [id, name, district, latitude, longitude] for located villages; builds VillageSpatialIndex
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT v.id, v.name, v.district, v.latitude, v.longitude FROM VillageEntity v " +
+            "WHERE v.latitude IS NOT NULL AND v.longitude IS NOT NULL")
+    Stream<Object[]> streamCoordinates();
+
 }
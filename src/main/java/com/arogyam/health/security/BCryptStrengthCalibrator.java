@@ -0,0 +1,84 @@
+package com.arogyam.health.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Picks the BCrypt work factor: the highest strength whose hash still fits the
+ * latency budget, never below the configured floor.
+ *
+ * Calibration runs once per deployment, on the first node to start, and is
+ * stored in the password_hashing table. Every later start, on any node, uses
+ * the stored strength, so nodes on different hardware hash alike.
+ */
+public final class BCryptStrengthCalibrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(BCryptStrengthCalibrator.class);
+
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+    private static final int SAMPLES = 3;
+
+    private static final String SELECT_SQL = "SELECT strength FROM password_hashing WHERE id = 1";
+    private static final String INSERT_SQL =
+            "INSERT INTO password_hashing (id, strength, calibrated_at) VALUES (1, ?, ?) ON CONFLICT (id) DO NOTHING";
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    /**
+     * The stored strength, raised to minStrength if the floor has since gone up.
+     * Calibrates and stores it if no node has yet; when two nodes race, the
+     * first insert wins and both use it.
+     */
+    public static int resolve(JdbcTemplate jdbcTemplate, long targetMillis, int minStrength, int maxStrength) {
+        List<Integer> stored = jdbcTemplate.queryForList(SELECT_SQL, Integer.class);
+        if (stored.isEmpty()) {
+            int calibrated = calibrate(targetMillis, minStrength, maxStrength);
+            jdbcTemplate.update(INSERT_SQL, calibrated, new Timestamp(System.currentTimeMillis()));
+            stored = jdbcTemplate.queryForList(SELECT_SQL, Integer.class);
+        }
+        int strength = Math.max(stored.get(0), minStrength);
+        logger.info("BCrypt strength {} (stored {}, floor {})", strength, stored.get(0), minStrength);
+        return strength;
+    }
+
+    public static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+        int chosen = minStrength;
+        long chosenMillis = -1;
+
+        for (int strength = minStrength; strength <= maxStrength; strength++) {
+            long millis = measure(strength);
+            if (strength > minStrength && millis > targetMillis) {
+                break;
+            }
+            chosen = strength;
+            chosenMillis = millis;
+            // Each step doubles the cost, so stop once the next one is certain to overshoot
+            if (millis * 2 > targetMillis) {
+                break;
+            }
+        }
+
+        logger.info("BCrypt strength calibrated to {} (~{} ms per hash, budget {} ms)",
+                chosen, chosenMillis, targetMillis);
+        return chosen;
+    }
+
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        encoder.encode(SAMPLE_PASSWORD); // warm-up
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            best = Math.min(best, (System.nanoTime() - start) / 1_000_000);
+        }
+        return best;
+    }
+}
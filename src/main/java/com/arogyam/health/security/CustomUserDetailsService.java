@@ -5,28 +5,58 @@ import com.arogyam.health.repository.UserRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService{
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserPrincipalCache principalCache;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return principalCache.getByUsername(username, key -> {
+            UserEntity user = userRepository.findByUsername(key)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + key));
+
+            return UserPrincipal.create(user);
+        });
+    }
+
+    // Password checks always read the stored row: a hash changed on another node must not stay valid
+    public UserDetails loadUserForLogin(String username) throws UsernameNotFoundException {
         UserEntity user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
 
         return UserPrincipal.create(user);
     }
+
     @Transactional
     public UserDetails loadUserById(Long id) {
-        UserEntity user = userRepository.findById(id)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id));
+        return principalCache.getById(id, key -> {
+            UserEntity user = userRepository.findById(key)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + key));
 
-        return UserPrincipal.create(user);
+            return UserPrincipal.create(user);
+        });
+    }
+
+    // Called by DaoAuthenticationProvider after a successful login with an outdated hash
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserEntity entity = userRepository.findByUsername(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + user.getUsername()));
+
+        entity.setPasswordHash(newPassword);
+        UserEntity saved = userRepository.save(entity);
+        principalCache.evict(saved.getId(), saved.getUsername());
+
+        return UserPrincipal.create(saved);
     }
 }
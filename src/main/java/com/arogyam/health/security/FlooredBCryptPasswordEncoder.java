@@ -0,0 +1,33 @@
+package com.arogyam.health.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt encoder that asks for a rehash only when a stored hash's cost is below
+ * a floor, not whenever it differs from the strength new hashes are written
+ * with. Raising the strength then costs nothing at login until the floor is
+ * raised with it.
+ */
+public class FlooredBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Pattern COST = Pattern.compile("\\A\\$2[abxy]?\\$(\\d\\d)\\$");
+
+    private final int minStrength;
+
+    public FlooredBCryptPasswordEncoder(int strength, int minStrength) {
+        super(strength);
+        this.minStrength = Math.min(strength, minStrength);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher cost = COST.matcher(encodedPassword);
+        return cost.find() && Integer.parseInt(cost.group(1)) < minStrength;
+    }
+}
@@ -3,6 +3,7 @@ package com.arogyam.health.security;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -13,19 +14,35 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 
 @Component
 public class JwtTokenProvider {
 
+    public static final String TOKEN_EPOCH_CLAIM = "tep";
+
     @Value("${app.jwt.secret:mySecretKey123456789012345678901234567890}")
     private String jwtSecret;
 
     @Value("${app.jwt.expiration:86400000}") // 24 hours in milliseconds
     private Long jwtExpirationMs;
 
-    private SecretKey getSigningKey(){
+    // Built once: the key and the parser are immutable and safe to share across threads
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
         // Use StandardCharsets.UTF_8 instead of getBytes() for consistency
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
+
+    private SecretKey getSigningKey(){
+        return signingKey;
     }
 
     public String generateToken(Authentication authentication){
@@ -35,6 +52,7 @@ public class JwtTokenProvider {
         claims.put("userId", userPrincipal.getId());
         claims.put("role", userPrincipal.getRole().name());
         claims.put("fullName", userPrincipal.getFullName());
+        claims.put(TOKEN_EPOCH_CLAIM, userPrincipal.getTokenEpoch());
 
         return generateToken(claims, userPrincipal.getUsername());
     }
@@ -43,6 +61,7 @@ public class JwtTokenProvider {
         return Jwts.builder()
                 .claims(claims) // Use claims() instead of setClaims() in newer version
                 .subject(subject) // Use subject() instead of setSubject()
+                .id(UUID.randomUUID().toString()) // jti, used to revoke this token on logout
                 .issuedAt(new Date()) // Use issuedAt() instead of setIssuedAt()
                 .expiration(new Date(System.currentTimeMillis() + jwtExpirationMs)) // Use expiration() instead of setExpiration()
                 .signWith(getSigningKey()) // signWith() method signature is same
@@ -84,9 +103,7 @@ public class JwtTokenProvider {
 
     private Claims getAllClaimsFromToken(String token){
         try{
-            return Jwts.parser() // In v0.12.3, parser() method is back and preferred
-                    .verifyWith(getSigningKey()) // Use verifyWith() instead of setSigningKey()
-                    .build()
+            return jwtParser
                     .parseSignedClaims(token) // Use parseSignedClaims() instead of parseClaimsJws()
                     .getPayload(); // Use getPayload() instead of getBody()
         } catch (JwtException | IllegalArgumentException e) {
@@ -94,6 +111,18 @@ public class JwtTokenProvider {
         }
     }
 
+    /**
+     * Verifies the signature and expiry once and returns every claim callers need.
+     * Prefer this over the single-claim getters, each of which re-parses the token.
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        try {
+            return Optional.of(VerifiedToken.from(jwtParser.parseSignedClaims(token).getPayload()));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
     public boolean isTokenExpired(String token){
         try {
             final Date expiration = getExpirationDateFromToken(token);
@@ -104,24 +133,19 @@ public class JwtTokenProvider {
     }
 
     public boolean validateToken(String token, UserDetails userDetails){
-        try{
-            final String username = getUsernameFromToken(token);
-            return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-        } catch (Exception e) {
-            return false;
-        }
+        return verify(token)
+                .map(verified -> validateToken(verified, userDetails))
+                .orElse(false);
+    }
+
+    public boolean validateToken(VerifiedToken token, UserDetails userDetails) {
+        return token.getUsername() != null
+                && token.getUsername().equals(userDetails.getUsername())
+                && !token.isExpired();
     }
 
     public boolean validateToken(String token) {
-        try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
-        }
+        return verify(token).isPresent();
     }
 
     // Method to refresh token (generate new token with same claims but extended expiry)
@@ -133,9 +157,14 @@ public class JwtTokenProvider {
             claimsMap.remove("sub");
             claimsMap.remove("iat");
             claimsMap.remove("exp");
+            claimsMap.remove("jti");
             return generateToken(claimsMap, claims.getSubject());
         } catch (Exception e) {
             throw new RuntimeException("Cannot refresh invalid token", e);
         }
     }
+
+    public String refreshToken(VerifiedToken token) {
+        return generateToken(new HashMap<>(token.getCustomClaims()), token.getUsername());
+    }
 }
\ No newline at end of file
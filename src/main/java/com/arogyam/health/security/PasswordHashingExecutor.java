@@ -0,0 +1,112 @@
+package com.arogyam.health.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bulkhead for BCrypt work. Hashing runs on a small dedicated pool with a bounded
+ * queue, so a login storm can only tie up (threads + queue) request threads; the
+ * rest of Tomcat's pool keeps serving cheap reads. When the queue is full the
+ * caller gets a {@link PasswordHashingRejectedException} straight away.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private static final String THREAD_PREFIX = "password-hash-";
+
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitMs;
+
+    private final MeterRegistry meterRegistry;
+    private final Counter rejected;
+
+    public PasswordHashingExecutor(@Value("${app.security.password-hashing.threads:0}") int threads,
+                                   @Value("${app.security.password-hashing.queue-capacity:64}") int queueCapacity,
+                                   @Value("${app.security.password-hashing.max-wait-ms:5000}") long maxWaitMs,
+                                   MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, THREAD_PREFIX + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.maxWaitMs = maxWaitMs;
+        this.meterRegistry = meterRegistry;
+        this.rejected = meterRegistry.counter("auth.password.rejected");
+
+        meterRegistry.gauge("auth.password.queue.depth", executor, pool -> pool.getQueue().size());
+        meterRegistry.gauge("auth.password.active", executor, ThreadPoolExecutor::getActiveCount);
+    }
+
+    public <T> T execute(String operation, Supplier<T> task) {
+        // Already on a hashing thread (nested call): run inline rather than queue behind ourselves
+        if (Thread.currentThread().getName().startsWith(THREAD_PREFIX)) {
+            return task.get();
+        }
+
+        Timer queueWait = meterRegistry.timer("auth.password.queue.wait", "operation", operation);
+        Timer hashTime = meterRegistry.timer("auth.password.hash.time", "operation", operation);
+        long submittedAt = System.nanoTime();
+
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                queueWait.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return task.get();
+                } finally {
+                    hashTime.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingRejectedException("Password hashing capacity exhausted", e);
+        }
+
+        try {
+            return future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new PasswordHashingRejectedException("Password hashing timed out", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
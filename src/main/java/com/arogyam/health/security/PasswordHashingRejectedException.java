@@ -0,0 +1,15 @@
+package com.arogyam.health.security;
+
+/**
+ * Thrown when the password hashing bulkhead is saturated; callers should answer 503.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+
+    public PasswordHashingRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,408 @@
+package com.arogyam.health.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Revoked token ids ("jti"), kept until the token would have expired anyway.
+ *
+ * A Bloom filter sits in front of an exact open-addressing table of
+ * (jti high bits, jti low bits, exp). The common "not revoked" answer comes from
+ * the filter alone, lock-free and without allocating; only filter hits take the
+ * lock and probe the table. Expired entries are purged on a schedule, and the
+ * live set is snapshotted to disk so a restart does not wait on the database.
+ *
+ * Every revocation is also written to the revoked_tokens table, and each node
+ * polls it for revocations made elsewhere, so a token logged out on one node
+ * is refused by the others within app.jwt.revocation.refresh-ms. If the write
+ * fails, the revocation holds locally at once and is written again on the next
+ * poll.
+ */
+@Component
+public class RevokedTokenStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevokedTokenStore.class);
+
+    private static final int SNAPSHOT_MAGIC = 0x4A544930; // "JTI0"
+    private static final int MIN_CAPACITY = 1024;
+    private static final int BLOOM_HASHES = 7;
+
+    // Re-read a little history on each refresh to tolerate clock skew between nodes
+    private static final long REFRESH_OVERLAP_MS = 60_000;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO revoked_tokens (jti_high, jti_low, expires_at, revoked_at) VALUES (?, ?, ?, ?)";
+    private static final int[] INSERT_TYPES = {Types.BIGINT, Types.BIGINT, Types.TIMESTAMP, Types.TIMESTAMP};
+    private static final String SELECT_SQL =
+            "SELECT jti_high, jti_low, expires_at, revoked_at FROM revoked_tokens WHERE revoked_at > ? AND expires_at > ?";
+    private static final String PURGE_SQL = "DELETE FROM revoked_tokens WHERE expires_at <= ?";
+
+    @Value("${app.jwt.revocation.expected-tokens:1000000}")
+    private int expectedTokens;
+
+    @Value("${app.jwt.revocation.snapshot-path:}")
+    private String snapshotPath;
+
+    private final MeterRegistry meterRegistry;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Revocations whose database write failed; retried on the next refresh
+    private final Queue<long[]> unpublished = new ConcurrentLinkedQueue<>();
+
+    private volatile long lastRevocationSeen;
+
+    // Bloom filter; replaced wholesale when the table is purged
+    private volatile AtomicLongArray bloom;
+    private volatile long bloomBits;
+
+    // Exact set, guarded by "this". A slot is empty when its exp is 0.
+    private long[] highs;
+    private long[] lows;
+    private long[] expirations;
+    private int size;
+    private boolean dirty;
+
+    public RevokedTokenStore(MeterRegistry meterRegistry, JdbcTemplate jdbcTemplate) {
+        this.meterRegistry = meterRegistry;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    void init() {
+        // ~9.6 bits per expected token gives a 1% false-positive rate with 7 hashes
+        long bits = Math.max(64, (long) expectedTokens * 10);
+        this.bloomBits = (bits + 63) & ~63L;
+        this.bloom = new AtomicLongArray((int) (bloomBits >>> 6));
+        allocateTable(MIN_CAPACITY);
+
+        loadSnapshot();
+        // Everything still live, from any node
+        refresh();
+        meterRegistry.gauge("auth.revoked.tokens", this, RevokedTokenStore::size);
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        if (!token.isRevocable()) {
+            return false;
+        }
+        if (!mightContain(token.getTokenIdHigh(), token.getTokenIdLow())) {
+            return false;
+        }
+        return containsExact(token.getTokenIdHigh(), token.getTokenIdLow());
+    }
+
+    public void revoke(VerifiedToken token) {
+        if (!token.isRevocable() || token.getExpiration() == null) {
+            return;
+        }
+        long expiresAt = token.getExpiration().getTime();
+        add(token.getTokenIdHigh(), token.getTokenIdLow(), expiresAt);
+        publish(new long[]{token.getTokenIdHigh(), token.getTokenIdLow(), expiresAt});
+    }
+
+    // Picks up revocations made on other nodes and retries failed writes
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.refresh-ms:5000}")
+    public void refresh() {
+        for (int pending = unpublished.size(); pending > 0; pending--) {
+            long[] revocation = unpublished.poll();
+            if (revocation == null || !publish(revocation)) {
+                break;
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        try {
+            long since = lastRevocationSeen - REFRESH_OVERLAP_MS;
+            jdbcTemplate.query(SELECT_SQL, rs -> {
+                long revokedAt = rs.getTimestamp(4).getTime();
+                add(rs.getLong(1), rs.getLong(2), rs.getTimestamp(3).getTime());
+                if (revokedAt > lastRevocationSeen) {
+                    lastRevocationSeen = revokedAt;
+                }
+            }, new Timestamp(Math.max(since, 0)), new Timestamp(now));
+        } catch (DataAccessException e) {
+            logger.warn("Could not refresh revoked tokens: {}", e.getMessage());
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.purge-ms:60000}")
+    public void purgeExpired() {
+        boolean snapshot;
+        synchronized (this) {
+            rebuild(System.currentTimeMillis());
+            snapshot = dirty;
+        }
+        if (snapshot) {
+            writeSnapshot();
+        }
+        try {
+            jdbcTemplate.update(PURGE_SQL, new Timestamp(System.currentTimeMillis()));
+        } catch (DataAccessException e) {
+            logger.warn("Could not purge expired revoked tokens: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writeSnapshot();
+    }
+
+    // {high, low, expiresAt}; returns false and queues it again if the write failed
+    private boolean publish(long[] revocation) {
+        long now = System.currentTimeMillis();
+        if (revocation[2] <= now) {
+            return true;
+        }
+        try {
+            // Stamped when written, so a late retry still falls inside other nodes' next poll
+            jdbcTemplate.update(INSERT_SQL, new Object[]{revocation[0], revocation[1],
+                    new Timestamp(revocation[2]), new Timestamp(now)}, INSERT_TYPES);
+        } catch (DuplicateKeyException e) {
+            // Already revoked, here or on another node
+        } catch (DataAccessException e) {
+            logger.warn("Could not store revoked token, other nodes will not see it yet: {}", e.getMessage());
+            unpublished.add(revocation);
+            return false;
+        }
+        return true;
+    }
+
+    private synchronized void add(long high, long low, long expiresAt) {
+        if (expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        if ((size + 1) * 2 > highs.length) {
+            allocateAndCopy(highs.length * 2);
+        }
+        if (insert(high, low, expiresAt)) {
+            setBloomBits(bloom, bloomBits, high, low);
+            dirty = true;
+        }
+    }
+
+    private synchronized boolean containsExact(long high, long low) {
+        int mask = highs.length - 1;
+        int slot = (int) mix(high ^ low) & mask;
+        while (expirations[slot] != 0) {
+            if (highs[slot] == high && lows[slot] == low) {
+                return expirations[slot] > System.currentTimeMillis();
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    private boolean insert(long high, long low, long expiresAt) {
+        int mask = highs.length - 1;
+        int slot = (int) mix(high ^ low) & mask;
+        while (expirations[slot] != 0) {
+            if (highs[slot] == high && lows[slot] == low) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        highs[slot] = high;
+        lows[slot] = low;
+        expirations[slot] = expiresAt;
+        size++;
+        return true;
+    }
+
+    // Drops expired entries, shrinks the table if it is mostly empty and rebuilds the filter
+    private void rebuild(long now) {
+        long[] oldHighs = highs;
+        long[] oldLows = lows;
+        long[] oldExpirations = expirations;
+
+        int live = 0;
+        for (long expiresAt : oldExpirations) {
+            if (expiresAt > now) {
+                live++;
+            }
+        }
+        if (live == size) {
+            return;
+        }
+
+        allocateTable(capacityFor(live));
+        AtomicLongArray freshBloom = new AtomicLongArray(bloom.length());
+        for (int i = 0; i < oldExpirations.length; i++) {
+            if (oldExpirations[i] > now) {
+                insert(oldHighs[i], oldLows[i], oldExpirations[i]);
+                setBloomBits(freshBloom, bloomBits, oldHighs[i], oldLows[i]);
+            }
+        }
+        bloom = freshBloom;
+        dirty = true;
+    }
+
+    private void allocateAndCopy(int capacity) {
+        long[] oldHighs = highs;
+        long[] oldLows = lows;
+        long[] oldExpirations = expirations;
+
+        allocateTable(capacity);
+        for (int i = 0; i < oldExpirations.length; i++) {
+            if (oldExpirations[i] != 0) {
+                insert(oldHighs[i], oldLows[i], oldExpirations[i]);
+            }
+        }
+    }
+
+    private void allocateTable(int capacity) {
+        highs = new long[capacity];
+        lows = new long[capacity];
+        expirations = new long[capacity];
+        size = 0;
+    }
+
+    private static int capacityFor(int entries) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < entries * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private boolean mightContain(long high, long low) {
+        AtomicLongArray bits = bloom;
+        long m = bloomBits;
+        long h1 = mix(high ^ (low * 0x9E3779B97F4A7C15L));
+        long h2 = mix(low + high) | 1;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = Math.floorMod(h1 + i * h2, m);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void setBloomBits(AtomicLongArray bits, long m, long high, long low) {
+        long h1 = mix(high ^ (low * 0x9E3779B97F4A7C15L));
+        long h2 = mix(low + high) | 1;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = Math.floorMod(h1 + i * h2, m);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private void loadSnapshot() {
+        if (!StringUtils.hasText(snapshotPath)) {
+            return;
+        }
+        Path path = Paths.get(snapshotPath);
+        if (!Files.exists(path)) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                logger.warn("Ignoring revoked token snapshot with unknown format: {}", path);
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long high = in.readLong();
+                long low = in.readLong();
+                long expiresAt = in.readLong();
+                if (expiresAt > now) {
+                    add(high, low, expiresAt);
+                }
+            }
+            synchronized (this) {
+                dirty = false;
+            }
+            logger.info("Loaded {} revoked tokens from {}", size(), path);
+        } catch (IOException e) {
+            logger.warn("Could not read revoked token snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    private void writeSnapshot() {
+        if (!StringUtils.hasText(snapshotPath)) {
+            return;
+        }
+
+        long[] snapshotHighs;
+        long[] snapshotLows;
+        long[] snapshotExpirations;
+        int count;
+        synchronized (this) {
+            snapshotHighs = highs.clone();
+            snapshotLows = lows.clone();
+            snapshotExpirations = expirations.clone();
+            count = size;
+            dirty = false;
+        }
+
+        Path path = Paths.get(snapshotPath);
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(count);
+                for (int i = 0; i < snapshotExpirations.length; i++) {
+                    if (snapshotExpirations[i] != 0) {
+                        out.writeLong(snapshotHighs[i]);
+                        out.writeLong(snapshotLows[i]);
+                        out.writeLong(snapshotExpirations[i]);
+                    }
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not write revoked token snapshot {}: {}", path, e.getMessage());
+            synchronized (this) {
+                dirty = true;
+            }
+        }
+    }
+}
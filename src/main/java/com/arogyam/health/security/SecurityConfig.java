@@ -1,8 +1,11 @@
 package com.arogyam.health.security;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -11,6 +14,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -19,6 +23,7 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
@@ -31,16 +36,49 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // 0 = use the strength calibrated against the latency budget below and stored for every node
+    @Value("${app.security.password-hashing.strength:0}")
+    private int bcryptStrength;
+
+    @Value("${app.security.password-hashing.target-ms:50}")
+    private long hashTargetMs;
+
+    @Value("${app.security.password-hashing.min-strength:10}")
+    private int minBcryptStrength;
+
+    @Value("${app.security.password-hashing.max-strength:16}")
+    private int maxBcryptStrength;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int strength = bcryptStrength > 0
+                ? bcryptStrength
+                : BCryptStrengthCalibrator.resolve(jdbcTemplate, hashTargetMs, minBcryptStrength, maxBcryptStrength);
+
+        // New hashes are written as {bcrypt}...; legacy un-prefixed hashes still match
+        // and are reported by upgradeEncoding(), so they get rehashed on the next login.
+        // {bcrypt} hashes are rehashed only when their cost is below min-strength.
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new FlooredBCryptPasswordEncoder(strength, minBcryptStrength)));
+        delegating.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+
+        // BCrypt runs on its own bounded pool so login storms cannot starve request threads
+        return new BulkheadPasswordEncoder(delegating, passwordHashingExecutor);
     }
 
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-        authProvider.setUserDetailsService(userDetailsService);
+        authProvider.setUserDetailsService(userDetailsService::loadUserForLogin);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // Persists the rehash when a stored hash is weaker than the current encoder
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
@@ -70,6 +108,8 @@ public class SecurityConfig {
                         .requestMatchers("/h2-console/**").permitAll()
                         .requestMatchers("/actuator/health").permitAll()
                         .requestMatchers("/error").permitAll()                 // Add error endpoint
+                        // Completion of SSE and streaming responses; the original request was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .anyRequest().authenticated()
                 )
 
@@ -0,0 +1,81 @@
+package com.arogyam.health.security;
+
+import com.arogyam.health.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of each user's token epoch. A token is only honoured while its
+ * "tep" claim matches the user's current epoch, so bumping the epoch revokes
+ * every token issued before it.
+ *
+ * Only users whose epoch was ever bumped are held; everyone else is implicitly 0.
+ * Local bumps apply immediately, other nodes pick them up on the next refresh.
+ */
+@Component
+public class TokenEpochRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenEpochRegistry.class);
+
+    // Re-read a little history on each refresh to tolerate clock skew between nodes
+    private static final long REFRESH_OVERLAP_SECONDS = 60;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final ConcurrentHashMap<Long, Integer> epochs = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime lastChangeSeen = LocalDateTime.now();
+
+    @PostConstruct
+    void load() {
+        apply(userRepository.findTokenEpochs());
+        logger.info("Loaded token epochs for {} users", epochs.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.epoch-refresh-ms:5000}")
+    public void refresh() {
+        try {
+            apply(userRepository.findTokenEpochsChangedSince(lastChangeSeen.minusSeconds(REFRESH_OVERLAP_SECONDS)));
+        } catch (Exception e) {
+            logger.warn("Could not refresh token epochs: {}", e.getMessage());
+        }
+    }
+
+    public int currentEpoch(Long userId) {
+        Integer epoch = epochs.get(userId);
+        return epoch != null ? epoch : 0;
+    }
+
+    public boolean isCurrent(VerifiedToken token) {
+        return token.getUserId() != null && token.getTokenEpoch() == currentEpoch(token.getUserId());
+    }
+
+    public void record(Long userId, int epoch) {
+        // Epochs only move forward; never let a stale refresh roll one back
+        epochs.merge(userId, epoch, Math::max);
+    }
+
+    private void apply(List<Object[]> rows) {
+        for (Object[] row : rows) {
+            Long userId = (Long) row[0];
+            Integer epoch = (Integer) row[1];
+            LocalDateTime changedAt = (LocalDateTime) row[2];
+
+            if (epoch != null) {
+                record(userId, epoch);
+            }
+            if (changedAt != null && changedAt.isAfter(lastChangeSeen)) {
+                lastChangeSeen = changedAt;
+            }
+        }
+    }
+}
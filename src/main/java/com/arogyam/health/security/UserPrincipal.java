@@ -17,6 +17,7 @@ public class UserPrincipal implements UserDetails {
     private String fullName;
     private UserRole role;
     private boolean isActive;
+    private int tokenEpoch;
     private Collection<? extends GrantedAuthority> authorities;
 
     public UserPrincipal(Long id,
@@ -26,19 +27,28 @@ public class UserPrincipal implements UserDetails {
                          UserRole userRole,
                          boolean isActive,
                          Collection<? extends GrantedAuthority> authorities) {
+        this(id, username, password, fullName, userRole, isActive, 0, authorities);
+    }
+
+    public UserPrincipal(Long id,
+                         String username,
+                         String password,
+                         String fullName,
+                         UserRole userRole,
+                         boolean isActive,
+                         int tokenEpoch,
+                         Collection<? extends GrantedAuthority> authorities) {
         this.id = id;
         this.username = username;
         this.password = password;
         this.fullName = fullName;
         this.role = userRole;
         this.isActive = isActive;
+        this.tokenEpoch = tokenEpoch;
         this.authorities = authorities;
     }
 
     public static UserPrincipal create(UserEntity user) {
-        List<GrantedAuthority> authorities =
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()));
-
         return new UserPrincipal(
                 user.getId(),
                 user.getUsername(),
@@ -46,10 +56,31 @@ public class UserPrincipal implements UserDetails {
                 user.getFullName(),
                 user.getRole(),
                 user.isActive(),
-                authorities
+                user.getTokenEpoch(),
+                authoritiesFor(user.getRole())
         );
     }
 
+    // Builds the principal from signed claims alone; no password, and only ever for active users
+    public static UserPrincipal fromToken(VerifiedToken token) {
+        UserRole role = UserRole.valueOf(token.getRole());
+
+        return new UserPrincipal(
+                token.getUserId(),
+                token.getUsername(),
+                null,
+                token.getFullName(),
+                role,
+                true,
+                token.getTokenEpoch(),
+                authoritiesFor(role)
+        );
+    }
+
+    private static List<GrantedAuthority> authoritiesFor(UserRole role) {
+        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
@@ -96,4 +127,8 @@ public class UserPrincipal implements UserDetails {
     public UserRole getRole() {
         return role;
     }
+
+    public int getTokenEpoch() {
+        return tokenEpoch;
+    }
 }
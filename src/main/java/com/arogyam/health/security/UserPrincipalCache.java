@@ -0,0 +1,117 @@
+package com.arogyam.health.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import com.arogyam.health.repository.UserRepository;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Bounded, expiring cache of {@link UserPrincipal}s so the JWT filter does not
+ * hit the database on every authenticated request.
+ *
+ * Entries are keyed by username and by id. Anything that changes a user's
+ * credentials or status must call {@link #evict(Long, String)}. That eviction
+ * is local; users changed on other nodes are evicted by a scheduled pass over
+ * rows whose updated_at moved. Logins never read from here, so a password
+ * check always sees the stored hash.
+ */
+@Component
+public class UserPrincipalCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserPrincipalCache.class);
+
+    // Re-read this much before the last pass, for transactions that were still open when it ran
+    private static final long SYNC_OVERLAP_SECONDS = 60;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Cache<String, UserPrincipal> byUsername;
+    private final Cache<Long, UserPrincipal> byId;
+
+    private LocalDateTime syncedTo = LocalDateTime.now();
+
+    public UserPrincipalCache(@Value("${app.security.principal-cache.max-size:10000}") long maxSize,
+                              @Value("${app.security.principal-cache.ttl:5m}") Duration ttl,
+                              MeterRegistry meterRegistry) {
+        this.byUsername = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byUsername, "principals.byUsername");
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "principals.byId");
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.principal-cache.sync-ms:5000}")
+    public synchronized void evictChanged() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        try {
+            List<Object[]> rows = userRepository.findIdsAndUsernamesChangedSince(
+                    syncedTo.minusSeconds(SYNC_OVERLAP_SECONDS));
+            if (!rows.isEmpty()) {
+                Set<Long> ids = new HashSet<>(rows.size() * 2);
+                for (Object[] row : rows) {
+                    ids.add((Long) row[0]);
+                    evict((Long) row[0], (String) row[1]);
+                }
+                // A renamed user is still cached under the old username
+                byUsername.asMap().values().removeIf(principal -> ids.contains(principal.getId()));
+            }
+            syncedTo = startedAt;
+        } catch (Exception e) {
+            logger.warn("Could not evict principals changed on other nodes: {}", e.getMessage());
+        }
+    }
+
+    public UserPrincipal getByUsername(String username, Function<String, UserPrincipal> loader) {
+        return byUsername.get(username, loader);
+    }
+
+    public UserPrincipal getById(Long id, Function<Long, UserPrincipal> loader) {
+        return byId.get(id, loader);
+    }
+
+    public void evict(Long id, String username) {
+        if (id != null) {
+            byId.invalidate(id);
+        }
+        if (username != null) {
+            byUsername.invalidate(username);
+        }
+    }
+
+    public void evictAll() {
+        byUsername.invalidateAll();
+        byId.invalidateAll();
+    }
+
+    public CacheStats getUsernameStats() {
+        return byUsername.stats();
+    }
+
+    public CacheStats getIdStats() {
+        return byId.stats();
+    }
+}
@@ -0,0 +1,183 @@
+package com.arogyam.health.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable result of a single signature check in {@link JwtTokenProvider#verify(String)}.
+ * Callers read claims from here instead of re-parsing the raw token.
+ */
+public final class VerifiedToken {
+
+    private final String username;
+    private final Long userId;
+    private final String role;
+    private final String fullName;
+    private final int tokenEpoch;
+    private final String tokenId;
+    // The UUID "jti" split into two longs, so revocation checks never allocate
+    private final long tokenIdHigh;
+    private final long tokenIdLow;
+    private final boolean revocable;
+    private final Date issuedAt;
+    private final Date expiration;
+    private final Map<String, Object> customClaims;
+
+    private VerifiedToken(String username, Long userId, String role, String fullName, int tokenEpoch,
+                          String tokenId, Date issuedAt, Date expiration, Map<String, Object> customClaims) {
+        this.username = username;
+        this.userId = userId;
+        this.role = role;
+        this.fullName = fullName;
+        this.tokenEpoch = tokenEpoch;
+        this.tokenId = tokenId;
+        this.issuedAt = issuedAt;
+        this.expiration = expiration;
+        this.customClaims = customClaims;
+
+        long[] parsed = parseUuid(tokenId);
+        this.revocable = parsed != null;
+        this.tokenIdHigh = parsed != null ? parsed[0] : 0L;
+        this.tokenIdLow = parsed != null ? parsed[1] : 0L;
+    }
+
+    static VerifiedToken from(Claims claims) {
+        Map<String, Object> customClaims = new HashMap<>(claims);
+        // Standard claims are re-issued by the provider, keep only our own
+        customClaims.remove(Claims.SUBJECT);
+        customClaims.remove(Claims.ISSUED_AT);
+        customClaims.remove(Claims.EXPIRATION);
+        customClaims.remove(Claims.ID);
+
+        return new VerifiedToken(
+                claims.getSubject(),
+                toLong(claims.get("userId")),
+                toStringOrNull(claims.get("role")),
+                toStringOrNull(claims.get("fullName")),
+                toInt(claims.get(JwtTokenProvider.TOKEN_EPOCH_CLAIM)),
+                claims.getId(),
+                claims.getIssuedAt(),
+                claims.getExpiration(),
+                Collections.unmodifiableMap(customClaims)
+        );
+    }
+
+    private static Long toLong(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        return Long.valueOf(value.toString());
+    }
+
+    private static int toInt(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        return value != null ? Integer.parseInt(value.toString()) : 0;
+    }
+
+    // Parses a canonical UUID string into [high, low] bits, or null when it is not one
+    static long[] parseUuid(String value) {
+        if (value == null || value.length() != 36) {
+            return null;
+        }
+        long high = 0;
+        long low = 0;
+        int digits = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '-') {
+                continue;
+            }
+            int nibble = Character.digit(c, 16);
+            if (nibble < 0) {
+                return null;
+            }
+            if (digits < 16) {
+                high = (high << 4) | nibble;
+            } else {
+                low = (low << 4) | nibble;
+            }
+            digits++;
+        }
+        return digits == 32 ? new long[]{high, low} : null;
+    }
+
+    private static String toStringOrNull(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public int getTokenEpoch() {
+        return tokenEpoch;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public long getTokenIdHigh() {
+        return tokenIdHigh;
+    }
+
+    public long getTokenIdLow() {
+        return tokenIdLow;
+    }
+
+    // Tokens issued before "jti" was added cannot be revoked individually
+    public boolean isRevocable() {
+        return revocable;
+    }
+
+    public Date getIssuedAt() {
+        return issuedAt;
+    }
+
+    public Date getExpiration() {
+        return expiration;
+    }
+
+    public Map<String, Object> getCustomClaims() {
+        return customClaims;
+    }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.getTime() < System.currentTimeMillis();
+    }
+
+    public long getExpiresInSeconds() {
+        return expiration != null ? (expiration.getTime() - System.currentTimeMillis()) / 1000 : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "VerifiedToken{" +
+                "username='" + username + '\'' +
+                ", userId=" + userId +
+                ", role='" + role + '\'' +
+                ", expiration=" + expiration +
+                '}';
+    }
+}
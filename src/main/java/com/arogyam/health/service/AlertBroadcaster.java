@@ -0,0 +1,525 @@
+package com.arogyam.health.service;
+
+import com.arogyam.health.dto.AlertDto;
+import com.arogyam.health.repository.AlertRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes newly persisted alerts to dashboards and field workers over
+ * Server-Sent Events, one topic per district.
+ *
+ * Each alert from {@link AlertIngestionService} is serialized once and the
+ * same frame is handed to the subscribers of its district. Health officials
+ * and admins follow the whole district; a field worker's stream carries only
+ * the alerts {@link RecipientResolver} names them a recipient of, those of
+ * their own village. Alerts written by other nodes are picked up by polling
+ * the alerts table every app.alerts.stream.poll-ms, for the districts that
+ * have subscribers here. Each pass pages forward on (created_at, id) from
+ * where the last one stopped, reading only ids; full rows are loaded only for
+ * ids this node has not sent, so its own inserts cost an index read. The 60
+ * seconds behind the mark are re-checked the same way for writes that were
+ * still committing. Past poll-limit unsent alerts in one pass, only the
+ * districts of the alerts left over are sent a resync.
+ *
+ * Subscribers have their own bounded buffer, drained by a small shared sender
+ * pool, so a slow connection never holds up the alert writer. When a buffer
+ * overflows, its contents are dropped and the subscriber gets a "resync" event
+ * instead: the client should reload the district through GET /api/alerts. A
+ * subscriber that overflows again before its resync was even sent is not
+ * reading at all and is disconnected.
+ *
+ * A client that stops reading with a full TCP window blocks the write to it,
+ * and the sender thread with it, until the connector's write timeout. A
+ * watchdog disconnects a subscriber whose write has been blocked for longer
+ * than app.alerts.stream.send-timeout-ms, and adds a sender thread in place
+ * of the blocked one (at most max-blocked-senders of them), so the other
+ * subscribers keep their threads.
+ */
+@Component
+public class AlertBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertBroadcaster.class);
+
+    public static final String SUBSCRIBED_EVENT = "subscribed";
+    public static final String ALERT_EVENT = "alert";
+    public static final String RESYNC_EVENT = "resync";
+
+    private static final String THREAD_PREFIX = "alert-stream-";
+    // Frames one sender run may write before yielding the thread to other subscribers
+    private static final int MAX_FRAMES_PER_RUN = 64;
+
+    // Subscriber that gets every alert of its district rather than only those addressed to it
+    private static final long WHOLE_DISTRICT = -1;
+
+    // Re-read this much before the last poll, for alerts that were still committing when it ran
+    private static final long POLL_OVERLAP_SECONDS = 60;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Autowired
+    private RecipientResolver recipientResolver;
+
+    @Value("${app.alerts.stream.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${app.alerts.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.alerts.stream.max-subscribers:5000}")
+    private int maxSubscribers;
+
+    @Value("${app.alerts.stream.sender-threads:2}")
+    private int senderThreads;
+
+    @Value("${app.alerts.stream.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${app.alerts.stream.max-blocked-senders:8}")
+    private int maxBlockedSenders;
+
+    @Value("${app.alerts.stream.poll-limit:1000}")
+    private int pollLimit;
+
+    private final ConcurrentHashMap<String, Set<Subscriber>> topics = new ConcurrentHashMap<>();
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    // Ids sent in the last two overlaps, by when they were sent; keeps polled alerts from repeating
+    private final ConcurrentHashMap<Long, Long> recentlySent = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor sender;
+
+    // Guarded by this
+    private int blockedSenders;
+
+    // Every alert created up to here has been seen by a pass; only touched by poll()
+    private volatile LocalDateTime polledUpTo;
+
+    private Counter resyncCounter;
+    private Counter disconnectedCounter;
+    private Counter blockedCounter;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        // Each subscriber has at most one pending drain task, so the queue stays bounded by the subscriber count
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, THREAD_PREFIX + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.resyncCounter = meterRegistry.counter("alerts.stream.resyncs");
+        this.disconnectedCounter = meterRegistry.counter("alerts.stream.disconnected");
+        this.blockedCounter = meterRegistry.counter("alerts.stream.blocked");
+        meterRegistry.gauge("alerts.stream.subscribers", subscriberCount);
+        this.polledUpTo = LocalDateTime.now();
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    /**
+     * Opens a stream of all the district's alerts. Throws IllegalStateException
+     * when the subscriber limit is reached.
+     */
+    public SseEmitter subscribe(String district) {
+        return subscribe(district, WHOLE_DISTRICT);
+    }
+
+    /**
+     * Opens a stream of the district's alerts that {@link RecipientResolver}
+     * names this user a recipient of. Throws IllegalStateException when the
+     * subscriber limit is reached.
+     */
+    public SseEmitter subscribeAsRecipient(String district, long userId) {
+        return subscribe(district, userId);
+    }
+
+    private SseEmitter subscribe(String district, long recipientId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new IllegalStateException("Too many alert subscribers");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(district, recipientId, emitter);
+        emitter.onCompletion(subscriber::remove);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+
+        topics.computeIfAbsent(district, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        subscriber.offer(SseEmitter.event().name(SUBSCRIBED_EVENT).data(district).build());
+        return emitter;
+    }
+
+    @EventListener
+    public void onAlertsPersisted(AlertsPersistedEvent event) {
+        broadcast(event.getAlerts());
+    }
+
+    // Alerts committed on other nodes; those this node wrote were already sent and are skipped
+    @Scheduled(fixedDelayString = "${app.alerts.stream.poll-ms:2000}")
+    public void poll() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<String> districts = new ArrayList<>();
+        topics.forEach((district, subscribers) -> {
+            if (!subscribers.isEmpty()) {
+                districts.add(district);
+            }
+        });
+        if (districts.isEmpty()) {
+            polledUpTo = startedAt;
+            return;
+        }
+
+        try {
+            long now = System.currentTimeMillis();
+            Set<Long> unsent = new LinkedHashSet<>();
+            Set<String> cutOff = new HashSet<>();
+            // Behind the mark: alerts that were still committing when the pass covering them ran
+            for (Object[] key : alertRepository.findKeysCreatedBetween(
+                    polledUpTo.minusSeconds(POLL_OVERLAP_SECONDS), polledUpTo, districts)) {
+                collect(key, unsent, cutOff, now);
+            }
+            // Past the mark, a page at a time
+            LocalDateTime afterTime = polledUpTo;
+            long afterId = Long.MAX_VALUE;
+            while (true) {
+                List<Object[]> page = alertRepository.findKeysCreatedAfter(
+                        afterTime, afterId, startedAt, districts, PageRequest.of(0, pollLimit));
+                for (Object[] key : page) {
+                    collect(key, unsent, cutOff, now);
+                }
+                if (page.size() < pollLimit) {
+                    break;
+                }
+                Object[] last = page.get(page.size() - 1);
+                afterId = (Long) last[0];
+                afterTime = (LocalDateTime) last[1];
+            }
+
+            if (!unsent.isEmpty()) {
+                broadcast(alertRepository.findResponsesByIdIn(unsent));
+            }
+            // Too many to stream; those districts reload instead
+            for (String district : cutOff) {
+                for (Subscriber subscriber : topics.getOrDefault(district, Set.of())) {
+                    subscriber.resync();
+                }
+            }
+            polledUpTo = startedAt;
+        } catch (Exception e) {
+            logger.warn("Could not poll for alerts written by other nodes: {}", e.getMessage());
+        }
+
+        long forgetBefore = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(2 * POLL_OVERLAP_SECONDS);
+        recentlySent.values().removeIf(sentAt -> sentAt < forgetBefore);
+    }
+
+    // Keeps up to poll-limit unsent alerts to load; past that, notes the district and counts the alert as sent
+    private void collect(Object[] key, Set<Long> unsent, Set<String> cutOff, long now) {
+        Long id = (Long) key[0];
+        if (recentlySent.containsKey(id) || unsent.contains(id)) {
+            return;
+        }
+        if (unsent.size() < pollLimit) {
+            unsent.add(id);
+        } else {
+            cutOff.add((String) key[2]);
+            recentlySent.put(id, now);
+        }
+    }
+
+    private void broadcast(List<AlertDto> alerts) {
+        long now = System.currentTimeMillis();
+        for (AlertDto alert : alerts) {
+            Set<Subscriber> subscribers = topics.get(alert.getDistrict());
+            if (subscribers == null || subscribers.isEmpty()) {
+                continue;
+            }
+            if (alert.getId() == null || recentlySent.putIfAbsent(alert.getId(), now) != null) {
+                continue;
+            }
+            Set<DataWithMediaType> frame;
+            try {
+                // Built once here and shared by every subscriber of the district
+                String json = objectMapper.writeValueAsString(alert);
+                frame = SseEmitter.event().id(String.valueOf(alert.getId())).name(ALERT_EVENT)
+                        .data(json, MediaType.APPLICATION_JSON).build();
+            } catch (JsonProcessingException e) {
+                logger.warn("Could not serialize alert {} for streaming: {}", alert.getId(), e.getMessage());
+                continue;
+            }
+
+            // Resolved at most once per alert, and from the recipient caches in steady state
+            long[] recipients = null;
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.recipientId != WHOLE_DISTRICT) {
+                    if (recipients == null) {
+                        recipients = recipientResolver.recipientsFor(alert);
+                    }
+                    if (Arrays.binarySearch(recipients, subscriber.recipientId) < 0) {
+                        continue;
+                    }
+                }
+                subscriber.offer(frame);
+            }
+        }
+    }
+
+    // Keeps idle connections open through proxies and notices clients that went away
+    @Scheduled(fixedDelayString = "${app.alerts.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Set<Subscriber> subscribers : topics.values()) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offerIfIdle(SseEmitter.event().comment("heartbeat").build());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.alerts.stream.watchdog-ms:1000}")
+    public void watchdog() {
+        long now = System.nanoTime();
+        for (Set<Subscriber> subscribers : topics.values()) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.abandonIfBlocked(now);
+            }
+        }
+    }
+
+    // Counts senders blocked in a write and sizes the pool so the unblocked ones stay at sender-threads
+    private synchronized void senderBlocked(int delta) {
+        blockedSenders += delta;
+        int threads = senderThreads + Math.min(blockedSenders, maxBlockedSenders);
+        if (threads > sender.getMaximumPoolSize()) {
+            sender.setMaximumPoolSize(threads);
+            sender.setCorePoolSize(threads);
+        } else {
+            sender.setCorePoolSize(threads);
+            sender.setMaximumPoolSize(threads);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (Set<Subscriber> subscribers : topics.values()) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.close();
+            }
+        }
+        sender.shutdown();
+    }
+
+    // One open stream. Buffer state is guarded by the subscriber's monitor; the
+    // emitter is only written from the sender pool, one run at a time.
+    private final class Subscriber implements Runnable {
+        private final String district;
+        private final long recipientId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<Set<DataWithMediaType>> buffer = new ArrayDeque<>();
+        private final AtomicBoolean removed = new AtomicBoolean();
+
+        // System.nanoTime() when the current write started, 0 between writes
+        private volatile long sendingSince;
+
+        private boolean resyncPending;
+        private boolean closing;
+        private boolean scheduled;
+        private boolean blocked;
+
+        Subscriber(String district, long recipientId, SseEmitter emitter) {
+            this.district = district;
+            this.recipientId = recipientId;
+            this.emitter = emitter;
+        }
+
+        synchronized void offer(Set<DataWithMediaType> frame) {
+            if (closing) {
+                return;
+            }
+            if (buffer.size() >= bufferSize) {
+                buffer.clear();
+                if (resyncPending) {
+                    disconnectedCounter.increment();
+                    logger.info("Disconnecting alert subscriber for {}: not reading", district);
+                    closing = true;
+                } else {
+                    resyncCounter.increment();
+                    resyncPending = true;
+                }
+                schedule();
+                return;
+            }
+            buffer.add(frame);
+            schedule();
+        }
+
+        // Sends a resync event ahead of whatever is buffered
+        synchronized void resync() {
+            if (closing) {
+                return;
+            }
+            if (!resyncPending) {
+                resyncCounter.increment();
+                resyncPending = true;
+            }
+            schedule();
+        }
+
+        synchronized void offerIfIdle(Set<DataWithMediaType> frame) {
+            if (!scheduled && buffer.isEmpty()) {
+                offer(frame);
+            }
+        }
+
+        // The blocked thread finishes on its own once the write fails; until then it is not counted
+        void abandonIfBlocked(long now) {
+            long since = sendingSince;
+            if (since == 0 || now - since < TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs)) {
+                return;
+            }
+            synchronized (this) {
+                if (blocked || sendingSince != since) {
+                    return;
+                }
+                blocked = true;
+                closing = true;
+                buffer.clear();
+            }
+            blockedCounter.increment();
+            disconnectedCounter.increment();
+            logger.info("Disconnecting alert subscriber for {}: write blocked for over {} ms", district, sendTimeoutMs);
+            remove();
+            senderBlocked(1);
+        }
+
+        // Completes the stream from the sender pool, never from the caller's thread
+        synchronized void close() {
+            closing = true;
+            buffer.clear();
+            schedule();
+        }
+
+        private void schedule() {
+            if (!scheduled) {
+                scheduled = true;
+                try {
+                    sender.execute(this);
+                } catch (RuntimeException e) {
+                    // Pool shut down
+                    scheduled = false;
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            for (int sent = 0; ; sent++) {
+                Set<DataWithMediaType> frame;
+                synchronized (this) {
+                    if (closing) {
+                        break;
+                    }
+                    if (sent == MAX_FRAMES_PER_RUN) {
+                        scheduled = false;
+                        schedule();
+                        return;
+                    }
+                    if (resyncPending) {
+                        resyncPending = false;
+                        frame = SseEmitter.event().name(RESYNC_EVENT).data(district).build();
+                    } else {
+                        frame = buffer.poll();
+                    }
+                    if (frame == null) {
+                        scheduled = false;
+                        return;
+                    }
+                }
+                sendingSince = System.nanoTime();
+                try {
+                    emitter.send(frame);
+                } catch (Exception e) {
+                    // Client went away; the container reports it through onError/onCompletion as well
+                    logger.debug("Alert stream for {} closed: {}", district, e.getMessage());
+                    synchronized (this) {
+                        closing = true;
+                        buffer.clear();
+                    }
+                    break;
+                } finally {
+                    sendingSince = 0;
+                    releaseIfBlocked();
+                }
+            }
+            try {
+                emitter.complete();
+            } catch (Exception e) {
+                logger.debug("Alert stream for {} already closed: {}", district, e.getMessage());
+            }
+            remove();
+        }
+
+        private void releaseIfBlocked() {
+            boolean wasBlocked;
+            synchronized (this) {
+                wasBlocked = blocked;
+                blocked = false;
+            }
+            if (wasBlocked) {
+                senderBlocked(-1);
+            }
+        }
+
+        void remove() {
+            if (removed.compareAndSet(false, true)) {
+                Set<Subscriber> subscribers = topics.get(district);
+                if (subscribers != null) {
+                    subscribers.remove(this);
+                }
+                subscriberCount.decrementAndGet();
+            }
+        }
+    }
+}
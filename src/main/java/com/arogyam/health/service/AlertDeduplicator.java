@@ -0,0 +1,478 @@
+package com.arogyam.health.service;
+
+import com.arogyam.health.dto.AlertDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Merges repeated reports of the same outbreak before they reach the alerts
+ * table.
+ *
+ * Alerts are keyed on (village, disease, severity), or (district, disease,
+ * severity) when no village is given. The first alert for a key opens a
+ * window and is written as usual. Reports of the same key that arrive while
+ * the window is open are not queued or notified. They only add to the
+ * occurrence_count of that first alert, and its case_count is raised if they
+ * report more cases. The counts are written back in periodic batched UPDATEs.
+ * Windows are anchored at the first alert, so an outbreak that keeps going
+ * raises a fresh alert once per window.
+ *
+ * Windows are held per node. A window opened here is checked once against
+ * the alerts table on the writer thread, just before its alert would be
+ * inserted: if another node already wrote an open alert for the key within
+ * the window, the report is merged into that alert instead, and so is every
+ * later report the window catches. Two nodes that open a window for the
+ * same key before either has written its alert still each insert one.
+ *
+ * A window learns its alert's id when the writer publishes the batch, which
+ * may be after the window has expired. Counts merged into an expired window
+ * are then written as soon as the id is known. If the writer drops the first
+ * alert instead, its window is closed so the next report opens a new one.
+ * The reports already merged into it are counted in alerts.dedup.lost.
+ *
+ * The window length is app.alerts.dedup.window. It can be overridden per
+ * disease (app.alerts.dedup.disease-windows), and a zero duration turns
+ * dedup off for that disease. Windows are indexed by the sweep interval in
+ * which they expire, so a sweep only touches expired windows. At most
+ * max-windows are tracked; past that, new keys pass through undeduplicated.
+ */
+@Component
+public class AlertDeduplicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertDeduplicator.class);
+
+    private static final String UPDATE_SQL =
+            "UPDATE alerts SET occurrence_count = occurrence_count + ?, " +
+            "case_count = NULLIF(GREATEST(COALESCE(case_count, 0), ?), 0), updated_at = ? WHERE id = ?";
+
+    private static final int[] UPDATE_TYPES = {Types.INTEGER, Types.INTEGER, Types.TIMESTAMP, Types.BIGINT};
+
+    // Followed by one placeholder per district; served by idx_alerts_open_district_created_at
+    private static final String OPEN_ALERTS_SQL =
+            "SELECT id, village_id, district, disease, severity, created_at FROM alerts " +
+            "WHERE status = 'OPEN' AND created_at > ? AND district IN ";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.alerts.dedup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.alerts.dedup.window:15m}")
+    private Duration defaultWindow;
+
+    // Comma-separated disease=duration pairs, e.g. "Cholera=1h,Measles=0"
+    @Value("${app.alerts.dedup.disease-windows:}")
+    private String diseaseWindowsSpec;
+
+    @Value("${app.alerts.dedup.max-windows:100000}")
+    private int maxWindows;
+
+    @Value("${app.alerts.dedup.sweep-ms:10000}")
+    private long sweepMs;
+
+    private Map<String, Duration> diseaseWindows;
+
+    // Replaced in tests
+    private Clock clock = Clock.systemUTC();
+
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    // Open windows by the sweep interval they expire in
+    private final ConcurrentSkipListMap<Long, Queue<Window>> expiring = new ConcurrentSkipListMap<>();
+
+    // Windows whose first alert has not been written yet, by that alert's identity
+    private final Map<AlertDto, Window> awaitingId = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    // Windows that closed before their alert was written; the next flush writes what they merged
+    private final Queue<Window> closedUnwritten = new ConcurrentLinkedQueue<>();
+
+    private Counter seenCounter;
+    private Counter suppressedCounter;
+    private Counter lostCounter;
+
+    private double lastSeen;
+    private double lastSuppressed;
+    private volatile double suppressionRatio;
+
+    @PostConstruct
+    void init() {
+        this.diseaseWindows = parseDiseaseWindows(diseaseWindowsSpec);
+        this.seenCounter = meterRegistry.counter("alerts.dedup.seen");
+        this.suppressedCounter = meterRegistry.counter("alerts.dedup.suppressed");
+        this.lostCounter = meterRegistry.counter("alerts.dedup.lost");
+        meterRegistry.gauge("alerts.dedup.windows", windows, Map::size);
+        // Suppressed / seen over the last sweep interval
+        meterRegistry.gauge("alerts.dedup.suppression.ratio", this, dedup -> dedup.suppressionRatio);
+    }
+
+    /**
+     * Decides what happens to a prepared alert. Returns null if the alert is a
+     * duplicate and has been merged; otherwise a ticket the caller must pass to
+     * {@link #abandon} if it ends up not queueing the alert.
+     */
+    public Ticket admit(AlertDto alert) {
+        seenCounter.increment();
+        Duration window = enabled ? windowFor(alert.getDisease()) : Duration.ZERO;
+        if (window.isZero() || window.isNegative()) {
+            return Ticket.UNTRACKED;
+        }
+
+        String key = key(alert);
+        long now = clock.millis();
+        while (true) {
+            Window current = windows.get(key);
+            if (current != null && now < current.expiresAt) {
+                current.merge(alert.getCaseCount());
+                suppressedCounter.increment();
+                return null;
+            }
+            if (current == null && windows.size() >= maxWindows) {
+                return Ticket.UNTRACKED;
+            }
+
+            Window opened = new Window(key, alert, now, now + window.toMillis());
+            awaitingId.put(alert, opened);
+            boolean won = current == null
+                    ? windows.putIfAbsent(key, opened) == null
+                    : windows.replace(key, current, opened);
+            if (won) {
+                // A replaced window is still indexed for expiry; the sweep writes what it merged
+                expiring.computeIfAbsent(opened.expiresAt / sweepMs, bucket -> new ConcurrentLinkedQueue<>())
+                        .add(opened);
+                return new Ticket(opened);
+            }
+            awaitingId.remove(alert);
+            // Lost a race for the key; look again
+        }
+    }
+
+    // The alert could not be queued; duplicates merged into it meanwhile are lost with it
+    public void abandon(Ticket ticket) {
+        if (ticket != null && ticket.window != null) {
+            awaitingId.remove(ticket.window.first);
+            discard(ticket.window);
+        }
+    }
+
+    /**
+     * The writer gave up on these alerts. Windows they opened are closed, so the
+     * next report of the same key raises a new alert.
+     */
+    public void onAlertsDropped(List<AlertDto> alerts) {
+        if (awaitingId.isEmpty()) {
+            return;
+        }
+        for (AlertDto alert : alerts) {
+            Window window = awaitingId.remove(alert);
+            if (window != null) {
+                discard(window);
+            }
+        }
+    }
+
+    /**
+     * Looks for open alerts another node already wrote for the keys of these
+     * alerts' windows. An alert whose key has one is merged into it, and its
+     * window adopts that alert; the rest are returned to be inserted. Called
+     * by the writer before each insert.
+     */
+    public List<AlertDto> mergeIntoOpenAlerts(List<AlertDto> alerts) {
+        if (awaitingId.isEmpty()) {
+            return alerts;
+        }
+        Map<String, Window> byKey = new HashMap<>();
+        Set<String> districts = new LinkedHashSet<>();
+        long since = Long.MAX_VALUE;
+        for (AlertDto alert : alerts) {
+            Window window = awaitingId.get(alert);
+            if (window != null) {
+                byKey.put(window.key, window);
+                districts.add(alert.getDistrict());
+                since = Math.min(since, window.openedAt - window.length());
+            }
+        }
+        if (byKey.isEmpty()) {
+            return alerts;
+        }
+
+        Map<Window, Long> open = new IdentityHashMap<>();
+        List<Object> args = new ArrayList<>(districts.size() + 1);
+        args.add(new Timestamp(since));
+        args.addAll(districts);
+        String placeholders = String.join(", ", Collections.nCopies(districts.size(), "?"));
+        try {
+            jdbcTemplate.query(OPEN_ALERTS_SQL + "(" + placeholders + ")", rs -> {
+                long villageId = rs.getLong("village_id");
+                String place = rs.wasNull() ? "d" + rs.getString("district") : "v" + villageId;
+                Window window = byKey.get(key(place, rs.getString("disease"), rs.getString("severity")));
+                // That alert's own window was still open when this one's report came in
+                if (window != null && rs.getTimestamp("created_at").getTime() > window.openedAt - window.length()) {
+                    open.putIfAbsent(window, rs.getLong("id"));
+                }
+            }, args.toArray());
+        } catch (DataAccessException e) {
+            // A duplicate alert is better than holding the batch back; the insert will retry on its own
+            logger.warn("Could not look up open alerts for {} alerts, writing them as new: {}",
+                    byKey.size(), e.getMessage());
+            return alerts;
+        }
+        if (open.isEmpty()) {
+            return alerts;
+        }
+
+        List<AlertDto> remaining = new ArrayList<>(alerts.size());
+        for (AlertDto alert : alerts) {
+            Window window = awaitingId.get(alert);
+            Long alertId = window != null ? open.get(window) : null;
+            if (alertId == null) {
+                remaining.add(alert);
+                continue;
+            }
+            awaitingId.remove(alert);
+            window.merge(alert.getCaseCount());
+            window.alertId = alertId;
+            suppressedCounter.increment();
+            if (window.closed) {
+                closedUnwritten.add(window);
+            }
+        }
+        logger.debug("Merged {} alerts into open alerts written by other nodes", alerts.size() - remaining.size());
+        return remaining;
+    }
+
+    // Learns the ids of the alerts that opened windows, so merged counts can be written to them
+    @EventListener
+    public void onAlertsPersisted(AlertsPersistedEvent event) {
+        if (awaitingId.isEmpty()) {
+            return;
+        }
+        for (AlertDto alert : event.getAlerts()) {
+            Window window = awaitingId.remove(alert);
+            if (window != null) {
+                window.alertId = alert.getId();
+                // Closed while the alert was queued; no flush or sweep will look at it again
+                if (window.closed) {
+                    closedUnwritten.add(window);
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.alerts.dedup.flush-ms:2000}")
+    public void flush() {
+        List<Window> pending = new ArrayList<>();
+        for (Window window : windows.values()) {
+            if (window.alertId != null && window.hasMerged()) {
+                pending.add(window);
+            }
+        }
+        for (Window window; (window = closedUnwritten.poll()) != null; ) {
+            pending.add(window);
+        }
+        write(pending);
+    }
+
+    @Scheduled(fixedDelayString = "${app.alerts.dedup.sweep-ms:10000}")
+    public void sweep() {
+        long now = clock.millis();
+        List<Window> expired = new ArrayList<>();
+        // Buckets strictly before the current one only hold windows that have expired
+        Map<Long, Queue<Window>> due = expiring.headMap(now / sweepMs);
+        for (Long bucket : new ArrayList<>(due.keySet())) {
+            Queue<Window> queue = expiring.remove(bucket);
+            if (queue != null) {
+                for (Window window : queue) {
+                    windows.remove(window.key, window);
+                    window.closed = true;
+                    expired.add(window);
+                }
+            }
+        }
+        write(expired);
+
+        double seen = seenCounter.count();
+        double suppressed = suppressedCounter.count();
+        suppressionRatio = seen > lastSeen ? (suppressed - lastSuppressed) / (seen - lastSeen) : 0;
+        lastSeen = seen;
+        lastSuppressed = suppressed;
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        List<Window> pending = new ArrayList<>(windows.values());
+        pending.addAll(closedUnwritten);
+        write(pending);
+    }
+
+    private void discard(Window window) {
+        windows.remove(window.key, window);
+        window.closed = true;
+        int lost = window.drain()[0];
+        if (lost > 0) {
+            lostCounter.increment(lost);
+            logger.warn("Lost {} duplicate reports merged into an alert that was not written", lost);
+        }
+    }
+
+    private void write(List<Window> candidates) {
+        Timestamp updatedAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        List<Window> written = new ArrayList<>();
+        for (Window window : candidates) {
+            Long alertId = window.alertId;
+            if (alertId == null) {
+                continue;
+            }
+            int[] merged = window.drain();
+            if (merged[0] > 0) {
+                rows.add(new Object[]{merged[0], merged[1], updatedAt, alertId});
+                written.add(window);
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, rows, UPDATE_TYPES);
+            logger.debug("Merged duplicate reports into {} alerts", rows.size());
+        } catch (DataAccessException e) {
+            logger.warn("Could not write merged counts for {} alerts, will retry: {}", rows.size(), e.getMessage());
+            for (int i = 0; i < written.size(); i++) {
+                Object[] row = rows.get(i);
+                Window window = written.get(i);
+                window.restore((Integer) row[0], (Integer) row[1]);
+                if (window.closed) {
+                    closedUnwritten.add(window);
+                }
+            }
+        }
+    }
+
+    private Duration windowFor(String disease) {
+        Duration window = diseaseWindows.get(disease.toLowerCase(Locale.ROOT));
+        return window != null ? window : defaultWindow;
+    }
+
+    private static String key(AlertDto alert) {
+        String place = alert.getVillageId() != null ? "v" + alert.getVillageId() : "d" + alert.getDistrict();
+        return key(place, alert.getDisease(), alert.getSeverity().name());
+    }
+
+    private static String key(String place, String disease, String severity) {
+        return place + '\u0000' + disease.toLowerCase(Locale.ROOT) + '\u0000' + severity;
+    }
+
+    private static Map<String, Duration> parseDiseaseWindows(String spec) {
+        Map<String, Duration> parsed = new HashMap<>();
+        if (!StringUtils.hasText(spec)) {
+            return parsed;
+        }
+        for (String entry : spec.split(",")) {
+            int separator = entry.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid app.alerts.dedup.disease-windows entry: " + entry);
+            }
+            parsed.put(entry.substring(0, separator).trim().toLowerCase(Locale.ROOT),
+                    DurationStyle.detectAndParse(entry.substring(separator + 1).trim()));
+        }
+        return parsed;
+    }
+
+    /** Handle on a window opened by {@link #admit}. */
+    public static final class Ticket {
+        static final Ticket UNTRACKED = new Ticket(null);
+
+        private final Window window;
+
+        private Ticket(Window window) {
+            this.window = window;
+        }
+    }
+
+    // One open window; merged counts accumulate until the next flush
+    private static final class Window {
+        private final String key;
+        private final AlertDto first;
+        private final long openedAt;
+        private final long expiresAt;
+
+        // Set on the writer thread once the first alert is committed
+        private volatile Long alertId;
+
+        // No longer in the map: expired, replaced or discarded
+        private volatile boolean closed;
+
+        private final AtomicInteger merged = new AtomicInteger();
+        private final AtomicInteger maxCases = new AtomicInteger();
+
+        Window(String key, AlertDto first, long openedAt, long expiresAt) {
+            this.key = key;
+            this.first = first;
+            this.openedAt = openedAt;
+            this.expiresAt = expiresAt;
+        }
+
+        long length() {
+            return expiresAt - openedAt;
+        }
+
+        void merge(Integer caseCount) {
+            if (caseCount != null) {
+                maxCases.accumulateAndGet(caseCount, Math::max);
+            }
+            merged.incrementAndGet();
+        }
+
+        boolean hasMerged() {
+            return merged.get() > 0;
+        }
+
+        // {merged reports, most cases reported} since the last drain
+        int[] drain() {
+            return new int[]{merged.getAndSet(0), maxCases.get()};
+        }
+
+        void restore(int reports, int cases) {
+            merged.addAndGet(reports);
+            maxCases.accumulateAndGet(cases, Math::max);
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package com.arogyam.health.service;
+
+import com.arogyam.health.dto.AlertBatchReceiptDto;
+import com.arogyam.health.dto.AlertDto;
+import com.arogyam.health.dto.VillageDto;
+import com.arogyam.health.entity.AlertStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Accepts alerts from request threads and writes them on a single background
+ * writer.
+ *
+ * A submission is validated and resolved against the cached village lookups,
+ * then queued; the request returns without touching the alerts table. The
+ * writer drains the queue in batches of up to app.alerts.ingest.batch-size,
+ * waiting at most linger-ms for a batch to fill, and inserts each batch with
+ * one JDBC batch statement in its own transaction. Ids come from
+ * {@link SequenceIdAllocator}, one nextval per 50 alerts. After a batch
+ * commits, an {@link AlertsPersistedEvent} is published on the writer thread.
+ *
+ * The queue is bounded. When it is full, submissions are refused rather than
+ * blocking request threads, and the caller answers 503. If the database is
+ * unavailable, or the error is transient, the writer retries the batch with
+ * backoff while the queue absorbs new alerts. Any other failure is not retried
+ * as a batch: the alerts are written one by one, and those that still fail are
+ * dropped and counted in alerts.ingest.dropped.
+ *
+ * Repeats of an alert that is already open are merged by
+ * {@link AlertDeduplicator} before they are queued; they count as accepted
+ * but are neither inserted nor published. Every alert the writer drops is
+ * handed back to the deduplicator, so its window does not outlive it.
+ */
+@Service
+public class AlertIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertIngestionService.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO alerts (id, village_id, district, state, raised_by, disease, severity, status, " +
+            "description, case_count, occurrence_count, reported_at, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int[] INSERT_TYPES = {Types.BIGINT, Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.BIGINT,
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.INTEGER,
+            Types.TIMESTAMP, Types.TIMESTAMP, Types.TIMESTAMP};
+
+    private static final long POLL_MS = 200;
+    private static final long INITIAL_BACKOFF_MS = 100;
+    // Once shutdown has begun, a batch gets this many attempts before it is dropped
+    private static final int SHUTDOWN_ATTEMPTS = 3;
+
+    @Autowired
+    private VillageService villageService;
+
+    @Autowired
+    private VillageHierarchy villageHierarchy;
+
+    @Autowired
+    private SequenceIdAllocator idAllocator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private AlertDeduplicator deduplicator;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.alerts.ingest.queue-capacity:50000}")
+    private int queueCapacity;
+
+    @Value("${app.alerts.ingest.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.alerts.ingest.linger-ms:20}")
+    private long lingerMs;
+
+    @Value("${app.alerts.ingest.max-backoff-ms:5000}")
+    private long maxBackoffMs;
+
+    @Value("${app.alerts.ingest.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    // How far ahead of the server clock a reported time may be
+    @Value("${app.alerts.ingest.max-clock-skew:5m}")
+    private Duration maxClockSkew;
+
+    private BlockingQueue<AlertDto> queue;
+
+    private Thread writer;
+
+    private volatile boolean running;
+
+    private Counter acceptedCounter;
+    private Counter rejectedCounter;
+    private Counter persistedCounter;
+    private Counter droppedCounter;
+    private Timer batchTimer;
+
+    @PostConstruct
+    void start() {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.acceptedCounter = meterRegistry.counter("alerts.ingest.accepted");
+        this.rejectedCounter = meterRegistry.counter("alerts.ingest.rejected");
+        this.persistedCounter = meterRegistry.counter("alerts.ingest.persisted");
+        this.droppedCounter = meterRegistry.counter("alerts.ingest.dropped");
+        this.batchTimer = meterRegistry.timer("alerts.ingest.batch");
+        meterRegistry.gauge("alerts.ingest.queue.size", queue, BlockingQueue::size);
+
+        running = true;
+        writer = new Thread(this::drain, "alert-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Validates and queues a list of alerts raised by one user. Alerts that fail
+     * validation are reported by position and the rest are still queued. Throws
+     * {@link AlertQueueFullException} if the queue had no room for any of them.
+     */
+    public AlertBatchReceiptDto submit(List<AlertDto> alerts, Long raisedById) {
+        if (raisedById == null) {
+            throw new IllegalArgumentException("Raising user is required");
+        }
+
+        AlertBatchReceiptDto receipt = new AlertBatchReceiptDto();
+        LocalDateTime now = LocalDateTime.now();
+        boolean queueFull = false;
+        for (int i = 0; i < alerts.size(); i++) {
+            AlertDto alert = alerts.get(i);
+            String error = alert == null ? "Alert is empty" : prepare(alert, raisedById, now);
+            if (error != null) {
+                receipt.reject(i + 1, error);
+                continue;
+            }
+            AlertDeduplicator.Ticket ticket = deduplicator.admit(alert);
+            if (ticket == null) {
+                receipt.coalesce();
+            } else if (queueFull || !queue.offer(alert)) {
+                deduplicator.abandon(ticket);
+                queueFull = true;
+                receipt.reject(i + 1, "Alert queue is full, retry later");
+            } else {
+                receipt.accept();
+            }
+        }
+
+        acceptedCounter.increment(receipt.getAccepted());
+        rejectedCounter.increment(receipt.getRejected());
+        if (queueFull && receipt.getAccepted() == 0) {
+            throw new AlertQueueFullException("Alert queue is full, retry later");
+        }
+        return receipt;
+    }
+
+    // Fills in the server-side fields; returns an error message, or null if the alert can be queued
+    private String prepare(AlertDto alert, Long raisedById, LocalDateTime now) {
+        Set<ConstraintViolation<AlertDto>> violations = validator.validate(alert);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+
+        if (alert.getVillageId() != null) {
+            Optional<VillageDto> village = villageService.getVillage(alert.getVillageId());
+            if (village.isEmpty()) {
+                return "Village not found: " + alert.getVillageId();
+            }
+            alert.setVillageName(village.get().getName());
+            alert.setDistrict(village.get().getDistrict());
+            alert.setState(village.get().getState());
+        } else if (!StringUtils.hasText(alert.getDistrict())) {
+            return "Village or district is required";
+        } else {
+            alert.setVillageName(null);
+            alert.setDistrict(alert.getDistrict().trim());
+            if (!StringUtils.hasText(alert.getState())) {
+                VillageHierarchy.Tree tree = villageHierarchy.current();
+                int district = tree.districtId(alert.getDistrict());
+                alert.setState(tree.isDistrict(district) ? tree.stateName(tree.stateOfDistrict(district)) : null);
+            }
+        }
+
+        if (alert.getReportedAt() == null) {
+            alert.setReportedAt(now);
+        } else if (alert.getReportedAt().isAfter(now.plus(maxClockSkew))) {
+            return "Reported time is in the future";
+        }
+
+        alert.setId(null);
+        alert.setRaisedById(raisedById);
+        alert.setDisease(alert.getDisease().trim());
+        alert.setStatus(AlertStatus.OPEN);
+        alert.setOccurrenceCount(1);
+        alert.setCreatedAt(null);
+        return null;
+    }
+
+    private void drain() {
+        List<AlertDto> batch = new ArrayList<>(batchSize);
+        long lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        while (running || !queue.isEmpty()) {
+            try {
+                AlertDto first = queue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long wait = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || wait <= 0 || !running) {
+                        break;
+                    }
+                    AlertDto next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                logger.warn("Alert writer interrupted with {} alerts queued", queue.size());
+                dropped(batch);
+                return;
+            } catch (RuntimeException e) {
+                // Never let the writer die over one batch
+                logger.error("Dropped a batch of {} alerts", batch.size(), e);
+                dropped(batch);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<AlertDto> batch) throws InterruptedException {
+        batch = deduplicator.mergeIntoOpenAlerts(batch);
+        if (batch.isEmpty()) {
+            return;
+        }
+        long backoffMs = INITIAL_BACKOFF_MS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Timer.Sample sample = Timer.start(meterRegistry);
+                insert(batch);
+                sample.stop(batchTimer);
+                persisted(batch);
+                return;
+            } catch (DataIntegrityViolationException e) {
+                // A village or user deleted after submission; keep the rest of the batch
+                logger.warn("Alert batch rejected, retrying {} alerts individually: {}",
+                        batch.size(), e.getMostSpecificCause().getMessage());
+                writeIndividually(batch);
+                return;
+            } catch (DataAccessException | CannotCreateTransactionException e) {
+                if (!retryable(e)) {
+                    // Bad SQL or a value the schema refuses fails the same way every time
+                    logger.warn("Alert batch failed, retrying {} alerts individually: {}", batch.size(), e.getMessage());
+                    writeIndividually(batch);
+                    return;
+                }
+                if (!running && attempt >= SHUTDOWN_ATTEMPTS) {
+                    logger.error("Dropped {} alerts at shutdown: {}", batch.size(), e.getMessage());
+                    dropped(batch);
+                    return;
+                }
+                logger.warn("Could not write {} alerts (attempt {}), retrying in {} ms: {}",
+                        batch.size(), attempt, backoffMs, e.getMessage());
+                Thread.sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+            }
+        }
+    }
+
+    // Spring files an unreachable database under non-transient resource failures,
+    // but nothing was written and a later attempt can succeed
+    private static boolean retryable(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    private void writeIndividually(List<AlertDto> batch) {
+        List<AlertDto> written = new ArrayList<>(batch.size());
+        List<AlertDto> failed = new ArrayList<>();
+        for (AlertDto alert : batch) {
+            try {
+                insert(List.of(alert));
+                written.add(alert);
+            } catch (RuntimeException e) {
+                // Per row, so rows already written are still published
+                failed.add(alert);
+                logger.warn("Dropped alert for district {} raised by user {}: {}",
+                        alert.getDistrict(), alert.getRaisedById(),
+                        NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            }
+        }
+        if (!written.isEmpty()) {
+            persisted(written);
+        }
+        if (!failed.isEmpty()) {
+            dropped(failed);
+        }
+    }
+
+    private void insert(List<AlertDto> alerts) {
+        long[] ids = idAllocator.allocate(SequenceIdAllocator.ALERTS, alerts.size());
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp createdAt = Timestamp.valueOf(now);
+        List<Object[]> rows = new ArrayList<>(alerts.size());
+        for (int i = 0; i < ids.length; i++) {
+            AlertDto alert = alerts.get(i);
+            rows.add(new Object[]{
+                    ids[i],
+                    alert.getVillageId(),
+                    alert.getDistrict(),
+                    alert.getState(),
+                    alert.getRaisedById(),
+                    alert.getDisease(),
+                    alert.getSeverity().name(),
+                    alert.getStatus().name(),
+                    alert.getDescription(),
+                    alert.getCaseCount(),
+                    alert.getOccurrenceCount(),
+                    Timestamp.valueOf(alert.getReportedAt()),
+                    createdAt,
+                    createdAt
+            });
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, rows, INSERT_TYPES));
+
+        // Only after commit, so a retried batch never reports half-assigned ids
+        for (int i = 0; i < ids.length; i++) {
+            alerts.get(i).setId(ids[i]);
+            alerts.get(i).setCreatedAt(now);
+        }
+    }
+
+    private void persisted(List<AlertDto> alerts) {
+        persistedCounter.increment(alerts.size());
+        try {
+            eventPublisher.publishEvent(new AlertsPersistedEvent(List.copyOf(alerts)));
+        } catch (RuntimeException e) {
+            // The alerts are stored; a failing listener must not make the writer retry them
+            logger.error("Alert listener failed for a batch of {} alerts", alerts.size(), e);
+        }
+    }
+
+    private void dropped(List<AlertDto> alerts) {
+        droppedCounter.increment(alerts.size());
+        try {
+            deduplicator.onAlertsDropped(alerts);
+        } catch (RuntimeException e) {
+            logger.error("Could not close dedup windows for {} dropped alerts", alerts.size(), e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(shutdownTimeoutMs);
+        List<AlertDto> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            logger.warn("Dropped {} queued alerts at shutdown", remaining.size());
+            dropped(remaining);
+        }
+    }
+}
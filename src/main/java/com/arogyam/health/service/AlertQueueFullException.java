@@ -0,0 +1,11 @@
+package com.arogyam.health.service;
+
+/**
+ * Thrown when the alert ingestion queue has no room left; callers should answer 503.
+ */
+public class AlertQueueFullException extends RuntimeException {
+
+    public AlertQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,73 @@
+package com.arogyam.health.service;
+
+import com.arogyam.health.dto.AlertDto;
+import com.arogyam.health.dto.CursorPageDto;
+import com.arogyam.health.repository.AlertRepository;
+import com.arogyam.health.util.CursorCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Alert listings for dashboards, newest first by reported time. Writes go
+ * through {@link AlertIngestionService}.
+ */
+@Service
+@Transactional(readOnly = true)
+public class AlertService {
+
+    // Open ends of a time range; both are within PostgreSQL's timestamp range
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Value("${app.alerts.page.max-size:200}")
+    private int maxPageSize;
+
+    public Optional<AlertDto> getAlert(Long id) {
+        return alertRepository.findResponseById(id);
+    }
+
+    /**
+     * Alerts reported in [from, to), optionally for one district. Either end may
+     * be null. The cursor comes from the previous page and must be used with the
+     * same filters.
+     */
+    public CursorPageDto<AlertDto> getAlerts(String district, LocalDateTime from, LocalDateTime to,
+                                             String cursor, int size) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("From must be before to");
+        }
+
+        CursorCodec.TimeCursor after = CursorCodec.decodeTime(cursor);
+        // With id 0 the first page excludes alerts reported exactly at "to"
+        LocalDateTime beforeTime = after != null ? after.getTime() : (to != null ? to : LATEST);
+        long beforeId = after != null ? after.getId() : (to != null ? 0L : Long.MAX_VALUE);
+        LocalDateTime since = from != null ? from : EARLIEST;
+
+        int limit = Math.max(1, Math.min(size, maxPageSize));
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<AlertDto> rows = district != null
+                ? alertRepository.findPageByDistrict(district, since, beforeTime, beforeId, page)
+                : alertRepository.findPage(since, beforeTime, beforeId, page);
+        return toPage(rows, limit);
+    }
+
+    // Rows were fetched with limit + 1; the extra row only tells us another page exists
+    private CursorPageDto<AlertDto> toPage(List<AlertDto> rows, int limit) {
+        boolean hasNext = rows.size() > limit;
+        List<AlertDto> items = hasNext ? new ArrayList<>(rows.subList(0, limit)) : rows;
+        AlertDto last = hasNext ? items.get(limit - 1) : null;
+        String nextCursor = last != null ? CursorCodec.encode(last.getReportedAt(), last.getId()) : null;
+        return new CursorPageDto<>(items, nextCursor);
+    }
+}
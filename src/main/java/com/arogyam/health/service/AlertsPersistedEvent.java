@@ -0,0 +1,22 @@
+package com.arogyam.health.service;
+
+import com.arogyam.health.dto.AlertDto;
+
+import java.util.List;
+
+/**
+ * Published by {@link AlertIngestionService} once a batch of alerts has been
+ * committed. The alerts carry their ids and are in the order they were written.
+ */
+public class AlertsPersistedEvent {
+
+    private final List<AlertDto> alerts;
+
+    public AlertsPersistedEvent(List<AlertDto> alerts) {
+        this.alerts = alerts;
+    }
+
+    public List<AlertDto> getAlerts() {
+        return alerts;
+    }
+}
@@ -0,0 +1,82 @@
+package com.arogyam.health.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for users.last_login.
+ *
+ * Logins only record (userId, time) in memory, keeping the latest time per user;
+ * a scheduled flush writes everything pending as one batched UPDATE. Repeated
+ * logins from the same worker between flushes collapse into a single row write.
+ */
+@Component
+public class LastLoginUpdateBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LastLoginUpdateBuffer.class);
+
+    // Never moves last_login backwards if another node already wrote a later time
+    private static final String UPDATE_SQL =
+            "UPDATE users SET last_login = ? WHERE id = ? AND (last_login IS NULL OR last_login < ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentHashMap<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    public void record(Long userId, LocalDateTime loginTime) {
+        pending.merge(userId, loginTime, (current, latest) -> latest.isAfter(current) ? latest : current);
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.users.last-login.flush-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<>(pending.size());
+        for (Long userId : pending.keySet()) {
+            LocalDateTime loginTime = pending.remove(userId);
+            if (loginTime != null) {
+                Timestamp timestamp = Timestamp.valueOf(loginTime);
+                batch.add(new Object[]{timestamp, userId, timestamp});
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, batch);
+            logger.debug("Flushed last login for {} users", batch.size());
+        } catch (Exception e) {
+            logger.warn("Could not flush last login for {} users, will retry: {}", batch.size(), e.getMessage());
+            for (Object[] row : batch) {
+                record((Long) row[1], ((Timestamp) row[0]).toLocalDateTime());
+            }
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+        if (!pending.isEmpty()) {
+            logger.warn("Dropped last login updates for {} users at shutdown", pending.size());
+        }
+    }
+}
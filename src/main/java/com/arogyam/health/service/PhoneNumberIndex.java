@@ -0,0 +1,276 @@
+package com.arogyam.health.service;
+
+import com.arogyam.health.repository.UserRepository;
+import com.arogyam.health.util.PhoneNumbers;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.Stream;
+
+/**
+ * E.164 phone number -> user id, for attributing inbound SMS and IVR traffic.
+ *
+ * Two open-addressing tables of parallel long arrays (key 0 marks an empty
+ * slot), each kept at most half full: phone -> user id for lookups, and user
+ * id -> phone so that indexing a user's new number drops their old one.
+ * Lookups are optimistic StampedLock reads: no lock, no allocation, and a
+ * retry under the read lock only if a write raced. Loaded from the database
+ * at startup and updated by {@link UserService}; users inserted or renumbered
+ * elsewhere (bulk import, other nodes) are picked up by updated_at on a
+ * schedule, or on their first lookup miss. A hit can therefore be trusted,
+ * except for a number that moved on another node since the last catch-up.
+ */
+@Component
+public class PhoneNumberIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhoneNumberIndex.class);
+
+    public static final long NOT_FOUND = -1L;
+
+    private static final int MIN_CAPACITY = 1024;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final StampedLock lock = new StampedLock();
+
+    private final LongTable userIdsByPhone = new LongTable();
+    private final LongTable phonesByUserId = new LongTable();
+
+    // Re-read this much before the last catch-up, for transactions that were still open when it ran
+    private static final long CATCH_UP_OVERLAP_SECONDS = 60;
+
+    private LocalDateTime caughtUpTo;
+
+    @PostConstruct
+    void load() {
+        catchUp();
+        meterRegistry.gauge("users.phone.index.size", this, PhoneNumberIndex::size);
+        logger.info("Indexed {} phone numbers", size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.users.phone-index.catch-up-ms:10000}")
+    public synchronized void catchUp() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime since = caughtUpTo != null ? caughtUpTo.minusSeconds(CATCH_UP_OVERLAP_SECONDS) : null;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = since != null
+                        ? userRepository.streamIdsAndPhoneNumbersChangedSince(since)
+                        : userRepository.streamIdsAndPhoneNumbers()) {
+                    rows.forEach(row -> put((String) row[1], (Long) row[0]));
+                }
+            });
+            caughtUpTo = startedAt;
+        } catch (Exception e) {
+            logger.warn("Could not catch up the phone number index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return the user id, or {@link #NOT_FOUND}
+     */
+    public long findUserId(String phoneNumber) {
+        long phone = PhoneNumbers.toE164(phoneNumber);
+        if (phone == PhoneNumbers.INVALID) {
+            return NOT_FOUND;
+        }
+
+        long stamp = lock.tryOptimisticRead();
+        long userId = userIdsByPhone.get(phone);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                userId = userIdsByPhone.get(phone);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return userId;
+    }
+
+    // Indexes the user's current number, replacing the one indexed for them before
+    public void put(String phoneNumber, long userId) {
+        long phone = PhoneNumbers.toE164(phoneNumber);
+
+        long stamp = lock.writeLock();
+        try {
+            long previousPhone = phonesByUserId.get(userId);
+            if (previousPhone != NOT_FOUND && previousPhone != phone) {
+                phonesByUserId.remove(userId);
+                if (userIdsByPhone.get(previousPhone) == userId) {
+                    userIdsByPhone.remove(previousPhone);
+                }
+            }
+            if (phone == PhoneNumbers.INVALID) {
+                logger.debug("Not indexing unparseable phone number for user {}", userId);
+                return;
+            }
+
+            long previousUserId = userIdsByPhone.put(phone, userId);
+            if (previousUserId != NOT_FOUND && previousUserId != userId) {
+                logger.warn("Phone number {} moved from user {} to user {}",
+                        PhoneNumbers.format(phone), previousUserId, userId);
+                if (phonesByUserId.get(previousUserId) == phone) {
+                    phonesByUserId.remove(previousUserId);
+                }
+            }
+            phonesByUserId.put(userId, phone);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Only removes the entry if it still belongs to this user
+    public void remove(String phoneNumber, long userId) {
+        long phone = PhoneNumbers.toE164(phoneNumber);
+        if (phone == PhoneNumbers.INVALID) {
+            return;
+        }
+
+        long stamp = lock.writeLock();
+        try {
+            if (userIdsByPhone.get(phone) == userId) {
+                userIdsByPhone.remove(phone);
+            }
+            if (phonesByUserId.get(userId) == phone) {
+                phonesByUserId.remove(userId);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return userIdsByPhone.size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        // SplitMix64 finalizer; phone numbers share long prefixes, so the low bits need mixing
+        long z = key;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (int) (z ^ (z >>> 31)) & mask;
+    }
+
+    // Positive long -> long, linear probing. Writes hold the index's write lock.
+    private static final class LongTable {
+        private long[] keys = new long[MIN_CAPACITY];
+        private long[] values = new long[MIN_CAPACITY];
+        private int size;
+
+        // May read a torn table during a racing write; the caller validates the stamp
+        long get(long key) {
+            long[] keys = this.keys;
+            long[] values = this.values;
+            int mask = keys.length - 1;
+            if (values.length != keys.length) {
+                return NOT_FOUND;
+            }
+            int slot = slot(key, mask);
+            for (int probes = 0; probes <= mask; probes++) {
+                long found = keys[slot];
+                if (found == 0) {
+                    return NOT_FOUND;
+                }
+                if (found == key) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return NOT_FOUND;
+        }
+
+        // Returns the value it replaced, or NOT_FOUND
+        long put(long key, long value) {
+            if ((size + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (keys[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            long previous = NOT_FOUND;
+            if (keys[slot] == 0) {
+                keys[slot] = key;
+                size++;
+            } else {
+                previous = values[slot];
+            }
+            values[slot] = value;
+            return previous;
+        }
+
+        void remove(long key) {
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (keys[slot] != 0) {
+                if (keys[slot] == key) {
+                    deleteSlot(slot);
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        // Backward-shift deletion keeps every remaining key reachable without tombstones
+        private void deleteSlot(int slot) {
+            int mask = keys.length - 1;
+            int hole = slot;
+            int next = (hole + 1) & mask;
+            while (keys[next] != 0) {
+                int home = slot(keys[next], mask);
+                // Move the entry back if the hole lies on its probe path
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = keys[next];
+                    values[hole] = values[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            keys[hole] = 0;
+            values[hole] = 0;
+            size--;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            long[] oldValues = values;
+            long[] newKeys = new long[capacity];
+            long[] newValues = new long[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = slot(oldKeys[i], mask);
+                    while (newKeys[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    newKeys[slot] = oldKeys[i];
+                    newValues[slot] = oldValues[i];
+                }
+            }
+            keys = newKeys;
+            values = newValues;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.arogyam.health.service;
+
+import com.arogyam.health.config.CacheConfig;
+import com.arogyam.health.dto.AlertDto;
+import com.arogyam.health.entity.UserRole;
+import com.arogyam.health.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Resolves who is responsible for an alert: the active field workers of its
+ * village and the active health officials of its district. {@link AlertBroadcaster}
+ * uses it to send each field worker's stream only the alerts addressed to them.
+ *
+ * Active user ids are cached per (district, role) and (district, village, role)
+ * as sorted long arrays. A village is identified by its district too, because
+ * users store a bare village name and names repeat across districts. A burst of
+ * alerts from one district therefore costs one query per key, not one per alert.
+ * {@link UserService} and {@link UserBulkImportService} evict exactly the keys a
+ * user write touches. Inside a transaction the eviction waits for the commit.
+ * Writes made on other nodes are picked up when entries expire
+ * (app.cache.recipients.ttl).
+ */
+@Service
+public class RecipientResolver {
+
+    // Notified for alerts in their own village
+    private static final List<UserRole> VILLAGE_ROLES = List.of(UserRole.ASHA_WORKER, UserRole.CHW, UserRole.VOLUNTEER);
+
+    // Notified for every alert in their district
+    private static final List<UserRole> DISTRICT_ROLES = List.of(UserRole.HEALTH_OFFICIAL);
+
+    private static final long[] NONE = new long[0];
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    /** Sorted ids of the district's active users with this role. The array is shared; do not modify it. */
+    public long[] activeInDistrict(String district, UserRole role) {
+        if (district == null || role == null) {
+            return NONE;
+        }
+        return cache(CacheConfig.RECIPIENTS_BY_DISTRICT).get(districtKey(district, role),
+                () -> toArray(userRepository.findActiveIdsByDistrictAndRole(district, role)));
+    }
+
+    /** Sorted ids of the village's active users with this role. The array is shared; do not modify it. */
+    public long[] activeInVillage(String district, String village, UserRole role) {
+        if (district == null || village == null || role == null) {
+            return NONE;
+        }
+        return cache(CacheConfig.RECIPIENTS_BY_VILLAGE).get(villageKey(district, village, role),
+                () -> toArray(userRepository.findActiveIdsByVillageAndRole(district, village, role)));
+    }
+
+    /** Sorted, distinct ids of everyone to notify about the alert, never including the user who raised it. */
+    public long[] recipientsFor(AlertDto alert) {
+        long[][] groups = new long[VILLAGE_ROLES.size() + DISTRICT_ROLES.size()][];
+        int count = 0;
+        int total = 0;
+        if (alert.getVillageName() != null) {
+            for (UserRole role : VILLAGE_ROLES) {
+                groups[count] = activeInVillage(alert.getDistrict(), alert.getVillageName(), role);
+                total += groups[count++].length;
+            }
+        }
+        for (UserRole role : DISTRICT_ROLES) {
+            groups[count] = activeInDistrict(alert.getDistrict(), role);
+            total += groups[count++].length;
+        }
+
+        long[] merged = new long[total];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(groups[i], 0, merged, size, groups[i].length);
+            size += groups[i].length;
+        }
+        // A user has one role and one village, so the groups are already disjoint
+        Arrays.sort(merged);
+        long raisedBy = alert.getRaisedById() != null ? alert.getRaisedById() : -1;
+        int self = Arrays.binarySearch(merged, raisedBy);
+        if (self < 0) {
+            return merged;
+        }
+        long[] others = new long[merged.length - 1];
+        System.arraycopy(merged, 0, others, 0, self);
+        System.arraycopy(merged, self + 1, others, self, merged.length - self - 1);
+        return others;
+    }
+
+    /**
+     * Drops the cached recipients a user appears under. Call with the user's
+     * state before and after a write; unchanged keys are evicted once.
+     */
+    public void userChanged(UserRole oldRole, String oldDistrict, String oldVillage,
+                            UserRole newRole, String newDistrict, String newVillage) {
+        userChanged(oldRole, oldDistrict, oldVillage);
+        if (oldRole != newRole || !Objects.equals(oldDistrict, newDistrict) || !Objects.equals(oldVillage, newVillage)) {
+            userChanged(newRole, newDistrict, newVillage);
+        }
+    }
+
+    public void userChanged(UserRole role, String district, String village) {
+        if (role == null || district == null) {
+            return;
+        }
+        cache(CacheConfig.RECIPIENTS_BY_DISTRICT).evict(districtKey(district, role));
+        if (village != null) {
+            cache(CacheConfig.RECIPIENTS_BY_VILLAGE).evict(villageKey(district, village, role));
+        }
+    }
+
+    private Cache cache(String name) {
+        return Objects.requireNonNull(cacheManager.getCache(name), name);
+    }
+
+    private static String districtKey(String district, UserRole role) {
+        return district + '\u0000' + role.name();
+    }
+
+    private static String villageKey(String district, String village, UserRole role) {
+        return district + '\u0000' + village + '\u0000' + role.name();
+    }
+
+    private static long[] toArray(List<Long> ids) {
+        long[] array = new long[ids.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = ids.get(i);
+        }
+        return array;
+    }
+}
@@ -0,0 +1,39 @@
+package com.arogyam.health.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out ids from the pooled id sequences (V3, V4 migrations) for rows inserted
+ * with plain JDBC. It follows the same contract as Hibernate's pooled
+ * optimizer: each nextval value v reserves v - 49 .. v. Ids allocated here
+ * therefore never collide with the ones entities get, and a bulk load costs
+ * one nextval per 50 rows.
+ */
+@Component
+public class SequenceIdAllocator {
+
+    // Must match allocationSize on the entities and INCREMENT BY on the sequences
+    public static final int BLOCK_SIZE = 50;
+
+    public static final String USERS = "users_id_seq";
+    public static final String VILLAGES = "villages_id_seq";
+    public static final String ALERTS = "alerts_id_seq";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public long[] allocate(String sequence, int count) {
+        long[] ids = new long[count];
+        int filled = 0;
+        while (filled < count) {
+            Long high = jdbcTemplate.queryForObject("SELECT nextval('" + sequence + "')", Long.class);
+            // A fresh sequence starts at 1; like Hibernate, never hand out ids below it
+            for (long id = Math.max(1, high - BLOCK_SIZE + 1); id <= high && filled < count; id++) {
+                ids[filled++] = id;
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,338 @@
+package com.arogyam.health.service;
+
+import com.arogyam.health.dto.BulkImportReportDto;
+import com.arogyam.health.dto.UserRegistrationDto;
+import com.arogyam.health.entity.UserRole;
+import com.arogyam.health.repository.UserRepository;
+import com.arogyam.health.security.BulkheadPasswordEncoder;
+import com.arogyam.health.util.CsvReader;
+import com.arogyam.health.util.PhoneNumbers;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a CSV of health workers into the users table.
+ *
+ * Existing usernames and phone numbers are fetched once up front, so duplicates
+ * (against the table or earlier rows in the same file) are caught in memory;
+ * phone numbers are compared in E.164 form, whatever spelling they were stored in.
+ * Accepted rows are processed in chunks: passwords hashed in parallel, then
+ * inserted with one JDBC batch per chunk.
+ */
+@Service
+public class UserBulkImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserBulkImportService.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO users (id, username, password_hash, full_name, role, is_active, phone_number, " +
+            "email, district, state, village, created_at, updated_at, token_epoch) " +
+            "VALUES (?, ?, ?, ?, ?, true, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final List<String> REQUIRED_COLUMNS =
+            List.of("username", "password", "fullname", "phonenumber", "role", "district");
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private SequenceIdAllocator idAllocator;
+
+    @Autowired
+    private WorkerCountMatrix workerCountMatrix;
+
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    @Autowired
+    private PhoneNumberIndex phoneNumberIndex;
+
+    @Autowired
+    private RecipientResolver recipientResolver;
+
+    @Value("${app.users.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.users.import.max-errors:1000}")
+    private int maxErrors;
+
+    // 0 = half the available processors, leaving the rest for interactive logins
+    @Value("${app.users.import.hash-threads:0}")
+    private int hashThreads;
+
+    private ExecutorService hashingPool;
+
+    @PostConstruct
+    void init() {
+        int threads = hashThreads > 0 ? hashThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.hashingPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-hash-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashingPool.shutdownNow();
+    }
+
+    public BulkImportReportDto importUsers(Reader input) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        BulkImportReportDto report = new BulkImportReportDto();
+
+        Set<String> usernames = new HashSet<>();
+        Set<String> phoneNumbers = new HashSet<>();
+        for (Object[] row : userRepository.findAllUsernamesAndPhoneNumbers()) {
+            usernames.add((String) row[0]);
+            phoneNumbers.add(phoneKey((String) row[1]));
+        }
+
+        try (CsvReader csv = new CsvReader(input)) {
+            Map<String, Integer> columns = csv.readHeader();
+            List<String> missing = REQUIRED_COLUMNS.stream()
+                    .filter(column -> !columns.containsKey(column))
+                    .collect(Collectors.toList());
+            if (!missing.isEmpty()) {
+                throw new IllegalArgumentException("Missing required CSV columns: " + String.join(", ", missing));
+            }
+
+            List<PendingUser> chunk = new ArrayList<>(batchSize);
+            while (true) {
+                long line = csv.getLineNumber();
+                List<String> record = csv.readRecord();
+                if (record == null) {
+                    break;
+                }
+                report.setTotalRows(report.getTotalRows() + 1);
+
+                UserRegistrationDto dto;
+                try {
+                    dto = toDto(record, columns);
+                } catch (IllegalArgumentException e) {
+                    report.reject(line, e.getMessage(), maxErrors);
+                    continue;
+                }
+
+                String error = validate(dto);
+                if (error == null && usernames.contains(dto.getUsername())) {
+                    error = "Username already exists: " + dto.getUsername();
+                }
+                if (error == null && phoneNumbers.contains(phoneKey(dto.getPhoneNumber()))) {
+                    error = "Phone number already exists: " + dto.getPhoneNumber();
+                }
+                if (error != null) {
+                    report.reject(line, error, maxErrors);
+                    continue;
+                }
+
+                // Reserve the keys now so later rows in the same file are caught as duplicates
+                usernames.add(dto.getUsername());
+                phoneNumbers.add(phoneKey(dto.getPhoneNumber()));
+                chunk.add(new PendingUser(line, dto));
+
+                if (chunk.size() >= batchSize) {
+                    insertChunk(chunk, report);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                insertChunk(chunk, report);
+            }
+        }
+
+        if (report.getImportedRows() > 0) {
+            // Make the new workers searchable and identifiable now rather than at the next scheduled catch-up
+            userSearchIndex.catchUp();
+            phoneNumberIndex.catchUp();
+        }
+
+        report.finish(startedAt);
+        logger.info("User import finished: {}", report);
+        return report;
+    }
+
+    private void insertChunk(List<PendingUser> chunk, BulkImportReportDto report) {
+        List<String> hashes = hashPasswords(chunk);
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        long[] ids = idAllocator.allocate(SequenceIdAllocator.USERS, chunk.size());
+
+        List<Object[]> rows = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            rows.add(toRow(ids[i], chunk.get(i).dto, hashes.get(i), createdAt));
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, rows));
+            report.setImportedRows(report.getImportedRows() + rows.size());
+            // JDBC inserts bypass the entity listener and UserService, so account for the committed rows here
+            chunk.forEach(user -> counted(user.dto));
+        } catch (DataAccessException e) {
+            // Someone registered a clashing user mid-import; retry row by row to isolate it
+            logger.warn("Batch insert failed, retrying {} rows individually: {}", rows.size(), e.getMessage());
+            for (int i = 0; i < rows.size(); i++) {
+                Object[] row = rows.get(i);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(INSERT_SQL, row));
+                    report.setImportedRows(report.getImportedRows() + 1);
+                    counted(chunk.get(i).dto);
+                } catch (DuplicateKeyException rowError) {
+                    report.reject(chunk.get(i).line, "User with this username or phone number already exists", maxErrors);
+                } catch (DataAccessException rowError) {
+                    report.reject(chunk.get(i).line, "Could not write user: "
+                            + rowError.getMostSpecificCause().getMessage(), maxErrors);
+                }
+            }
+        }
+    }
+
+    private void counted(UserRegistrationDto user) {
+        workerCountMatrix.increment(user.getRole(), user.getDistrict());
+        recipientResolver.userChanged(user.getRole(), user.getDistrict(), user.getVillage());
+    }
+
+    private List<String> hashPasswords(List<PendingUser> chunk) {
+        // Bypass the login bulkhead: this pool is the import's own parallelism limit
+        PasswordEncoder encoder = passwordEncoder instanceof BulkheadPasswordEncoder
+                ? ((BulkheadPasswordEncoder) passwordEncoder).getDelegate()
+                : passwordEncoder;
+
+        List<Future<String>> futures = new ArrayList<>(chunk.size());
+        for (PendingUser user : chunk) {
+            String rawPassword = user.dto.getPassword();
+            futures.add(hashingPool.submit(() -> encoder.encode(rawPassword)));
+        }
+
+        List<String> hashes = new ArrayList<>(chunk.size());
+        try {
+            for (Future<String> future : futures) {
+                hashes.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("User import interrupted", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Password hashing failed during import", e.getCause());
+        }
+        return hashes;
+    }
+
+    private UserRegistrationDto toDto(List<String> record, Map<String, Integer> columns) {
+        UserRegistrationDto dto = new UserRegistrationDto();
+        dto.setUsername(column(record, columns, "username"));
+        dto.setPassword(column(record, columns, "password"));
+        dto.setFullName(column(record, columns, "fullname"));
+        dto.setPhoneNumber(column(record, columns, "phonenumber"));
+        dto.setEmail(column(record, columns, "email"));
+        dto.setDistrict(column(record, columns, "district"));
+        dto.setState(column(record, columns, "state"));
+        dto.setVillage(column(record, columns, "village"));
+
+        String role = column(record, columns, "role");
+        if (role != null) {
+            try {
+                dto.setRole(UserRole.valueOf(role.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid role: " + role);
+            }
+        }
+        return dto;
+    }
+
+    private String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // Compare numbers as E.164, as registration does, so 09812345678 clashes with +919812345678
+    private static String phoneKey(String phoneNumber) {
+        long e164 = PhoneNumbers.toE164(phoneNumber);
+        return e164 != PhoneNumbers.INVALID ? PhoneNumbers.format(e164) : phoneNumber;
+    }
+
+    private String validate(UserRegistrationDto dto) {
+        Set<ConstraintViolation<UserRegistrationDto>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private Object[] toRow(long id, UserRegistrationDto dto, String passwordHash, Timestamp createdAt) {
+        return new Object[]{
+                id,
+                dto.getUsername(),
+                passwordHash,
+                dto.getFullName(),
+                dto.getRole().name(),
+                dto.getPhoneNumber(),
+                dto.getEmail(),
+                dto.getDistrict(),
+                dto.getState(),
+                dto.getVillage(),
+                createdAt,
+                createdAt
+        };
+    }
+
+    private static class PendingUser {
+        private final long line;
+        private final UserRegistrationDto dto;
+
+        PendingUser(long line, UserRegistrationDto dto) {
+            this.line = line;
+            this.dto = dto;
+        }
+    }
+}
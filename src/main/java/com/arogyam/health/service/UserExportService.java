@@ -0,0 +1,108 @@
+package com.arogyam.health.service;
+
+import com.arogyam.health.dto.UserResponseDto;
+import com.arogyam.health.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the user directory straight to an output stream, one row at a time.
+ *
+ * Rows come from a forward-only JDBC cursor projected straight into DTOs, so no
+ * entities pile up in the persistence context and heap use does not grow with
+ * the number of users.
+ */
+@Service
+public class UserExportService {
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    private static final String CSV_HEADER =
+            "id,username,fullName,phoneNumber,email,role,district,state,village,isActive,createdAt,lastLogin\n";
+
+    // Push bytes to the client regularly instead of waiting for the servlet buffer to fill
+    private static final int FLUSH_EVERY_ROWS = 500;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public long exportUsers(OutputStream out, Format format) throws IOException {
+        ObjectWriter jsonWriter = objectMapper.writerFor(UserResponseDto.class);
+        long rows = 0;
+
+        if (format == Format.CSV) {
+            out.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+        }
+
+        try (Stream<UserResponseDto> users = userRepository.streamAllOrderById()) {
+            Iterator<UserResponseDto> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                UserResponseDto dto = iterator.next();
+
+                if (format == Format.CSV) {
+                    out.write(toCsvLine(dto).getBytes(StandardCharsets.UTF_8));
+                } else {
+                    out.write(jsonWriter.writeValueAsBytes(dto));
+                    out.write('\n');
+                }
+
+                // First row goes out immediately, then in regular chunks
+                if (++rows == 1 || rows % FLUSH_EVERY_ROWS == 0) {
+                    out.flush();
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        out.flush();
+        return rows;
+    }
+
+    private String toCsvLine(UserResponseDto dto) {
+        StringBuilder line = new StringBuilder(160);
+        appendCsv(line, dto.getId()).append(',');
+        appendCsv(line, dto.getUsername()).append(',');
+        appendCsv(line, dto.getFullName()).append(',');
+        appendCsv(line, dto.getPhoneNumber()).append(',');
+        appendCsv(line, dto.getEmail()).append(',');
+        appendCsv(line, dto.getRole()).append(',');
+        appendCsv(line, dto.getDistrict()).append(',');
+        appendCsv(line, dto.getState()).append(',');
+        appendCsv(line, dto.getVillageName()).append(',');
+        appendCsv(line, dto.getIsActive()).append(',');
+        appendCsv(line, dto.getCreatedAt()).append(',');
+        appendCsv(line, dto.getLastLogin()).append('\n');
+        return line.toString();
+    }
+
+    private StringBuilder appendCsv(StringBuilder line, Object value) {
+        if (value == null) {
+            return line;
+        }
+        String text = value.toString();
+        boolean needsQuotes = text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+        if (!needsQuotes) {
+            return line.append(text);
+        }
+        return line.append('"').append(text.replace("\"", "\"\"")).append('"');
+    }
+}
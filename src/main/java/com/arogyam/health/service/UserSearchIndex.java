@@ -0,0 +1,538 @@
+package com.arogyam.health.service;
+
+import com.arogyam.health.dto.UserResponseDto;
+import com.arogyam.health.dto.UserSearchHitDto;
+import com.arogyam.health.entity.UserRole;
+import com.arogyam.health.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Trigram index over full name, username and phone digits for substring search.
+ *
+ * Every user is one dense document number. Each trigram maps to a sorted int
+ * array of the documents containing it; a query intersects the lists for its own
+ * trigrams and then confirms the match on the candidates. Changing a user's text
+ * retires the old document and appends a new one, and retired documents are
+ * dropped by an occasional in-memory compaction.
+ *
+ * Edits made through {@link UserService} are applied after commit. Everything
+ * else, such as bulk imports and writes on other nodes, is picked up by a
+ * periodic pass over rows whose updated_at is newer than the previous pass.
+ * Each pass re-reads a minute of history, which covers clock skew between
+ * nodes and transactions that commit a little after their timestamp.
+ */
+@Component
+public class UserSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchIndex.class);
+
+    public static final int MIN_QUERY_LENGTH = 3;
+
+    private static final char FIELD_SEPARATOR = '\n';
+    private static final UserRole[] ROLES = UserRole.values();
+
+    private static final long CATCH_UP_OVERLAP_SECONDS = 60;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Per document, indexed by document number
+    private long[] userIds = new long[1024];
+    private String[] usernames = new String[1024];
+    private String[] fullNames = new String[1024];
+    private String[] phoneNumbers = new String[1024];
+    private int[] keyStarts = new int[1024];
+    private int[] keyEnds = new int[1024];
+    private int[] nameLengths = new int[1024];
+    private byte[] roles = new byte[1024];
+    private int[] districts = new int[1024];
+    private final BitSet activeDocs = new BitSet();
+    private final BitSet retiredDocs = new BitSet();
+    private int docCount;
+    private int retiredCount;
+
+    // Search keys of all documents back to back; candidates are verified by scanning this in document order
+    private char[] text = new char[64 * 1024];
+    private int textSize;
+
+    private final Map<Long, Integer> docByUser = new HashMap<>();
+    private final Map<String, Integer> districtIds = new HashMap<>();
+    private final List<String> districtNames = new ArrayList<>();
+    private Map<Long, IntList> postings = new HashMap<>();
+
+    // Start of the last successful pass; null until the initial full load
+    private LocalDateTime caughtUpTo;
+
+    @PostConstruct
+    void load() {
+        catchUp();
+        logger.info("Indexed {} users for search", docByUser.size());
+    }
+
+    // Picks up rows written outside UserService, e.g. bulk imports or other nodes
+    @Scheduled(fixedDelayString = "${app.users.search.catch-up-ms:10000}")
+    public synchronized void catchUp() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime since = caughtUpTo != null ? caughtUpTo.minusSeconds(CATCH_UP_OVERLAP_SECONDS) : null;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<UserResponseDto> rows = since != null
+                        ? userRepository.streamChangedSince(since)
+                        : userRepository.streamAllOrderById()) {
+                    rows.forEach(this::index);
+                }
+            });
+            caughtUpTo = startedAt;
+        } catch (Exception e) {
+            logger.warn("Could not catch up the user search index: {}", e.getMessage());
+        }
+    }
+
+    // Retired documents still occupy posting lists; rebuild once they are a quarter of the index
+    @Scheduled(fixedDelayString = "${app.users.search.compact-check-ms:60000}")
+    public void compactIfNeeded() {
+        if (retiredCount > 1000 && retiredCount * 4 > docCount) {
+            compact();
+        }
+    }
+
+    public void index(UserResponseDto user) {
+        if (user == null || user.getId() == null) {
+            return;
+        }
+        String key = searchKey(user.getFullName(), user.getUsername(), user.getPhoneNumber());
+
+        lock.writeLock().lock();
+        try {
+            Integer existing = docByUser.get(user.getId());
+            if (existing != null && keyEquals(existing, key)) {
+                // Text unchanged: only the filter fields need updating
+                setAttributes(existing, user.getRole(), user.getDistrict(), user.getIsActive());
+                return;
+            }
+            if (existing != null) {
+                retiredDocs.set(existing);
+                retiredCount++;
+            }
+            addDocument(user.getId(), user.getUsername(), user.getFullName(), user.getPhoneNumber(), key,
+                    user.getRole(), user.getDistrict(), user.getIsActive());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param role     optional filter
+     * @param district optional filter, exact match
+     * @return up to limit hits, best first
+     */
+    public List<UserSearchHitDto> search(String query, UserRole role, String district, int limit) {
+        String normalized = normalizeQuery(query);
+        if (normalized.length() < MIN_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search query must have at least " + MIN_QUERY_LENGTH + " characters");
+        }
+        long[] grams = queryTrigrams(normalized);
+        char[] queryChars = normalized.toCharArray();
+
+        lock.readLock().lock();
+        try {
+            int districtFilter = -1;
+            if (district != null) {
+                Integer id = districtIds.get(district);
+                if (id == null) {
+                    return List.of();
+                }
+                districtFilter = id;
+            }
+
+            IntList[] lists = new IntList[grams.length];
+            for (int i = 0; i < grams.length; i++) {
+                lists[i] = postings.get(grams[i]);
+                if (lists[i] == null) {
+                    return List.of();
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+            TopHits best = new TopHits(limit);
+            int[] cursors = new int[lists.length];
+            IntList smallest = lists[0];
+            for (int i = 0; i < smallest.size; i++) {
+                int doc = smallest.values[i];
+                if (retiredDocs.get(doc)
+                        || (role != null && roles[doc] != role.ordinal())
+                        || (districtFilter >= 0 && districts[doc] != districtFilter)
+                        || !inAll(lists, cursors, doc)) {
+                    continue;
+                }
+                int score = score(doc, queryChars);
+                if (score > 0) {
+                    best.offer(doc, rank(score, nameLengths[doc], doc));
+                }
+            }
+
+            int[] docs = best.sortedDocs();
+            List<UserSearchHitDto> hits = new ArrayList<>(docs.length);
+            for (int doc : docs) {
+                hits.add(toHit(doc, score(doc, queryChars)));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docByUser.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void compact() {
+        lock.writeLock().lock();
+        try {
+            int live = 0;
+            int liveText = 0;
+            Map<Long, IntList> rebuilt = new HashMap<>(postings.size());
+            // Live documents only move down, so both arrays and text can be packed in place
+            for (int doc = 0; doc < docCount; doc++) {
+                if (retiredDocs.get(doc)) {
+                    continue;
+                }
+                int target = live++;
+                moveDocument(doc, target);
+                int length = keyEnds[target] - keyStarts[target];
+                System.arraycopy(text, keyStarts[target], text, liveText, length);
+                keyStarts[target] = liveText;
+                keyEnds[target] = liveText + length;
+                liveText += length;
+                addPostings(rebuilt, text, keyStarts[target], keyEnds[target], target);
+            }
+            for (int doc = live; doc < docCount; doc++) {
+                usernames[doc] = fullNames[doc] = phoneNumbers[doc] = null;
+            }
+            textSize = liveText;
+            activeDocs.clear(live, docCount);
+            retiredDocs.clear();
+            logger.info("Compacted user search index from {} to {} documents", docCount, live);
+            docCount = live;
+            retiredCount = 0;
+            postings = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addDocument(long userId, String username, String fullName, String phoneNumber, String key,
+                             UserRole role, String district, Boolean active) {
+        ensureCapacity(docCount + 1);
+        int doc = docCount++;
+        userIds[doc] = userId;
+        usernames[doc] = username;
+        fullNames[doc] = fullName != null ? fullName : "";
+        phoneNumbers[doc] = phoneNumber;
+        nameLengths[doc] = fullNames[doc].length();
+        appendKey(doc, key);
+        setAttributes(doc, role, district, active);
+        docByUser.put(userId, doc);
+        addPostings(postings, text, keyStarts[doc], keyEnds[doc], doc);
+    }
+
+    private void moveDocument(int from, int to) {
+        if (from == to) {
+            return;
+        }
+        userIds[to] = userIds[from];
+        usernames[to] = usernames[from];
+        fullNames[to] = fullNames[from];
+        phoneNumbers[to] = phoneNumbers[from];
+        keyStarts[to] = keyStarts[from];
+        keyEnds[to] = keyEnds[from];
+        nameLengths[to] = nameLengths[from];
+        roles[to] = roles[from];
+        districts[to] = districts[from];
+        activeDocs.set(to, activeDocs.get(from));
+        docByUser.put(userIds[to], to);
+    }
+
+    private void setAttributes(int doc, UserRole role, String district, Boolean active) {
+        roles[doc] = (byte) (role != null ? role.ordinal() : -1);
+        districts[doc] = district != null ? districtId(district) : -1;
+        activeDocs.set(doc, Boolean.TRUE.equals(active));
+    }
+
+    private int districtId(String district) {
+        Integer id = districtIds.get(district);
+        if (id == null) {
+            id = districtNames.size();
+            districtNames.add(district);
+            districtIds.put(district, id);
+        }
+        return id;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= userIds.length) {
+            return;
+        }
+        int capacity = Math.max(needed, userIds.length + (userIds.length >> 1));
+        userIds = Arrays.copyOf(userIds, capacity);
+        usernames = Arrays.copyOf(usernames, capacity);
+        fullNames = Arrays.copyOf(fullNames, capacity);
+        phoneNumbers = Arrays.copyOf(phoneNumbers, capacity);
+        keyStarts = Arrays.copyOf(keyStarts, capacity);
+        keyEnds = Arrays.copyOf(keyEnds, capacity);
+        nameLengths = Arrays.copyOf(nameLengths, capacity);
+        roles = Arrays.copyOf(roles, capacity);
+        districts = Arrays.copyOf(districts, capacity);
+    }
+
+    private void appendKey(int doc, String key) {
+        if (textSize + key.length() > text.length) {
+            text = Arrays.copyOf(text, Math.max(textSize + key.length(), text.length + (text.length >> 1)));
+        }
+        key.getChars(0, key.length(), text, textSize);
+        keyStarts[doc] = textSize;
+        textSize += key.length();
+        keyEnds[doc] = textSize;
+    }
+
+    private boolean keyEquals(int doc, String key) {
+        int start = keyStarts[doc];
+        if (keyEnds[doc] - start != key.length()) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (text[start + i] != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Documents are added in increasing order, so every posting list stays sorted
+    private static void addPostings(Map<Long, IntList> target, char[] text, int start, int end, int doc) {
+        for (int i = start; i + 2 < end; i++) {
+            char a = text[i], b = text[i + 1], c = text[i + 2];
+            if (a == FIELD_SEPARATOR || b == FIELD_SEPARATOR || c == FIELD_SEPARATOR) {
+                continue;
+            }
+            IntList list = target.computeIfAbsent(trigram(a, b, c), gram -> new IntList());
+            if (list.size == 0 || list.values[list.size - 1] != doc) {
+                list.add(doc);
+            }
+        }
+    }
+
+    // Candidates arrive in increasing order, so each list is walked forward with a galloping search
+    private static boolean inAll(IntList[] lists, int[] cursors, int doc) {
+        for (int i = 1; i < lists.length; i++) {
+            IntList list = lists[i];
+            int from = cursors[i];
+            int step = 1;
+            int to = from;
+            while (to < list.size && list.values[to] < doc) {
+                from = to + 1;
+                to += step;
+                step <<= 1;
+            }
+            int at = Arrays.binarySearch(list.values, from, Math.min(to + 1, list.size), doc);
+            if (at >= 0) {
+                cursors[i] = at + 1;
+            } else {
+                cursors[i] = -at - 1;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Best match over the three fields; 0 when the trigrams matched but not as one substring.
+    // The query never contains the field separator, so a match cannot span two fields.
+    private int score(int doc, char[] query) {
+        int end = keyEnds[doc];
+        int fieldStart = keyStarts[doc];
+        int best = 0;
+        for (int at = fieldStart; at + query.length <= end; at++) {
+            char c = text[at];
+            if (c == FIELD_SEPARATOR) {
+                fieldStart = at + 1;
+                continue;
+            }
+            if (c != query[0]) {
+                continue;
+            }
+            int matched = 1;
+            while (matched < query.length && text[at + matched] == query[matched]) {
+                matched++;
+            }
+            if (matched < query.length) {
+                continue;
+            }
+
+            int after = at + query.length;
+            int score;
+            if (at == fieldStart) {
+                score = after == end || text[after] == FIELD_SEPARATOR ? 100 : 75;
+            } else {
+                score = text[at - 1] == ' ' ? 50 : 25;
+            }
+            if (score > best) {
+                best = score;
+                if (best == 100) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    // Higher is better: score, then shorter name, then earlier document
+    private static long rank(int score, int nameLength, int doc) {
+        return ((long) score << 56) | ((long) (0xFFFFFF - Math.min(nameLength, 0xFFFFFF)) << 32)
+                | (0xFFFFFFFFL - doc);
+    }
+
+    private UserSearchHitDto toHit(int doc, int score) {
+        UserRole role = roles[doc] >= 0 ? ROLES[roles[doc]] : null;
+        String district = districts[doc] >= 0 ? districtNames.get(districts[doc]) : null;
+        return new UserSearchHitDto(userIds[doc], usernames[doc], fullNames[doc], phoneNumbers[doc],
+                role, district, activeDocs.get(doc), score);
+    }
+
+    // Lower-cased name and username plus phone digits, one field per line
+    private static String searchKey(String fullName, String username, String phoneNumber) {
+        return lower(fullName) + FIELD_SEPARATOR + lower(username) + FIELD_SEPARATOR + digits(phoneNumber);
+    }
+
+    private static String normalizeQuery(String query) {
+        if (query == null) {
+            return "";
+        }
+        String trimmed = query.trim();
+        // "+91 98765-43210" style input is matched against phone digits only
+        if (!trimmed.isEmpty() && trimmed.matches("[0-9+\\-() ]+")) {
+            return digits(trimmed);
+        }
+        return lower(trimmed).replace(FIELD_SEPARATOR, ' ');
+    }
+
+    private static long[] queryTrigrams(String query) {
+        Set<Long> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 2 < query.length(); i++) {
+            grams.add(trigram(query.charAt(i), query.charAt(i + 1), query.charAt(i + 2)));
+        }
+        return grams.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long trigram(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    private static String lower(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static String digits(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+
+    // Growable sorted posting list of document numbers
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size + (size >> 1) + 1);
+            }
+            values[size++] = value;
+        }
+    }
+
+    // Best limit documents by rank; no allocation per candidate
+    private static final class TopHits {
+        private final int[] docs;
+        private final long[] ranks;
+        private int size;
+        private int worst;
+
+        TopHits(int limit) {
+            this.docs = new int[limit];
+            this.ranks = new long[limit];
+        }
+
+        void offer(int doc, long rank) {
+            if (size < docs.length) {
+                docs[size] = doc;
+                ranks[size] = rank;
+                if (size == 0 || rank < ranks[worst]) {
+                    worst = size;
+                }
+                size++;
+                return;
+            }
+            if (rank <= ranks[worst]) {
+                return;
+            }
+            docs[worst] = doc;
+            ranks[worst] = rank;
+            for (int i = 0; i < size; i++) {
+                if (ranks[i] < ranks[worst]) {
+                    worst = i;
+                }
+            }
+        }
+
+        int[] sortedDocs() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (left, right) -> Long.compare(ranks[right], ranks[left]));
+            int[] sorted = new int[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = docs[order[i]];
+            }
+            return sorted;
+        }
+    }
+}
@@ -1,19 +1,30 @@
 package com.arogyam.health.service;
 
+import com.arogyam.health.dto.CursorPageDto;
 import com.arogyam.health.dto.UserRegistrationDto;
 import com.arogyam.health.dto.UserResponseDto;
 import com.arogyam.health.entity.UserEntity;
 import com.arogyam.health.entity.UserRole;
 import com.arogyam.health.repository.UserRepository;
+import com.arogyam.health.security.TokenEpochRegistry;
+import com.arogyam.health.security.UserPrincipalCache;
+import com.arogyam.health.util.CursorCodec;
+import com.arogyam.health.util.PhoneNumbers;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.OptionalLong;
 
 @Service
 @Transactional
@@ -25,6 +36,27 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserPrincipalCache principalCache;
+
+    @Autowired
+    private TokenEpochRegistry tokenEpochRegistry;
+
+    @Autowired
+    private LastLoginUpdateBuffer lastLoginUpdateBuffer;
+
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    @Autowired
+    private PhoneNumberIndex phoneNumberIndex;
+
+    @Autowired
+    private RecipientResolver recipientResolver;
+
+    @Value("${app.users.page.max-size:200}")
+    private int maxPageSize;
+
     public UserResponseDto createUser(UserRegistrationDto registrationDto) {
         // Validate input
         if (registrationDto == null) {
@@ -36,8 +68,9 @@ public class UserService {
             throw new RuntimeException("Username already exists: " + registrationDto.getUsername());
         }
 
-        // Check if phone number already exists
-        if (userRepository.existsByPhoneNumber(registrationDto.getPhoneNumber())) {
+        // Check if phone number already exists, also in another spelling of the same number
+        if (userRepository.existsByPhoneNumber(registrationDto.getPhoneNumber())
+                || findByPhoneNumber(registrationDto.getPhoneNumber()).isPresent()) {
             throw new RuntimeException("Phone number already exists: " + registrationDto.getPhoneNumber());
         }
 
@@ -67,6 +100,11 @@ public class UserService {
         // }
 
         UserEntity savedUser = userRepository.save(user);
+        reindex(savedUser);
+        recipientResolver.userChanged(savedUser.getRole(), savedUser.getDistrict(), savedUser.getVillage());
+        Long savedId = savedUser.getId();
+        String savedPhone = savedUser.getPhoneNumber();
+        runAfterCommit(() -> phoneNumberIndex.put(savedPhone, savedId));
         return convertToResponseDto(savedUser);
     }
 
@@ -83,64 +121,89 @@ public class UserService {
         if (phoneNumber == null || phoneNumber.trim().isEmpty()) {
             return Optional.empty();
         }
-        return userRepository.findByPhoneNumber(phoneNumber);
+        long userId = phoneNumberIndex.findUserId(phoneNumber);
+        if (userId != PhoneNumberIndex.NOT_FOUND) {
+            // The entity is read anyway, so a number that moved on another node is caught here
+            Optional<UserEntity> indexed = userRepository.findById(userId);
+            if (indexed.isPresent() && samePhoneNumber(indexed.get().getPhoneNumber(), phoneNumber)) {
+                return indexed;
+            }
+            phoneNumberIndex.remove(phoneNumber, userId);
+        }
+        Optional<UserEntity> user = userRepository.findByPhoneNumber(phoneNumber);
+        user.ifPresent(found -> phoneNumberIndex.put(found.getPhoneNumber(), found.getId()));
+        return user;
+    }
+
+    // Caller identification for SMS/IVR: any number format, answered from the index when it has the number
+    @Transactional(readOnly = true)
+    public OptionalLong findUserIdByPhoneNumber(String phoneNumber) {
+        if (phoneNumber == null || phoneNumber.trim().isEmpty()) {
+            return OptionalLong.empty();
+        }
+        long userId = phoneNumberIndex.findUserId(phoneNumber);
+        if (userId != PhoneNumberIndex.NOT_FOUND) {
+            return OptionalLong.of(userId);
+        }
+        // Users inserted by a bulk import or another node are picked up on their first miss
+        Optional<Long> stored = userRepository.findIdByPhoneNumber(phoneNumber);
+        if (stored.isEmpty()) {
+            return OptionalLong.empty();
+        }
+        phoneNumberIndex.put(phoneNumber, stored.get());
+        return OptionalLong.of(stored.get());
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<UserResponseDto> getUserResponseByUsername(String username) {
+        if (username == null || username.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        return userRepository.findResponseByUsername(username);
     }
 
     @Transactional(readOnly = true)
-    public List<UserResponseDto> getAllUsers() {
-        return userRepository.findAll()
-                .stream()
-                .map(this::convertToResponseDto)
-                .collect(Collectors.toList());
+    public CursorPageDto<UserResponseDto> getAllUsers(String cursor, int size) {
+        int limit = clampPageSize(size);
+        return toPage(userRepository.findPageAfter(CursorCodec.decode(cursor), PageRequest.of(0, limit + 1)), limit);
     }
 
     @Transactional(readOnly = true)
-    public List<UserResponseDto> getUsersByRole(UserRole role) {
+    public CursorPageDto<UserResponseDto> getUsersByRole(UserRole role, String cursor, int size) {
         if (role == null) {
             throw new IllegalArgumentException("Role cannot be null");
         }
 
-        // Since you don't have findActiveUsersByRole, we'll filter manually
-        return userRepository.findAll()
-                .stream()
-                .filter(user -> role.equals(user.getRole()) && user.getIsActive())
-                .map(this::convertToResponseDto)
-                .collect(Collectors.toList());
+        int limit = clampPageSize(size);
+        return toPage(userRepository.findActiveByRolePageAfter(role, CursorCodec.decode(cursor),
+                PageRequest.of(0, limit + 1)), limit);
     }
 
     @Transactional(readOnly = true)
-    public List<UserResponseDto> getUsersByDistrict(String district) {
+    public CursorPageDto<UserResponseDto> getUsersByDistrict(String district, String cursor, int size) {
         if (district == null || district.trim().isEmpty()) {
             throw new IllegalArgumentException("District cannot be null or empty");
         }
 
-        return userRepository.findAll()
-                .stream()
-                .filter(user -> district.equals(user.getDistrict()) && user.getIsActive())
-                .map(this::convertToResponseDto)
-                .collect(Collectors.toList());
+        int limit = clampPageSize(size);
+        return toPage(userRepository.findActiveByDistrictPageAfter(district, CursorCodec.decode(cursor),
+                PageRequest.of(0, limit + 1)), limit);
     }
 
     @Transactional(readOnly = true)
-    public List<UserResponseDto> getActiveUsers() {
-        return userRepository.findAll()
-                .stream()
-                .filter(user -> user.getIsActive())
-                .map(this::convertToResponseDto)
-                .collect(Collectors.toList());
+    public CursorPageDto<UserResponseDto> getActiveUsers(String cursor, int size) {
+        int limit = clampPageSize(size);
+        return toPage(userRepository.findActivePageAfter(CursorCodec.decode(cursor), PageRequest.of(0, limit + 1)), limit);
     }
 
-    public void updateLastLogin(String username) {
-        if (username == null || username.trim().isEmpty()) {
-            throw new IllegalArgumentException("Username cannot be null or empty");
+    // Buffered and written in batches by LastLoginUpdateBuffer, so no transaction is needed here
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void updateLastLogin(Long userId) {
+        if (userId == null) {
+            throw new IllegalArgumentException("User ID cannot be null");
         }
 
-        Optional<UserEntity> userOpt = userRepository.findByUsername(username);
-        if (userOpt.isPresent()) {
-            UserEntity user = userOpt.get();
-            user.setLastLogin(LocalDateTime.now());
-            userRepository.save(user);
-        }
+        lastLoginUpdateBuffer.record(userId, LocalDateTime.now());
     }
 
     public UserResponseDto updateUser(Long userId, UserRegistrationDto updateDto) {
@@ -155,12 +218,20 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
 
         // Check if phone number is being changed and if new number already exists
+        String oldPhoneNumber = user.getPhoneNumber();
         if (updateDto.getPhoneNumber() != null &&
-                !updateDto.getPhoneNumber().equals(user.getPhoneNumber()) &&
-                userRepository.existsByPhoneNumber(updateDto.getPhoneNumber())) {
-            throw new RuntimeException("Phone number already exists: " + updateDto.getPhoneNumber());
+                !updateDto.getPhoneNumber().equals(oldPhoneNumber)) {
+            // Checked against the stored number, so a stale index entry cannot block the change
+            Optional<UserEntity> owner = findByPhoneNumber(updateDto.getPhoneNumber());
+            if (userRepository.existsByPhoneNumber(updateDto.getPhoneNumber())
+                    || (owner.isPresent() && !owner.get().getId().equals(userId))) {
+                throw new RuntimeException("Phone number already exists: " + updateDto.getPhoneNumber());
+            }
         }
 
+        String oldDistrict = user.getDistrict();
+        String oldVillage = user.getVillage();
+
         // Update fields (excluding password and username for security)
         if (updateDto.getFullName() != null) {
             user.setFullName(updateDto.getFullName());
@@ -182,6 +253,17 @@ public class UserService {
         }
 
         UserEntity savedUser = userRepository.save(user);
+        evictPrincipal(savedUser);
+        reindex(savedUser);
+        recipientResolver.userChanged(savedUser.getRole(), oldDistrict, oldVillage,
+                savedUser.getRole(), savedUser.getDistrict(), savedUser.getVillage());
+        String newPhoneNumber = savedUser.getPhoneNumber();
+        if (!newPhoneNumber.equals(oldPhoneNumber)) {
+            runAfterCommit(() -> {
+                phoneNumberIndex.remove(oldPhoneNumber, userId);
+                phoneNumberIndex.put(newPhoneNumber, userId);
+            });
+        }
         return convertToResponseDto(savedUser);
     }
 
@@ -193,7 +275,11 @@ public class UserService {
         UserEntity user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
         user.setIsActive(false);
+        bumpTokenEpoch(user);
         userRepository.save(user);
+        evictPrincipal(user);
+        reindex(user);
+        recipientResolver.userChanged(user.getRole(), user.getDistrict(), user.getVillage());
     }
 
     public void activateUser(Long userId) {
@@ -205,6 +291,9 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
         user.setIsActive(true);
         userRepository.save(user);
+        evictPrincipal(user);
+        reindex(user);
+        recipientResolver.userChanged(user.getRole(), user.getDistrict(), user.getVillage());
     }
 
     public boolean changePassword(Long userId, String oldPassword, String newPassword) {
@@ -218,10 +307,83 @@ public class UserService {
 
         // Update to new password
         user.setPasswordHash(passwordEncoder.encode(newPassword));
+        bumpTokenEpoch(user);
         userRepository.save(user);
+        evictPrincipal(user);
         return true;
     }
 
+    // Invalidates every token issued so far; call whenever status, role or credentials change
+    private void bumpTokenEpoch(UserEntity user) {
+        int epoch = user.getTokenEpoch() + 1;
+        user.setTokenEpoch(epoch);
+        user.setTokenEpochChangedAt(LocalDateTime.now());
+
+        Long id = user.getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    tokenEpochRegistry.record(id, epoch);
+                }
+            });
+        } else {
+            tokenEpochRegistry.record(id, epoch);
+        }
+    }
+
+    // Evict now and again after commit, so a concurrent request cannot re-cache the old row
+    private void evictPrincipal(UserEntity user) {
+        Long id = user.getId();
+        String username = user.getUsername();
+        principalCache.evict(id, username);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principalCache.evict(id, username);
+                }
+            });
+        }
+    }
+
+    // Search index only sees committed state
+    private void reindex(UserEntity user) {
+        UserResponseDto dto = convertToResponseDto(user);
+        runAfterCommit(() -> userSearchIndex.index(dto));
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static boolean samePhoneNumber(String stored, String requested) {
+        long e164 = PhoneNumbers.toE164(stored);
+        return e164 != PhoneNumbers.INVALID && e164 == PhoneNumbers.toE164(requested);
+    }
+
+    private int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, maxPageSize));
+    }
+
+    // Rows were fetched with limit + 1; the extra row only tells us another page exists
+    private CursorPageDto<UserResponseDto> toPage(List<UserResponseDto> rows, int limit) {
+        boolean hasNext = rows.size() > limit;
+        List<UserResponseDto> items = hasNext ? new ArrayList<>(rows.subList(0, limit)) : rows;
+        String nextCursor = hasNext ? CursorCodec.encode(items.get(limit - 1).getId()) : null;
+        return new CursorPageDto<>(items, nextCursor);
+    }
+
     private UserResponseDto convertToResponseDto(UserEntity user) {
         if (user == null) {
             return null;
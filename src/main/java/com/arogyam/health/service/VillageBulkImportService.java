@@ -0,0 +1,295 @@
+package com.arogyam.health.service;
+
+import com.arogyam.health.dto.BulkImportReportDto;
+import com.arogyam.health.dto.VillageDto;
+import com.arogyam.health.repository.VillageRepository;
+import com.arogyam.health.util.CsvReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Streams a census village list (CSV) into the villages table.
+ *
+ * The (name, district) of every existing village is loaded once up front, so
+ * each row is classified in memory. A new village becomes an insert, a known
+ * one an update. A repeat within the same file is rejected. Inserts and updates
+ * are written in separate JDBC batches of app.villages.import.batch-size rows,
+ * one transaction per batch. Caches and in-memory village indexes are refreshed
+ * once, after the whole file.
+ */
+@Service
+public class VillageBulkImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VillageBulkImportService.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO villages (id, name, district, state, latitude, longitude, population, " +
+            "primary_language, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Optional columns left empty in the file keep their current value
+    private static final String UPDATE_SQL =
+            "UPDATE villages SET state = ?, latitude = COALESCE(?, latitude), " +
+            "longitude = COALESCE(?, longitude), population = COALESCE(?, population), " +
+            "primary_language = COALESCE(?, primary_language) WHERE name = ? AND district = ?";
+
+    // Explicit SQL types, so null coordinates need no parameter metadata lookup
+    private static final int[] INSERT_TYPES = {Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.NUMERIC,
+            Types.NUMERIC, Types.INTEGER, Types.VARCHAR, Types.TIMESTAMP};
+    private static final int[] UPDATE_TYPES = {Types.VARCHAR, Types.NUMERIC, Types.NUMERIC, Types.INTEGER,
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR};
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("name", "district", "state");
+
+    @Autowired
+    private VillageRepository villageRepository;
+
+    @Autowired
+    private VillageService villageService;
+
+    @Autowired
+    private SequenceIdAllocator idAllocator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${app.villages.import.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${app.villages.import.max-errors:1000}")
+    private int maxErrors;
+
+    public BulkImportReportDto importVillages(Reader input) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        BulkImportReportDto report = new BulkImportReportDto();
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+
+        Set<String> existing = loadExistingKeys();
+        // Keys already seen in this file, inserts and updates alike
+        Set<String> seen = new HashSet<>();
+
+        try (CsvReader csv = new CsvReader(input)) {
+            Map<String, Integer> columns = csv.readHeader();
+            List<String> missing = REQUIRED_COLUMNS.stream()
+                    .filter(column -> !columns.containsKey(column))
+                    .collect(Collectors.toList());
+            if (!missing.isEmpty()) {
+                throw new IllegalArgumentException("Missing required CSV columns: " + String.join(", ", missing));
+            }
+
+            List<Object[]> inserts = new ArrayList<>(batchSize);
+            List<Object[]> updates = new ArrayList<>(batchSize);
+            while (true) {
+                long line = csv.getLineNumber();
+                List<String> record = csv.readRecord();
+                if (record == null) {
+                    break;
+                }
+                report.setTotalRows(report.getTotalRows() + 1);
+
+                VillageDto dto;
+                try {
+                    dto = toDto(record, columns);
+                } catch (IllegalArgumentException e) {
+                    report.reject(line, e.getMessage(), maxErrors);
+                    continue;
+                }
+
+                String error = validate(dto);
+                String key = key(dto.getName(), dto.getDistrict());
+                if (error == null && !seen.add(key)) {
+                    error = "Duplicate village in file: " + dto.getName() + " in " + dto.getDistrict();
+                }
+                if (error != null) {
+                    report.reject(line, error, maxErrors);
+                    continue;
+                }
+
+                if (existing.contains(key)) {
+                    updates.add(toUpdateRow(dto));
+                    if (updates.size() >= batchSize) {
+                        writeBatch(UPDATE_SQL, updates, report, false);
+                    }
+                } else {
+                    inserts.add(toInsertRow(dto, createdAt));
+                    if (inserts.size() >= batchSize) {
+                        writeBatch(INSERT_SQL, inserts, report, true);
+                    }
+                }
+            }
+            writeBatch(INSERT_SQL, inserts, report, true);
+            writeBatch(UPDATE_SQL, updates, report, false);
+        } finally {
+            // Earlier batches are committed even if the file turned out to be malformed
+            long changed = report.getImportedRows() + report.getUpdatedRows();
+            if (changed > 0) {
+                villageService.villagesChanged((int) Math.min(changed, Integer.MAX_VALUE));
+            }
+        }
+
+        report.finish(startedAt);
+        logger.info("Village import finished: {}", report);
+        return report;
+    }
+
+    private Set<String> loadExistingKeys() {
+        Set<String> keys = new HashSet<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = villageRepository.streamNamesAndDistricts()) {
+                rows.forEach(row -> keys.add(key((String) row[0], (String) row[1])));
+            }
+        });
+        return keys;
+    }
+
+    private void writeBatch(String sql, List<Object[]> rows, BulkImportReportDto report, boolean insert) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        int[] types = insert ? INSERT_TYPES : UPDATE_TYPES;
+        if (insert) {
+            long[] ids = idAllocator.allocate(SequenceIdAllocator.VILLAGES, rows.size());
+            for (int i = 0; i < ids.length; i++) {
+                rows.get(i)[0] = ids[i];
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, rows, types));
+            count(report, insert, rows.size());
+        } catch (DataAccessException e) {
+            // Isolate the offending rows rather than lose the whole batch
+            logger.warn("Village batch failed, retrying {} rows individually: {}", rows.size(), e.getMessage());
+            for (Object[] row : rows) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(sql, row, types));
+                    count(report, insert, 1);
+                } catch (DataAccessException rowError) {
+                    // Line numbers are not kept per batched row; 0 marks a write failure
+                    report.reject(0, "Could not write village " + rowName(row, insert) + ": "
+                            + rowError.getMostSpecificCause().getMessage(), maxErrors);
+                }
+            }
+        }
+        rows.clear();
+    }
+
+    private void count(BulkImportReportDto report, boolean insert, int rows) {
+        if (insert) {
+            report.setImportedRows(report.getImportedRows() + rows);
+        } else {
+            report.setUpdatedRows(report.getUpdatedRows() + rows);
+        }
+    }
+
+    private String rowName(Object[] row, boolean insert) {
+        return insert ? row[1] + " in " + row[2] : row[5] + " in " + row[6];
+    }
+
+    private VillageDto toDto(List<String> record, Map<String, Integer> columns) {
+        VillageDto dto = new VillageDto();
+        dto.setName(column(record, columns, "name"));
+        dto.setDistrict(column(record, columns, "district"));
+        dto.setState(column(record, columns, "state"));
+        dto.setLatitude(decimal(column(record, columns, "latitude"), "latitude"));
+        dto.setLongitude(decimal(column(record, columns, "longitude"), "longitude"));
+        dto.setPrimaryLanguage(column(record, columns, "primarylanguage"));
+
+        String population = column(record, columns, "population");
+        if (population != null) {
+            try {
+                dto.setPopulation(Integer.valueOf(population));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid population: " + population);
+            }
+        }
+        return dto;
+    }
+
+    private BigDecimal decimal(String value, String name) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    private String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private String validate(VillageDto dto) {
+        Set<ConstraintViolation<VillageDto>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static String key(String name, String district) {
+        return district + '\u0000' + name;
+    }
+
+    private Object[] toInsertRow(VillageDto dto, Timestamp createdAt) {
+        return new Object[]{
+                null, // id, allocated per batch
+                dto.getName(),
+                dto.getDistrict(),
+                dto.getState(),
+                dto.getLatitude(),
+                dto.getLongitude(),
+                dto.getPopulation(),
+                dto.getPrimaryLanguage(),
+                createdAt
+        };
+    }
+
+    private Object[] toUpdateRow(VillageDto dto) {
+        return new Object[]{
+                dto.getState(),
+                dto.getLatitude(),
+                dto.getLongitude(),
+                dto.getPopulation(),
+                dto.getPrimaryLanguage(),
+                dto.getName(),
+                dto.getDistrict()
+        };
+    }
+}
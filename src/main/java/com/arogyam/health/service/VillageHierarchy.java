@@ -0,0 +1,358 @@
+package com.arogyam.health.service;
+
+import com.arogyam.health.repository.VillageRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * State -> district -> village tree built from the villages table.
+ *
+ * Each published {@link Tree} is immutable, so readers take {@link #current()}
+ * once and navigate it without locks. A change builds a whole new tree and
+ * swaps the reference. Nodes get dense int ids per level, in name order. A
+ * state's districts, and a district's villages, are contiguous id ranges, and
+ * village counts and population totals are precomputed. State and district
+ * names are interned, so each distinct name is stored once.
+ *
+ * Writes through {@link VillageService} mark the tree stale after commit; a
+ * scheduled check rebuilds it, coalescing bursts of writes into one rebuild.
+ * Changes made on other nodes are picked up by the periodic full refresh.
+ */
+@Component
+public class VillageHierarchy {
+
+    private static final Logger logger = LoggerFactory.getLogger(VillageHierarchy.class);
+
+    public static final int NOT_FOUND = -1;
+
+    @Autowired
+    private VillageRepository villageRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.villages.hierarchy.refresh-ms:600000}")
+    private long refreshMs;
+
+    private volatile Tree tree = new Builder().build();
+
+    private volatile boolean stale;
+
+    private volatile long builtAtMillis;
+
+    @PostConstruct
+    void load() {
+        rebuild();
+    }
+
+    public Tree current() {
+        return tree;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVillagesChanged(VillagesChangedEvent event) {
+        stale = true;
+    }
+
+    @Scheduled(fixedDelayString = "${app.villages.hierarchy.rebuild-check-ms:1000}")
+    public void rebuildIfStale() {
+        if (stale || System.currentTimeMillis() - builtAtMillis >= refreshMs) {
+            rebuild();
+        }
+    }
+
+    public synchronized void rebuild() {
+        // Cleared first, so a write committing mid-build triggers another pass
+        stale = false;
+        long startedAt = System.currentTimeMillis();
+        try {
+            Tree built = transactionTemplate.execute(status -> {
+                Builder builder = new Builder();
+                try (Stream<Object[]> rows = villageRepository.streamHierarchyRows()) {
+                    rows.forEach(builder::add);
+                }
+                return builder.build();
+            });
+            tree = built;
+            builtAtMillis = startedAt;
+            logger.info("Built village hierarchy: {} states, {} districts, {} villages in {} ms",
+                    built.stateCount(), built.districtCount(), built.villageCount(),
+                    System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            stale = true;
+            logger.warn("Could not rebuild the village hierarchy: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * One immutable version of the hierarchy. Ids are only meaningful within
+     * the tree that issued them; a rebuild may renumber nodes, so they are not
+     * handed to clients.
+     */
+    public static final class Tree {
+        private final String[] stateNames;
+        private final int[] stateDistrictStart;     // length states + 1
+        private final long[] statePopulation;
+        private final Map<String, Integer> stateIds;
+
+        private final String[] districtNames;
+        private final int[] districtState;
+        private final int[] districtVillageStart;   // length districts + 1
+        private final long[] districtPopulation;
+        private final Map<String, Map<String, Integer>> districtIdsByState;
+        private final Map<String, Integer> uniqueDistrictIds;
+
+        private final long[] villageIds;
+        private final String[] villageNames;
+        private final int[] villagePopulation;
+        private final int[] villageDistrict;
+
+        // Village database ids sorted, with the node id at the same position
+        private final long[] sortedVillageIds;
+        private final int[] nodeBySortedVillageId;
+
+        private final LocalDateTime builtAt = LocalDateTime.now();
+
+        private Tree(Builder b) {
+            this.stateNames = Arrays.copyOf(b.stateNames, b.states);
+            this.stateDistrictStart = Arrays.copyOf(b.stateDistrictStart, b.states + 1);
+            this.stateDistrictStart[b.states] = b.districts;
+            this.statePopulation = new long[b.states];
+            this.stateIds = new HashMap<>(b.states * 2);
+
+            this.districtNames = Arrays.copyOf(b.districtNames, b.districts);
+            this.districtState = Arrays.copyOf(b.districtState, b.districts);
+            this.districtVillageStart = Arrays.copyOf(b.districtVillageStart, b.districts + 1);
+            this.districtVillageStart[b.districts] = b.villages;
+            this.districtPopulation = new long[b.districts];
+            this.districtIdsByState = new HashMap<>(b.states * 2);
+            this.uniqueDistrictIds = new HashMap<>(b.districts * 2);
+
+            this.villageIds = Arrays.copyOf(b.villageIds, b.villages);
+            this.villageNames = Arrays.copyOf(b.villageNames, b.villages);
+            this.villagePopulation = Arrays.copyOf(b.villagePopulation, b.villages);
+            this.villageDistrict = Arrays.copyOf(b.villageDistrict, b.villages);
+
+            for (int village = 0; village < villageIds.length; village++) {
+                districtPopulation[villageDistrict[village]] += villagePopulation[village];
+            }
+            for (int state = 0; state < stateNames.length; state++) {
+                stateIds.put(stateNames[state], state);
+                Map<String, Integer> byName = new HashMap<>();
+                for (int district = stateDistrictStart[state]; district < stateDistrictStart[state + 1]; district++) {
+                    statePopulation[state] += districtPopulation[district];
+                    byName.put(districtNames[district], district);
+                    // A district name used in two states cannot be resolved without the state
+                    uniqueDistrictIds.merge(districtNames[district], district, (a, c) -> NOT_FOUND);
+                }
+                districtIdsByState.put(stateNames[state], byName);
+            }
+
+            Integer[] order = new Integer[villageIds.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (x, y) -> Long.compare(villageIds[x], villageIds[y]));
+            this.sortedVillageIds = new long[order.length];
+            this.nodeBySortedVillageId = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedVillageIds[i] = villageIds[order[i]];
+                nodeBySortedVillageId[i] = order[i];
+            }
+        }
+
+        public int stateCount() {
+            return stateNames.length;
+        }
+
+        public int districtCount() {
+            return districtNames.length;
+        }
+
+        public int villageCount() {
+            return villageIds.length;
+        }
+
+        public LocalDateTime getBuiltAt() {
+            return builtAt;
+        }
+
+        // States
+
+        public int stateId(String state) {
+            Integer id = state != null ? stateIds.get(state) : null;
+            return id != null ? id : NOT_FOUND;
+        }
+
+        public boolean isState(int stateId) {
+            return stateId >= 0 && stateId < stateNames.length;
+        }
+
+        public String stateName(int stateId) {
+            return stateNames[stateId];
+        }
+
+        /** First district id of the state; its districts run up to {@link #districtsEnd(int)}. */
+        public int districtsStart(int stateId) {
+            return stateDistrictStart[stateId];
+        }
+
+        public int districtsEnd(int stateId) {
+            return stateDistrictStart[stateId + 1];
+        }
+
+        public int stateVillageCount(int stateId) {
+            return districtVillageStart[districtsEnd(stateId)] - districtVillageStart[districtsStart(stateId)];
+        }
+
+        public long statePopulation(int stateId) {
+            return statePopulation[stateId];
+        }
+
+        // Districts
+
+        public int districtId(String state, String district) {
+            Map<String, Integer> byName = state != null ? districtIdsByState.get(state) : null;
+            Integer id = byName != null && district != null ? byName.get(district) : null;
+            return id != null ? id : NOT_FOUND;
+        }
+
+        /**
+         * Resolves a bare district name, as stored on users and alerts. Returns
+         * {@link #NOT_FOUND} if no state, or more than one, has a district by that name.
+         */
+        public int districtId(String district) {
+            Integer id = district != null ? uniqueDistrictIds.get(district) : null;
+            return id != null ? id : NOT_FOUND;
+        }
+
+        public boolean isDistrict(int districtId) {
+            return districtId >= 0 && districtId < districtNames.length;
+        }
+
+        public String districtName(int districtId) {
+            return districtNames[districtId];
+        }
+
+        public int stateOfDistrict(int districtId) {
+            return districtState[districtId];
+        }
+
+        /** First village id of the district; its villages run up to {@link #villagesEnd(int)}. */
+        public int villagesStart(int districtId) {
+            return districtVillageStart[districtId];
+        }
+
+        public int villagesEnd(int districtId) {
+            return districtVillageStart[districtId + 1];
+        }
+
+        public long districtPopulation(int districtId) {
+            return districtPopulation[districtId];
+        }
+
+        // Villages
+
+        /** Node id of the village with this database id, or {@link #NOT_FOUND}. */
+        public int villageNode(long villageId) {
+            int i = Arrays.binarySearch(sortedVillageIds, villageId);
+            return i >= 0 ? nodeBySortedVillageId[i] : NOT_FOUND;
+        }
+
+        public long villageId(int villageNode) {
+            return villageIds[villageNode];
+        }
+
+        public String villageName(int villageNode) {
+            return villageNames[villageNode];
+        }
+
+        public int villagePopulation(int villageNode) {
+            return villagePopulation[villageNode];
+        }
+
+        public int districtOfVillage(int villageNode) {
+            return villageDistrict[villageNode];
+        }
+    }
+
+    // Accumulates rows that arrive sorted by state, district and name
+    private static final class Builder {
+        private final Map<String, String> interned = new HashMap<>();
+
+        private String[] stateNames = new String[16];
+        private int[] stateDistrictStart = new int[17];
+        private int states;
+
+        private String[] districtNames = new String[64];
+        private int[] districtState = new int[64];
+        private int[] districtVillageStart = new int[65];
+        private int districts;
+
+        private long[] villageIds = new long[1024];
+        private String[] villageNames = new String[1024];
+        private int[] villagePopulation = new int[1024];
+        private int[] villageDistrict = new int[1024];
+        private int villages;
+
+        void add(Object[] row) {
+            String state = intern((String) row[3]);
+            String district = intern((String) row[2]);
+
+            if (states == 0 || !stateNames[states - 1].equals(state)) {
+                if (states + 1 >= stateDistrictStart.length) {
+                    stateNames = Arrays.copyOf(stateNames, states * 2);
+                    stateDistrictStart = Arrays.copyOf(stateDistrictStart, states * 2 + 1);
+                }
+                stateNames[states] = state;
+                stateDistrictStart[states] = districts;
+                states++;
+            }
+            if (districts == 0 || districtState[districts - 1] != states - 1
+                    || !districtNames[districts - 1].equals(district)) {
+                if (districts + 1 >= districtVillageStart.length) {
+                    districtNames = Arrays.copyOf(districtNames, districts * 2);
+                    districtState = Arrays.copyOf(districtState, districts * 2);
+                    districtVillageStart = Arrays.copyOf(districtVillageStart, districts * 2 + 1);
+                }
+                districtNames[districts] = district;
+                districtState[districts] = states - 1;
+                districtVillageStart[districts] = villages;
+                districts++;
+            }
+
+            if (villages == villageIds.length) {
+                villageIds = Arrays.copyOf(villageIds, villages * 2);
+                villageNames = Arrays.copyOf(villageNames, villages * 2);
+                villagePopulation = Arrays.copyOf(villagePopulation, villages * 2);
+                villageDistrict = Arrays.copyOf(villageDistrict, villages * 2);
+            }
+            villageIds[villages] = (Long) row[0];
+            villageNames[villages] = (String) row[1];
+            villagePopulation[villages] = row[4] != null ? (Integer) row[4] : 0;
+            villageDistrict[villages] = districts - 1;
+            villages++;
+        }
+
+        private String intern(String name) {
+            return interned.computeIfAbsent(name, key -> key);
+        }
+
+        Tree build() {
+            return new Tree(this);
+        }
+    }
+}
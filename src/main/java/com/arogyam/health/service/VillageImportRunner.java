@@ -0,0 +1,71 @@
+package com.arogyam.health.service;
+
+import com.arogyam.health.dto.BulkImportReportDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Command-line village import for census loads too large to upload:
+ *
+ *   java -jar arogyam-backend.jar --spring.main.web-application-type=none --import-villages=/data/villages.csv.gz
+ *
+ * Files ending in .gz are decompressed on the fly. The application exits once
+ * the import finishes, with status 1 if the file could not be read or any row
+ * was rejected.
+ */
+@Component
+@ConditionalOnProperty(name = "import-villages")
+public class VillageImportRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(VillageImportRunner.class);
+
+    @Autowired
+    private VillageBulkImportService villageBulkImportService;
+
+    @Autowired
+    private ConfigurableApplicationContext applicationContext;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Path file = Path.of(applicationContext.getEnvironment().getRequiredProperty("import-villages"));
+        int exitCode;
+        try (InputStream in = open(file);
+             Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            BulkImportReportDto report = villageBulkImportService.importVillages(reader);
+            logger.info("Imported {}: {} inserted, {} updated, {} rejected of {} rows in {} ms ({} rows/s)",
+                    file, report.getImportedRows(), report.getUpdatedRows(), report.getRejectedRows(),
+                    report.getTotalRows(), report.getDurationMs(), Math.round(report.getRowsPerSecond()));
+            report.getErrors().forEach(error ->
+                    logger.warn("Rejected line {}: {}", error.getRow(), error.getMessage()));
+            exitCode = report.getRejectedRows() == 0 ? 0 : 1;
+        } catch (Exception e) {
+            logger.error("Village import from {} failed", file, e);
+            exitCode = 1;
+        }
+
+        int status = exitCode;
+        System.exit(SpringApplication.exit(applicationContext, () -> status));
+    }
+
+    private InputStream open(Path file) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16);
+        return file.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(in, 1 << 16) : in;
+    }
+}
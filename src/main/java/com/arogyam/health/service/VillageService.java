@@ -0,0 +1,143 @@
+package com.arogyam.health.service;
+
+import com.arogyam.health.config.CacheConfig;
+import com.arogyam.health.dto.VillageDto;
+import com.arogyam.health.entity.VillageEntity;
+import com.arogyam.health.repository.VillageRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Village gazetteer reads, served read-through from the caches in {@link CacheConfig}.
+ * Cached values are immutable lists of DTOs, never managed entities. The read
+ * methods are deliberately not @Transactional so a cache hit does not open a
+ * transaction; every write evicts all village caches once it commits and
+ * publishes a {@link VillagesChangedEvent}.
+ */
+@Service
+public class VillageService {
+
+    @Autowired
+    private VillageRepository villageRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Cacheable(CacheConfig.VILLAGES_BY_DISTRICT)
+    public List<VillageDto> getVillagesByDistrict(String district) {
+        return villageRepository.findByDistrictOrderByName(district).stream()
+                .map(this::convertToDto)
+                .toList();
+    }
+
+    @Cacheable(CacheConfig.VILLAGES_BY_STATE)
+    public List<VillageDto> getVillagesByState(String state) {
+        return villageRepository.findByState(state).stream()
+                .map(this::convertToDto)
+                .toList();
+    }
+
+    // District dropdown for a state
+    @Cacheable(CacheConfig.DISTRICTS_BY_STATE)
+    public List<String> getDistricts(String state) {
+        return List.copyOf(villageRepository.findDistinctDistrictsByState(state));
+    }
+
+    // Misses are cached too, so an unknown id does not reach the database on every call
+    @Cacheable(CacheConfig.VILLAGE_BY_ID)
+    public Optional<VillageDto> getVillage(Long id) {
+        return villageRepository.findById(id).map(this::convertToDto);
+    }
+
+    @Cacheable(CacheConfig.VILLAGE_BY_NAME_AND_DISTRICT)
+    public Optional<VillageDto> findVillage(String name, String district) {
+        return villageRepository.findByNameAndDistrict(name, district).map(this::convertToDto);
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.VILLAGES_BY_DISTRICT, CacheConfig.VILLAGES_BY_STATE,
+            CacheConfig.DISTRICTS_BY_STATE, CacheConfig.VILLAGE_BY_ID,
+            CacheConfig.VILLAGE_BY_NAME_AND_DISTRICT}, allEntries = true)
+    public VillageDto createVillage(VillageDto villageDto) {
+        if (villageDto == null) {
+            throw new IllegalArgumentException("Village data cannot be null");
+        }
+
+        if (villageRepository.existsByNameAndDistrict(villageDto.getName(), villageDto.getDistrict())) {
+            throw new RuntimeException("Village already exists: " + villageDto.getName()
+                    + " in " + villageDto.getDistrict());
+        }
+
+        VillageEntity village = new VillageEntity();
+        applyDto(village, villageDto);
+        VillageDto saved = convertToDto(villageRepository.save(village));
+        eventPublisher.publishEvent(new VillagesChangedEvent(1));
+        return saved;
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.VILLAGES_BY_DISTRICT, CacheConfig.VILLAGES_BY_STATE,
+            CacheConfig.DISTRICTS_BY_STATE, CacheConfig.VILLAGE_BY_ID,
+            CacheConfig.VILLAGE_BY_NAME_AND_DISTRICT}, allEntries = true)
+    public VillageDto updateVillage(Long villageId, VillageDto villageDto) {
+        if (villageId == null || villageDto == null) {
+            throw new IllegalArgumentException("Village ID and data are required");
+        }
+
+        VillageEntity village = villageRepository.findById(villageId)
+                .orElseThrow(() -> new RuntimeException("Village not found with id: " + villageId));
+
+        boolean renamed = !village.getName().equals(villageDto.getName())
+                || !village.getDistrict().equals(villageDto.getDistrict());
+        if (renamed && villageRepository.existsByNameAndDistrict(villageDto.getName(), villageDto.getDistrict())) {
+            throw new RuntimeException("Village already exists: " + villageDto.getName()
+                    + " in " + villageDto.getDistrict());
+        }
+
+        applyDto(village, villageDto);
+        VillageDto saved = convertToDto(villageRepository.save(village));
+        eventPublisher.publishEvent(new VillagesChangedEvent(1));
+        return saved;
+    }
+
+    /**
+     * Called after villages were written outside this service (bulk import):
+     * drops every cached village list and lookup and rebuilds the in-memory indexes.
+     */
+    @CacheEvict(cacheNames = {CacheConfig.VILLAGES_BY_DISTRICT, CacheConfig.VILLAGES_BY_STATE,
+            CacheConfig.DISTRICTS_BY_STATE, CacheConfig.VILLAGE_BY_ID,
+            CacheConfig.VILLAGE_BY_NAME_AND_DISTRICT}, allEntries = true)
+    public void villagesChanged(int changedRows) {
+        eventPublisher.publishEvent(new VillagesChangedEvent(changedRows));
+    }
+
+    private void applyDto(VillageEntity village, VillageDto villageDto) {
+        village.setName(villageDto.getName());
+        village.setDistrict(villageDto.getDistrict());
+        village.setState(villageDto.getState());
+        village.setLatitude(villageDto.getLatitude());
+        village.setLongitude(villageDto.getLongitude());
+        village.setPopulation(villageDto.getPopulation());
+        village.setPrimaryLanguage(villageDto.getPrimaryLanguage());
+    }
+
+    private VillageDto convertToDto(VillageEntity village) {
+        return new VillageDto(
+                village.getId(),
+                village.getName(),
+                village.getDistrict(),
+                village.getState(),
+                village.getLatitude(),
+                village.getLongitude(),
+                village.getPopulation(),
+                village.getPrimaryLanguage()
+        );
+    }
+}
@@ -0,0 +1,395 @@
+package com.arogyam.health.service;
+
+import com.arogyam.health.dto.VillageDistanceDto;
+import com.arogyam.health.repository.VillageRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Radius and k-nearest queries over village coordinates.
+ *
+ * Villages are bucketed into a uniform lat/lon grid: points are stored cell
+ * by cell in flat double arrays (radians, plus the cosine of the latitude),
+ * with a CSR offset array per cell. A query walks square rings of cells
+ * outward from the query cell, keeping the best k in a bounded max-heap,
+ * and stops as soon as no unvisited cell can hold a closer point.
+ * Candidates are compared on the haversine term alone; the asin is only
+ * taken for the points returned. BigDecimal coordinates are converted once
+ * at build time.
+ *
+ * The grid does not wrap at the antimeridian, which no Indian village is near.
+ * Rebuilt like {@link VillageHierarchy}: marked stale by village writes after
+ * commit, and refreshed in full periodically.
+ */
+@Component
+public class VillageSpatialIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(VillageSpatialIndex.class);
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    // Keeps the offset array bounded when coordinates span a large area
+    private static final long MAX_CELLS = 4_000_000;
+
+    @Autowired
+    private VillageRepository villageRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.villages.spatial.cell-degrees:0.1}")
+    private double cellDegrees;
+
+    @Value("${app.villages.spatial.refresh-ms:600000}")
+    private long refreshMs;
+
+    private volatile Grid grid = Grid.EMPTY;
+
+    private volatile boolean stale;
+
+    private volatile long builtAtMillis;
+
+    @PostConstruct
+    void load() {
+        rebuild();
+        meterRegistry.gauge("villages.spatial.index.size", this, index -> index.size());
+    }
+
+    public int size() {
+        return grid.ids.length;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVillagesChanged(VillagesChangedEvent event) {
+        stale = true;
+    }
+
+    @Scheduled(fixedDelayString = "${app.villages.spatial.rebuild-check-ms:1000}")
+    public void rebuildIfStale() {
+        if (stale || System.currentTimeMillis() - builtAtMillis >= refreshMs) {
+            rebuild();
+        }
+    }
+
+    public synchronized void rebuild() {
+        // Cleared first, so a write committing mid-build triggers another pass
+        stale = false;
+        long startedAt = System.currentTimeMillis();
+        try {
+            Grid built = transactionTemplate.execute(status -> {
+                Points points = new Points();
+                try (Stream<Object[]> rows = villageRepository.streamCoordinates()) {
+                    rows.forEach(points::add);
+                }
+                return Grid.build(points, cellDegrees);
+            });
+            grid = built;
+            builtAtMillis = startedAt;
+            logger.info("Built village spatial index: {} villages in {}x{} cells in {} ms",
+                    built.ids.length, built.rows, built.cols, System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            stale = true;
+            logger.warn("Could not rebuild the village spatial index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Villages within radiusKm of the point, nearest first, at most limit of them.
+     */
+    public List<VillageDistanceDto> findWithin(double latitude, double longitude, double radiusKm, int limit) {
+        return grid.search(latitude, longitude, limit, radiusKm);
+    }
+
+    /**
+     * The k villages nearest to the point, nearest first, none further than maxKm.
+     */
+    public List<VillageDistanceDto> findNearest(double latitude, double longitude, int k, double maxKm) {
+        return grid.search(latitude, longitude, k, maxKm);
+    }
+
+    // Haversine term h; distance = 2R asin(sqrt(h)), so h orders points like distance
+    private static double haversine(double lat1, double cosLat1, double lon1,
+                                    double lat2, double cosLat2, double lon2) {
+        double sinLat = Math.sin((lat2 - lat1) / 2);
+        double sinLon = Math.sin((lon2 - lon1) / 2);
+        return sinLat * sinLat + cosLat1 * cosLat2 * sinLon * sinLon;
+    }
+
+    private static double haversineOfKm(double km) {
+        double s = Math.sin(Math.min(km / EARTH_RADIUS_KM, Math.PI) / 2);
+        return s * s;
+    }
+
+    private static double kmOfHaversine(double h) {
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(Math.min(1, h)));
+    }
+
+    private static final class Grid {
+        static final Grid EMPTY = new Grid(0, 0, 1, 0, 1, new int[1], new double[0], new double[0],
+                new double[0], new long[0], new String[0], new String[0]);
+
+        final double minLat;
+        final double minLon;
+        final double cellDegrees;
+        final int rows;
+        final int cols;
+        final int[] cellStart;      // length rows * cols + 1
+
+        // Points in cell order; latitudes and longitudes in radians
+        final double[] lat;
+        final double[] lon;
+        final double[] cosLat;
+        final long[] ids;
+        final String[] names;
+        final String[] districts;
+
+        private Grid(double minLat, double minLon, double cellDegrees, int rows, int cols, int[] cellStart,
+                     double[] lat, double[] lon, double[] cosLat, long[] ids, String[] names, String[] districts) {
+            this.minLat = minLat;
+            this.minLon = minLon;
+            this.cellDegrees = cellDegrees;
+            this.rows = rows;
+            this.cols = cols;
+            this.cellStart = cellStart;
+            this.lat = lat;
+            this.lon = lon;
+            this.cosLat = cosLat;
+            this.ids = ids;
+            this.names = names;
+            this.districts = districts;
+        }
+
+        static Grid build(Points points, double requestedCellDegrees) {
+            int n = points.size;
+            if (n == 0) {
+                return EMPTY;
+            }
+
+            double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+            double minLon = Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+            for (int i = 0; i < n; i++) {
+                minLat = Math.min(minLat, points.lat[i]);
+                maxLat = Math.max(maxLat, points.lat[i]);
+                minLon = Math.min(minLon, points.lon[i]);
+                maxLon = Math.max(maxLon, points.lon[i]);
+            }
+
+            double cell = requestedCellDegrees;
+            int rows, cols;
+            while (true) {
+                rows = (int) ((maxLat - minLat) / cell) + 1;
+                cols = (int) ((maxLon - minLon) / cell) + 1;
+                if ((long) rows * cols <= MAX_CELLS) {
+                    break;
+                }
+                cell *= 2;
+            }
+
+            // Counting sort of the points by cell
+            int[] cellOf = new int[n];
+            int[] cellStart = new int[rows * cols + 1];
+            for (int i = 0; i < n; i++) {
+                int row = Math.min(rows - 1, (int) ((points.lat[i] - minLat) / cell));
+                int col = Math.min(cols - 1, (int) ((points.lon[i] - minLon) / cell));
+                cellOf[i] = row * cols + col;
+                cellStart[cellOf[i] + 1]++;
+            }
+            for (int c = 0; c < rows * cols; c++) {
+                cellStart[c + 1] += cellStart[c];
+            }
+
+            int[] next = Arrays.copyOf(cellStart, rows * cols);
+            double[] lat = new double[n];
+            double[] lon = new double[n];
+            double[] cosLat = new double[n];
+            long[] ids = new long[n];
+            String[] names = new String[n];
+            String[] districts = new String[n];
+            for (int i = 0; i < n; i++) {
+                int at = next[cellOf[i]]++;
+                lat[at] = Math.toRadians(points.lat[i]);
+                lon[at] = Math.toRadians(points.lon[i]);
+                cosLat[at] = Math.cos(lat[at]);
+                ids[at] = points.ids[i];
+                names[at] = points.names[i];
+                districts[at] = points.districts[i];
+            }
+            return new Grid(minLat, minLon, cell, rows, cols, cellStart, lat, lon, cosLat, ids, names, districts);
+        }
+
+        List<VillageDistanceDto> search(double latitude, double longitude, int k, double maxKm) {
+            if (ids.length == 0 || k <= 0) {
+                return List.of();
+            }
+
+            double qLat = Math.toRadians(latitude);
+            double qLon = Math.toRadians(longitude);
+            double qCos = Math.cos(qLat);
+            double maxH = haversineOfKm(maxKm);
+
+            // Query cell; may lie outside the grid, rings are clipped to it
+            int qRow = (int) Math.floor((latitude - minLat) / cellDegrees);
+            int qCol = (int) Math.floor((longitude - minLon) / cellDegrees);
+            int lastRing = Math.max(Math.max(qRow, rows - 1 - qRow), Math.max(qCol, cols - 1 - qCol));
+
+            TopK best = new TopK(k);
+            for (int ring = 0; ring <= lastRing; ring++) {
+                if (ring > 0) {
+                    // Every point in this ring is at least ring - 1 whole cells away
+                    double ringMinKm = (ring - 1) * cellDegrees * KM_PER_DEGREE
+                            * Math.cos(Math.toRadians(Math.min(90, Math.abs(latitude) + (ring + 1) * cellDegrees)))
+                            * 0.99;
+                    double ringMinH = haversineOfKm(ringMinKm);
+                    if (ringMinH > maxH || (best.isFull() && ringMinH > best.worst())) {
+                        break;
+                    }
+                }
+
+                int rowFrom = Math.max(0, qRow - ring);
+                int rowTo = Math.min(rows - 1, qRow + ring);
+                for (int row = rowFrom; row <= rowTo; row++) {
+                    boolean edgeRow = row == qRow - ring || row == qRow + ring;
+                    int step = edgeRow ? 1 : 2 * ring;
+                    for (int col = qCol - ring; col <= qCol + ring; col += Math.max(1, step)) {
+                        if (col < 0 || col >= cols) {
+                            continue;
+                        }
+                        int c = row * cols + col;
+                        for (int p = cellStart[c]; p < cellStart[c + 1]; p++) {
+                            double h = haversine(qLat, qCos, qLon, lat[p], cosLat[p], lon[p]);
+                            if (h <= maxH) {
+                                best.offer(p, h);
+                            }
+                        }
+                    }
+                }
+            }
+
+            int[] order = best.sorted();
+            List<VillageDistanceDto> results = new ArrayList<>(order.length);
+            for (int p : order) {
+                results.add(new VillageDistanceDto(ids[p], names[p], districts[p],
+                        Math.toDegrees(lat[p]), Math.toDegrees(lon[p]),
+                        kmOfHaversine(haversine(qLat, qCos, qLon, lat[p], cosLat[p], lon[p]))));
+            }
+            return results;
+        }
+    }
+
+    // Bounded max-heap on the haversine term: the root is the worst of the best k
+    private static final class TopK {
+        private final int[] points;
+        private final double[] keys;
+        private int size;
+
+        TopK(int k) {
+            this.points = new int[k];
+            this.keys = new double[k];
+        }
+
+        boolean isFull() {
+            return size == points.length;
+        }
+
+        double worst() {
+            return keys[0];
+        }
+
+        void offer(int point, double key) {
+            if (size < points.length) {
+                int i = size++;
+                while (i > 0 && keys[(i - 1) / 2] < key) {
+                    points[i] = points[(i - 1) / 2];
+                    keys[i] = keys[(i - 1) / 2];
+                    i = (i - 1) / 2;
+                }
+                points[i] = point;
+                keys[i] = key;
+            } else if (key < keys[0]) {
+                siftDown(point, key, size);
+            }
+        }
+
+        private void siftDown(int point, double key, int n) {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= n) {
+                    break;
+                }
+                if (child + 1 < n && keys[child + 1] > keys[child]) {
+                    child++;
+                }
+                if (keys[child] <= key) {
+                    break;
+                }
+                points[i] = points[child];
+                keys[i] = keys[child];
+                i = child;
+            }
+            points[i] = point;
+            keys[i] = key;
+        }
+
+        // Drains the heap, nearest first
+        int[] sorted() {
+            int[] order = new int[size];
+            for (int n = size; n > 0; n--) {
+                order[n - 1] = points[0];
+                if (n > 1) {
+                    siftDown(points[n - 1], keys[n - 1], n - 1);
+                }
+            }
+            size = 0;
+            return order;
+        }
+    }
+
+    // Build-time accumulator; district names are shared across their villages
+    private static final class Points {
+        private final Map<String, String> interned = new HashMap<>();
+
+        double[] lat = new double[1024];
+        double[] lon = new double[1024];
+        long[] ids = new long[1024];
+        String[] names = new String[1024];
+        String[] districts = new String[1024];
+        int size;
+
+        void add(Object[] row) {
+            if (size == ids.length) {
+                lat = Arrays.copyOf(lat, size * 2);
+                lon = Arrays.copyOf(lon, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+                names = Arrays.copyOf(names, size * 2);
+                districts = Arrays.copyOf(districts, size * 2);
+            }
+            ids[size] = (Long) row[0];
+            names[size] = (String) row[1];
+            districts[size] = interned.computeIfAbsent((String) row[2], key -> key);
+            lat[size] = ((BigDecimal) row[3]).doubleValue();
+            lon[size] = ((BigDecimal) row[4]).doubleValue();
+            size++;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.arogyam.health.service;
+
+/**
+ * Published by {@link VillageService} whenever villages are written. The
+ * in-memory village structures listen for it after commit and rebuild.
+ */
+public class VillagesChangedEvent {
+
+    private final int changedRows;
+
+    public VillagesChangedEvent(int changedRows) {
+        this.changedRows = changedRows;
+    }
+
+    public int getChangedRows() {
+        return changedRows;
+    }
+}
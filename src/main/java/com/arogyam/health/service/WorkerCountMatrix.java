@@ -0,0 +1,217 @@
+package com.arogyam.health.service;
+
+import com.arogyam.health.entity.UserRole;
+import com.arogyam.health.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Active worker counts by district and role, kept in memory so dashboard tiles
+ * never hit the database.
+ *
+ * Each district owns one row of LongAdders indexed by role ordinal. The matrix
+ * is seeded with a GROUP BY at startup and then moved by
+ * {@link com.arogyam.health.listener.WorkerCountListener} as users are
+ * created, updated, activated or deactivated. Changes committed on other
+ * nodes, or missed by the listener, are corrected by the periodic reconcile.
+ */
+@Component
+public class WorkerCountMatrix {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkerCountMatrix.class);
+
+    private static final UserRole[] ROLES = UserRole.values();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, LongAdder[]> rows = new ConcurrentHashMap<>();
+
+    // Bumped on every change; a read only rebuilds the published snapshot when it moved
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile Snapshot snapshot = new Snapshot(-1, Collections.emptyMap(), LocalDateTime.now());
+
+    private Counter driftCounter;
+
+    @PostConstruct
+    void seed() {
+        this.driftCounter = Counter.builder("users.counts.drift")
+                .description("Cells corrected by the worker count reconcile")
+                .register(meterRegistry);
+
+        List<Object[]> groups = userRepository.countActiveByRoleAndDistrict();
+        for (Object[] group : groups) {
+            String district = (String) group[1];
+            if (district != null) {
+                row(district)[((UserRole) group[0]).ordinal()].add((Long) group[2]);
+            }
+        }
+        version.incrementAndGet();
+        logger.info("Seeded worker counts for {} districts", rows.size());
+    }
+
+    public void increment(UserRole role, String district) {
+        add(role, district, 1);
+    }
+
+    public void decrement(UserRole role, String district) {
+        add(role, district, -1);
+    }
+
+    public long getCount(UserRole role, String district) {
+        LongAdder[] row = rows.get(district);
+        return row != null ? row[role.ordinal()].sum() : 0;
+    }
+
+    /**
+     * Whole matrix as district -> role -> count. Returns the same immutable
+     * snapshot until a counter changes.
+     */
+    public Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current.version == version.get()) {
+            return current;
+        }
+        synchronized (this) {
+            long seen = version.get();
+            if (snapshot.version != seen) {
+                snapshot = buildSnapshot(seen);
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Corrects the counters against a fresh GROUP BY. The listener keeps moving
+     * them while the query runs, so each cell is read before the query and
+     * only the difference between that reading and the database is applied:
+     * changes counted during the query are kept on top of the database
+     * figure rather than overwritten. A commit whose counter moves between
+     * the reading and the start of the query is counted twice until the next
+     * reconcile.
+     */
+    @Scheduled(fixedDelayString = "${app.users.counts.reconcile-ms:300000}")
+    public void reconcile() {
+        try {
+            Map<String, long[]> counted = new HashMap<>();
+            rows.forEach((district, row) -> {
+                long[] cells = new long[ROLES.length];
+                for (int i = 0; i < cells.length; i++) {
+                    cells[i] = row[i].sum();
+                }
+                counted.put(district, cells);
+            });
+
+            Map<String, long[]> actual = new HashMap<>();
+            for (Object[] group : userRepository.countActiveByRoleAndDistrict()) {
+                String district = (String) group[1];
+                if (district != null) {
+                    actual.computeIfAbsent(district, key -> new long[ROLES.length])
+                            [((UserRole) group[0]).ordinal()] = (Long) group[2];
+                }
+            }
+
+            // Districts we counted that no longer have any active workers
+            for (String district : counted.keySet()) {
+                actual.putIfAbsent(district, new long[ROLES.length]);
+            }
+
+            int corrected = 0;
+            for (Map.Entry<String, long[]> entry : actual.entrySet()) {
+                long[] before = counted.getOrDefault(entry.getKey(), new long[ROLES.length]);
+                LongAdder[] row = row(entry.getKey());
+                for (int i = 0; i < ROLES.length; i++) {
+                    long drift = entry.getValue()[i] - before[i];
+                    if (drift != 0) {
+                        row[i].add(drift);
+                        corrected++;
+                    }
+                }
+            }
+
+            if (corrected > 0) {
+                version.incrementAndGet();
+                driftCounter.increment(corrected);
+                logger.info("Worker count reconcile corrected {} cells", corrected);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not reconcile worker counts: {}", e.getMessage());
+        }
+    }
+
+    private void add(UserRole role, String district, long delta) {
+        if (role == null || district == null) {
+            return;
+        }
+        row(district)[role.ordinal()].add(delta);
+        version.incrementAndGet();
+    }
+
+    private LongAdder[] row(String district) {
+        return rows.computeIfAbsent(district, key -> {
+            LongAdder[] row = new LongAdder[ROLES.length];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = new LongAdder();
+            }
+            return row;
+        });
+    }
+
+    private Snapshot buildSnapshot(long atVersion) {
+        Map<String, Map<UserRole, Long>> counts = new TreeMap<>();
+        rows.forEach((district, row) -> {
+            Map<UserRole, Long> byRole = new EnumMap<>(UserRole.class);
+            for (UserRole role : ROLES) {
+                long count = row[role.ordinal()].sum();
+                if (count != 0) {
+                    byRole.put(role, count);
+                }
+            }
+            if (!byRole.isEmpty()) {
+                counts.put(district, Collections.unmodifiableMap(byRole));
+            }
+        });
+        return new Snapshot(atVersion, Collections.unmodifiableMap(counts), LocalDateTime.now());
+    }
+
+    public static class Snapshot {
+        private final long version;
+        private final Map<String, Map<UserRole, Long>> counts;
+        private final LocalDateTime generatedAt;
+
+        Snapshot(long version, Map<String, Map<UserRole, Long>> counts, LocalDateTime generatedAt) {
+            this.version = version;
+            this.counts = counts;
+            this.generatedAt = generatedAt;
+        }
+
+        public Map<String, Map<UserRole, Long>> getCounts() {
+            return counts;
+        }
+
+        public LocalDateTime getGeneratedAt() {
+            return generatedAt;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.arogyam.health.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Minimal streaming RFC 4180 reader: one record at a time, quoted fields,
+ * doubled quotes and line breaks inside quotes. Blank lines are skipped.
+ */
+public class CsvReader implements Closeable {
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+
+    private final Reader reader;
+    private final StringBuilder field = new StringBuilder();
+    private int pushedBack = -2;
+    private long lineNumber = 1;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader, 64 * 1024);
+    }
+
+    /**
+     * @return the next record's fields, or null at end of input
+     */
+    public List<String> readRecord() throws IOException {
+        while (true) {
+            int first = read();
+            if (first == -1) {
+                return null;
+            }
+            if (first == '\r' || first == '\n') {
+                consumeLineEnd(first);
+                continue;
+            }
+            unread(first);
+            return parseRecord();
+        }
+    }
+
+    /**
+     * Reads the header row and maps each lower-cased column name to its index.
+     */
+    public Map<String, Integer> readHeader() throws IOException {
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV input is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        return columns;
+    }
+
+    // Line the next record starts on, for error reports
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    private List<String> parseRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+
+        while (true) {
+            int c = read();
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field near line " + lineNumber);
+                }
+                if (c == QUOTE) {
+                    int next = read();
+                    if (next == QUOTE) {
+                        field.append(QUOTE);
+                    } else {
+                        quoted = false;
+                        unread(next);
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+                continue;
+            }
+
+            if (c == -1 || c == '\r' || c == '\n') {
+                fields.add(field.toString());
+                if (c != -1) {
+                    consumeLineEnd(c);
+                }
+                return fields;
+            }
+            if (c == SEPARATOR) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == QUOTE && field.length() == 0) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    private void consumeLineEnd(int c) throws IOException {
+        if (c == '\r') {
+            int next = read();
+            if (next != '\n') {
+                unread(next);
+            }
+        }
+        lineNumber++;
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
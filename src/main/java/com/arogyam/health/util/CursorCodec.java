@@ -0,0 +1,97 @@
+package com.arogyam.health.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursors. Clients get a URL-safe token; the server reads back the
+ * last id it returned, or the last (time, id) for listings ordered by time. A
+ * null or empty cursor means "from the start".
+ */
+public final class CursorCodec {
+
+    private static final String PREFIX = "id:";
+    private static final String TIME_PREFIX = "at:";
+
+    private CursorCodec() {
+    }
+
+    public static String encode(long lastId) {
+        byte[] bytes = (PREFIX + lastId).getBytes(StandardCharsets.US_ASCII);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(payload(cursor, PREFIX));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    // Time is kept to the microsecond, the precision of a PostgreSQL timestamp
+    public static String encode(LocalDateTime lastTime, long lastId) {
+        long micros = Math.addExact(Math.multiplyExact(lastTime.toEpochSecond(ZoneOffset.UTC), 1_000_000L),
+                lastTime.getNano() / 1_000);
+        byte[] bytes = (TIME_PREFIX + micros + ":" + lastId).getBytes(StandardCharsets.US_ASCII);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /** Reads a cursor from {@link #encode(LocalDateTime, long)}; null for a null or empty cursor. */
+    public static TimeCursor decodeTime(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String payload = payload(cursor, TIME_PREFIX);
+        int separator = payload.indexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        try {
+            long micros = Long.parseLong(payload.substring(0, separator));
+            LocalDateTime time = LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                    (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+            return new TimeCursor(time, Long.parseLong(payload.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            // Out-of-range times throw DateTimeException rather than IllegalArgumentException
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    private static String payload(String cursor, String prefix) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.US_ASCII);
+            if (!decoded.startsWith(prefix)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return decoded.substring(prefix.length());
+        } catch (IllegalArgumentException e) {
+            // Malformed Base64
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    // Position after the last row of a page ordered by (time DESC, id DESC)
+    public static final class TimeCursor {
+        private final LocalDateTime time;
+        private final long id;
+
+        public TimeCursor(LocalDateTime time, long id) {
+            this.time = time;
+            this.id = id;
+        }
+
+        public LocalDateTime getTime() {
+            return time;
+        }
+
+        public long getId() {
+            return id;
+        }
+    }
+}
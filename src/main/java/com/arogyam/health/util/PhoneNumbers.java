@@ -0,0 +1,81 @@
+package com.arogyam.health.util;
+
+/**
+ * E.164 normalization for the Indian numbers field workers use. Numbers without
+ * a country code are taken to be Indian (+91); the result is the E.164 digits
+ * as a long, e.g. "098123 45678" and "+91 98123-45678" both give 919812345678.
+ * Digits are accumulated straight into the long, so inbound SMS and IVR lookups
+ * normalize the caller's number without allocating.
+ */
+public final class PhoneNumbers {
+
+    public static final long INVALID = 0L;
+
+    // +91 in front of a ten digit national number
+    private static final long DEFAULT_COUNTRY_PREFIX = 91L * 10_000_000_000L;
+
+    // "00" plus the 15 digits E.164 allows; anything longer is invalid and would overflow
+    private static final int MAX_DIGITS = 17;
+
+    private PhoneNumbers() {
+    }
+
+    /**
+     * @return the E.164 number without the leading '+', or {@link #INVALID}
+     */
+    public static long toE164(String raw) {
+        if (raw == null) {
+            return INVALID;
+        }
+        int start = 0;
+        int end = raw.length();
+        while (start < end && raw.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && raw.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        boolean international = start < end && raw.charAt(start) == '+';
+
+        long number = 0;
+        int digits = 0;
+        int leadingZeros = 0;
+        for (int i = international ? start + 1 : start; i < end; i++) {
+            char c = raw.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_DIGITS) {
+                    return INVALID;
+                }
+                if (number == 0 && c == '0') {
+                    leadingZeros++;
+                }
+                number = number * 10 + (c - '0');
+            } else if (c != ' ' && c != '-' && c != '(' && c != ')') {
+                return INVALID;
+            }
+        }
+
+        if (!international) {
+            if (leadingZeros >= 2) {
+                // 00 international prefix
+                digits -= 2;
+                leadingZeros -= 2;
+            } else if (digits == 10 || (digits == 11 && leadingZeros == 1)) {
+                // National number, with or without its trunk 0
+                number += DEFAULT_COUNTRY_PREFIX;
+                digits = 12;
+                leadingZeros = 0;
+            }
+        }
+
+        // E.164 allows at most 15 digits and country codes never start with 0
+        if (digits < 8 || digits > 15 || leadingZeros > 0) {
+            return INVALID;
+        }
+        return number;
+    }
+
+    public static String format(long e164) {
+        return "+" + e164;
+    }
+}
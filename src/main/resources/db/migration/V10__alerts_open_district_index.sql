@@ -0,0 +1,6 @@
+-- Before inserting, the ingestion writer looks for an open alert another node already wrote
+-- for the same outbreak, so its duplicate window can merge into it. Only open alerts are
+-- searched, and they are a small share of the table.
+
+-- AlertDeduplicator.mergeIntoOpenAlerts
+CREATE INDEX idx_alerts_open_district_created_at ON alerts (district, created_at) WHERE status = 'OPEN';
@@ -0,0 +1,8 @@
+-- The BCrypt work factor every node hashes with. The first node to start calibrates it and
+-- writes this single row; the others read it, so all nodes agree and do not rehash each
+-- other's hashes. Delete the row to recalibrate on the next start, e.g. after a hardware change.
+CREATE TABLE password_hashing (
+    id            SMALLINT     PRIMARY KEY CHECK (id = 1),
+    strength      INTEGER      NOT NULL,
+    calibrated_at TIMESTAMP(6) NOT NULL
+);
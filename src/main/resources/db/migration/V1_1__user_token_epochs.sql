@@ -0,0 +1,5 @@
+-- Per-user token epochs (TokenEpochRegistry). Added while the schema was still
+-- generated by ddl-auto=update, so a database baselined at version 1 may or may not
+-- have them. Runs before V2, which indexes token_epoch_changed_at.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_epoch INTEGER;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_epoch_changed_at TIMESTAMP(6);
@@ -0,0 +1,34 @@
+-- Baseline: the schema as previously generated by spring.jpa.hibernate.ddl-auto=update.
+-- Existing databases are baselined at this version and skip this script, so it must
+-- match that schema exactly; anything added since goes into a later migration.
+
+CREATE TABLE users (
+    id                     BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username               VARCHAR(255) NOT NULL,
+    password_hash          VARCHAR(255) NOT NULL,
+    full_name              VARCHAR(255) NOT NULL,
+    role                   VARCHAR(255) NOT NULL
+        CHECK (role IN ('ASHA_WORKER', 'CHW', 'VOLUNTEER', 'HEALTH_OFFICIAL', 'ADMIN')),
+    is_active              BOOLEAN      NOT NULL,
+    phone_number           VARCHAR(255) NOT NULL,
+    email                  VARCHAR(255),
+    district               VARCHAR(255),
+    state                  VARCHAR(255),
+    village                VARCHAR(255),
+    created_at             TIMESTAMP(6),
+    last_login             TIMESTAMP(6),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_phone_number UNIQUE (phone_number)
+);
+
+CREATE TABLE villages (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name             VARCHAR(200) NOT NULL,
+    district         VARCHAR(100) NOT NULL,
+    state            VARCHAR(100) NOT NULL,
+    latitude         NUMERIC(10, 8),
+    longitude        NUMERIC(11, 8),
+    population       INTEGER,
+    primary_language VARCHAR(50),
+    created_at       TIMESTAMP(6)
+);
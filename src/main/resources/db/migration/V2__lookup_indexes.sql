@@ -0,0 +1,23 @@
+-- Indexes for the filters used by UserRepository and VillageRepository.
+-- Each one names the queries it serves; without them those queries scan the whole table.
+
+-- UserRepository.findByDistrictAndRole, countByRoleAndDistrict
+CREATE INDEX IF NOT EXISTS idx_users_district_role ON users (district, role);
+
+-- UserRepository.findByVillageAndRole
+CREATE INDEX IF NOT EXISTS idx_users_village_role ON users (village, role);
+
+-- Active workers only: most lookups skip deactivated accounts, so these stay small.
+-- UserRepository.findActiveByDistrictPageAfter (district = ? AND id > ? ORDER BY id)
+CREATE INDEX IF NOT EXISTS idx_users_active_district_id ON users (district, id) WHERE is_active;
+
+-- UserRepository.findActiveByRolePageAfter, findActiveUserByRole
+CREATE INDEX IF NOT EXISTS idx_users_active_role_id ON users (role, id) WHERE is_active;
+
+-- UserRepository.findTokenEpochsChangedSince (periodic TokenEpochRegistry refresh)
+CREATE INDEX IF NOT EXISTS idx_users_token_epoch_changed_at ON users (token_epoch_changed_at)
+    WHERE token_epoch_changed_at IS NOT NULL;
+
+-- VillageRepository.findByDistrictOrderByName, findByDistrict,
+-- findByNameAndDistrict, existsByNameAndDistrict
+CREATE INDEX IF NOT EXISTS idx_villages_district_name ON villages (district, name);
@@ -0,0 +1,26 @@
+-- Move users.id and villages.id from IDENTITY to sequences that hand out blocks of 50.
+-- Hibernate cannot batch inserts into IDENTITY columns (it needs each generated id
+-- back before the next row); with a pooled sequence it takes one nextval per 50 rows
+-- and batches the inserts. Each nextval value v reserves the ids v-49..v.
+--
+-- The JDBC bulk importers take blocks the same way (SequenceIdAllocator). The column
+-- default only serves ad-hoc SQL inserts: each such row uses a whole block, skipping
+-- 49 ids, but never collides with pooled allocations.
+
+-- users
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+-- Databases created before Flyway by older Hibernate versions used a serial column instead
+ALTER TABLE users ALTER COLUMN id DROP DEFAULT;
+DROP SEQUENCE IF EXISTS users_id_seq;
+CREATE SEQUENCE users_id_seq INCREMENT BY 50 OWNED BY users.id;
+-- Not yet called, so the first nextval returns exactly this value: the block max(id)+1 .. max(id)+50
+SELECT setval('users_id_seq', COALESCE(MAX(id), 0) + 50, false) FROM users;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_id_seq');
+
+-- villages
+ALTER TABLE villages ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE villages ALTER COLUMN id DROP DEFAULT;
+DROP SEQUENCE IF EXISTS villages_id_seq;
+CREATE SEQUENCE villages_id_seq INCREMENT BY 50 OWNED BY villages.id;
+SELECT setval('villages_id_seq', COALESCE(MAX(id), 0) + 50, false) FROM villages;
+ALTER TABLE villages ALTER COLUMN id SET DEFAULT nextval('villages_id_seq');
@@ -0,0 +1,28 @@
+-- Early-warning alerts raised by field workers. Written in JDBC batches by
+-- AlertIngestionService, which takes ids in blocks of 50 like Hibernate does.
+
+CREATE SEQUENCE alerts_id_seq INCREMENT BY 50;
+
+CREATE TABLE alerts (
+    id          BIGINT       NOT NULL DEFAULT nextval('alerts_id_seq') PRIMARY KEY,
+    village_id  BIGINT       REFERENCES villages (id),
+    district    VARCHAR(100) NOT NULL,
+    state       VARCHAR(100),
+    raised_by   BIGINT       NOT NULL REFERENCES users (id),
+    disease     VARCHAR(100) NOT NULL,
+    severity    VARCHAR(20)  NOT NULL CHECK (severity IN ('LOW', 'MEDIUM', 'HIGH', 'CRITICAL')),
+    status      VARCHAR(20)  NOT NULL CHECK (status IN ('OPEN', 'ACKNOWLEDGED', 'RESOLVED')),
+    description VARCHAR(1000),
+    case_count  INTEGER,
+    reported_at TIMESTAMP(6) NOT NULL,
+    created_at  TIMESTAMP(6),
+    updated_at  TIMESTAMP(6)
+);
+
+ALTER SEQUENCE alerts_id_seq OWNED BY alerts.id;
+
+-- AlertRepository.findPageByDistrict: one district, newest first, keyset on (reported_at, id)
+CREATE INDEX idx_alerts_district_reported_at ON alerts (district, reported_at DESC, id DESC);
+
+-- AlertRepository.findPage: all districts, same ordering
+CREATE INDEX idx_alerts_reported_at ON alerts (reported_at DESC, id DESC);
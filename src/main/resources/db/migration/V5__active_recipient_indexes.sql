@@ -0,0 +1,8 @@
+-- Alert recipient lookups (RecipientResolver). Active users only, with id in the key,
+-- so each lookup is a single index-only range scan returning ids already in order.
+
+-- UserRepository.findActiveIdsByDistrictAndRole
+CREATE INDEX IF NOT EXISTS idx_users_active_district_role_id ON users (district, role, id) WHERE is_active;
+
+-- UserRepository.findActiveIdsByVillageAndRole
+CREATE INDEX IF NOT EXISTS idx_users_active_village_role_id ON users (district, village, role, id) WHERE is_active;
@@ -0,0 +1,3 @@
+-- Reports of the same (village, disease, severity) within the dedup window are merged
+-- into the first alert by AlertDeduplicator; this counts them, the first one included.
+ALTER TABLE alerts ADD COLUMN occurrence_count INTEGER NOT NULL DEFAULT 1;
@@ -0,0 +1,16 @@
+-- Token ids ("jti") revoked at logout, shared by every node. RevokedTokenStore writes a
+-- row on logout and each node polls for rows revoked since its last look. Rows are
+-- deleted once the token would have expired anyway.
+CREATE TABLE revoked_tokens (
+    jti_high   BIGINT       NOT NULL,
+    jti_low    BIGINT       NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL,
+    revoked_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (jti_high, jti_low)
+);
+
+-- RevokedTokenStore.refresh: revocations since the last poll
+CREATE INDEX idx_revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
+
+-- RevokedTokenStore.purgeExpired
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
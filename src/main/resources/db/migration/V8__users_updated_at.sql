@@ -0,0 +1,8 @@
+-- Last change to a user row, set by Hibernate (@UpdateTimestamp) and by the bulk importer.
+-- The in-memory user indexes catch up on rows changed since their last pass, which sees
+-- edits and rows committed out of id order on any node. Left NULL on existing rows: the
+-- indexes load everything at startup.
+ALTER TABLE users ADD COLUMN updated_at TIMESTAMP(6);
+
+-- UserRepository.streamChangedSince, streamIdsAndPhoneNumbersChangedSince
+CREATE INDEX idx_users_updated_at ON users (updated_at) WHERE updated_at IS NOT NULL;
@@ -0,0 +1,5 @@
+-- Live alert streams on every node poll for alerts inserted since their last pass, so
+-- alerts written by another node's ingestion writer reach its subscribers too.
+
+-- AlertRepository.findCreatedSince
+CREATE INDEX idx_alerts_created_at ON alerts (created_at);
@@ -0,0 +1,132 @@
+package com.arogyam.health.entity;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Insert throughput of pooled sequence ids against IDENTITY ids: 100k villages,
+ * then 100k users, in 100 transactions of 1000 rows, on a throwaway embedded
+ * Postgres migrated by Flyway. Opt-in: mvn -Pbenchmark test.
+ *
+ * The identity runs issue one INSERT ... RETURNING id per row, which is the
+ * round trip Hibernate makes for an IDENTITY id; they skip Hibernate's own
+ * per-entity work, so they flatter the old mapping slightly. The pooled runs
+ * persist entities the way the application does. The first round warms up.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "app.security.password-hashing.strength=4")
+class IdGenerationBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdGenerationBenchmarkTest.class);
+
+    private static final int TRANSACTIONS = 100;
+    private static final int ROWS_PER_TRANSACTION = 1000;
+    private static final int ROUNDS = 3;
+
+    private static final EmbeddedPostgres postgres = start();
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url",
+                () -> postgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true");
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void pooledSequenceAgainstIdentity() {
+        for (int r = 1; r <= ROUNDS; r++) {
+            int round = r;
+            String prefix = "r" + round + "_";
+
+            long identityVillagesMs = time(row -> jdbcTemplate.queryForObject(
+                    "INSERT INTO villages (name, district, state) VALUES (?, ?, 'S') RETURNING id",
+                    Long.class, prefix + "identity_" + row, "D" + row % 50));
+            long pooledVillagesMs = time(row -> entityManager.persist(
+                    new VillageEntity(prefix + "pooled_" + row, "D" + row % 50, "S")));
+
+            long identityUsersMs = time(row -> jdbcTemplate.queryForObject(
+                    "INSERT INTO users (username, password_hash, full_name, role, is_active, phone_number, "
+                            + "district, token_epoch) VALUES (?, 'x', 'n', 'CHW', true, ?, 'D', 0) RETURNING id",
+                    Long.class, prefix + "identity_" + row, phoneNumber(round, 0, row)));
+            long pooledUsersMs = time(row -> entityManager.persist(user(prefix + "pooled_" + row,
+                    phoneNumber(round, 1, row))));
+
+            logger.info("Round {}: villages identity {} ms, pooled {} ms; users identity {} ms, pooled {} ms",
+                    round, identityVillagesMs, pooledVillagesMs, identityUsersMs, pooledUsersMs);
+        }
+
+        long rows = (long) ROUNDS * 2 * TRANSACTIONS * ROWS_PER_TRANSACTION;
+        assertEquals(rows, jdbcTemplate.queryForObject("SELECT count(*) FROM villages", Long.class));
+        assertEquals(rows, jdbcTemplate.queryForObject("SELECT count(*) FROM users", Long.class));
+    }
+
+    private long time(IntConsumer insert) {
+        long startedAt = System.nanoTime();
+        for (int t = 0; t < TRANSACTIONS; t++) {
+            int first = t * ROWS_PER_TRANSACTION;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int row = first; row < first + ROWS_PER_TRANSACTION; row++) {
+                    insert.accept(row);
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        return (System.nanoTime() - startedAt) / 1_000_000;
+    }
+
+    private static UserEntity user(String username, String phoneNumber) {
+        UserEntity user = new UserEntity();
+        user.setUsername(username);
+        user.setPasswordHash("x");
+        user.setFullName("n");
+        user.setRole(UserRole.CHW);
+        user.setPhoneNumber(phoneNumber);
+        user.setDistrict("D");
+        return user;
+    }
+
+    // Ten digits, unique across rounds and runs: 9, round, run, seven-digit row
+    private static String phoneNumber(int round, int run, int row) {
+        return String.format("9%d%d%07d", round, run, row);
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start embedded Postgres", e);
+        }
+    }
+}
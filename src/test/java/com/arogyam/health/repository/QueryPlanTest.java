@@ -0,0 +1,215 @@
+package com.arogyam.health.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Each index added by the migrations is picked by the query it was added for.
+ *
+ * Runs the Flyway migrations on a throwaway embedded Postgres, fills the tables
+ * with a production-like spread (200 districts, 2000 villages, few officials
+ * among many field workers, a week of alerts), vacuums them, and checks the
+ * EXPLAIN of each repository query. The SQL mirrors what Hibernate generates
+ * for the named repository method.
+ */
+class QueryPlanTest {
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void migrateAndFill() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+        // Vacuumed explicitly below, once the tables are filled: a concurrent autovacuum would hold
+        // back the visibility map that index-only scans depend on
+        for (String table : new String[]{"users", "villages", "alerts", "revoked_tokens"}) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " SET (autovacuum_enabled = false)");
+        }
+
+        jdbcTemplate.execute("INSERT INTO users (id, username, password_hash, full_name, role, is_active, "
+                + "phone_number, district, state, village, created_at, updated_at, token_epoch, token_epoch_changed_at) "
+                + "SELECT g, 'u' || g, 'x', 'User ' || g, "
+                + "CASE WHEN g / 200 % 100 < 60 THEN 'ASHA_WORKER' WHEN g / 200 % 100 < 90 THEN 'CHW' "
+                + "WHEN g / 200 % 100 < 97 THEN 'VOLUNTEER' WHEN g / 200 % 100 < 99 THEN 'HEALTH_OFFICIAL' "
+                + "ELSE 'ADMIN' END, "
+                + "g % 10 <> 0, '+91' || (9000000000 + g), 'D' || g % 200, 'S' || g % 20, 'V' || g % 2000, "
+                + "now() - g * interval '1 minute', now() - g * interval '1 minute', "
+                + "CASE WHEN g % 1000 = 0 THEN 1 ELSE 0 END, "
+                + "CASE WHEN g % 1000 = 0 THEN now() - (g / 1000) * interval '1 day' END "
+                + "FROM generate_series(1, 100000) g");
+        jdbcTemplate.execute("INSERT INTO villages (id, name, district, state) "
+                + "SELECT g, 'V' || g, 'D' || g % 200, 'S' || g % 20 FROM generate_series(1, 20000) g");
+        jdbcTemplate.execute("INSERT INTO alerts (id, district, raised_by, disease, severity, status, "
+                + "reported_at, created_at, updated_at, occurrence_count) "
+                + "SELECT g, 'D' || g % 200, 1, 'Cholera', 'HIGH', 'OPEN', "
+                + "now() - g * interval '3 seconds', now() - g * interval '3 seconds', now(), 1 "
+                + "FROM generate_series(1, 200000) g");
+        jdbcTemplate.execute("INSERT INTO revoked_tokens (jti_high, jti_low, expires_at, revoked_at) "
+                + "SELECT g, g, now() + (g % 86400) * interval '1 second', now() - g * interval '5 seconds' "
+                + "FROM generate_series(1, 100000) g");
+        // A vacuum right after the load can still see the inserting transaction as running and leave
+        // the visibility map unset, which rules out index-only scans; repeat until every page is marked
+        for (String table : new String[]{"users", "villages", "alerts", "revoked_tokens"}) {
+            boolean allVisible = false;
+            for (int attempt = 0; attempt < 10 && !allVisible; attempt++) {
+                jdbcTemplate.execute("VACUUM ANALYZE " + table);
+                allVisible = jdbcTemplate.queryForObject(
+                        "SELECT relallvisible = relpages FROM pg_class WHERE relname = ?", Boolean.class, table);
+            }
+            assertTrue(allVisible, () -> table + " was not fully vacuumed");
+        }
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    // V2
+
+    @Test
+    void findByDistrictAndRoleUsesDistrictRoleIndex() {
+        assertUses("idx_users_district_role",
+                "SELECT * FROM users WHERE district = 'D7' AND role = 'CHW'");
+        // countByRoleAndDistrict
+        assertUses("idx_users_district_role",
+                "SELECT count(*) FROM users WHERE role = 'CHW' AND district = 'D7'");
+    }
+
+    @Test
+    void findByVillageAndRoleUsesVillageRoleIndex() {
+        assertUses("idx_users_village_role",
+                "SELECT * FROM users WHERE village = 'V7' AND role = 'ASHA_WORKER'");
+    }
+
+    @Test
+    void findActiveByDistrictPageAfterUsesActiveDistrictIdIndex() {
+        assertUses("idx_users_active_district_id",
+                "SELECT id, username FROM users WHERE district = 'D7' AND is_active = true AND id > 5000 "
+                        + "ORDER BY id LIMIT 51");
+    }
+
+    @Test
+    void findActiveByRolePageAfterUsesActiveRoleIdIndex() {
+        assertUses("idx_users_active_role_id",
+                "SELECT id, username FROM users WHERE role = 'HEALTH_OFFICIAL' AND is_active = true AND id > 5000 "
+                        + "ORDER BY id LIMIT 51");
+        // findActiveUserByRole
+        assertUses("idx_users_active_role_id",
+                "SELECT * FROM users WHERE role = 'ADMIN' AND is_active = true");
+    }
+
+    @Test
+    void findTokenEpochsChangedSinceUsesPartialChangedAtIndex() {
+        assertUses("idx_users_token_epoch_changed_at",
+                "SELECT id, token_epoch, token_epoch_changed_at FROM users "
+                        + "WHERE token_epoch_changed_at > now() - interval '2 days'");
+    }
+
+    @Test
+    void villageLookupsByDistrictUseDistrictNameIndex() {
+        // findByDistrictOrderByName, findByDistrict
+        assertUses("idx_villages_district_name",
+                "SELECT * FROM villages WHERE district = 'D7' ORDER BY name");
+        // findByNameAndDistrict, existsByNameAndDistrict
+        assertUses("idx_villages_district_name",
+                "SELECT id FROM villages WHERE name = 'V7' AND district = 'D7' LIMIT 1");
+    }
+
+    // V4
+
+    @Test
+    void alertPagesUseReportedAtIndexes() {
+        // AlertRepository.findPageByDistrict
+        assertUses("idx_alerts_district_reported_at",
+                "SELECT * FROM alerts WHERE district = 'D7' AND reported_at >= now() - interval '7 days' "
+                        + "AND (reported_at < now() OR (reported_at = now() AND id < 9223372036854775807)) "
+                        + "ORDER BY reported_at DESC, id DESC LIMIT 51");
+        // AlertRepository.findPage
+        assertUses("idx_alerts_reported_at",
+                "SELECT * FROM alerts WHERE reported_at >= now() - interval '7 days' "
+                        + "AND (reported_at < now() OR (reported_at = now() AND id < 9223372036854775807)) "
+                        + "ORDER BY reported_at DESC, id DESC LIMIT 51");
+    }
+
+    // V5
+
+    @Test
+    void recipientLookupsAreIndexOnlyScans() {
+        // UserRepository.findActiveIdsByDistrictAndRole
+        assertUses("Index Only Scan using idx_users_active_district_role_id",
+                "SELECT id FROM users WHERE district = 'D7' AND role = 'HEALTH_OFFICIAL' AND is_active = true "
+                        + "ORDER BY id");
+        // UserRepository.findActiveIdsByVillageAndRole
+        assertUses("Index Only Scan using idx_users_active_village_role_id",
+                "SELECT id FROM users WHERE district = 'D7' AND village = 'V7' AND role = 'ASHA_WORKER' "
+                        + "AND is_active = true ORDER BY id");
+    }
+
+    // V7
+
+    @Test
+    void revokedTokenRefreshAndPurgeUseTheirIndexes() {
+        // RevokedTokenStore.refresh
+        assertUses("idx_revoked_tokens_revoked_at",
+                "SELECT jti_high, jti_low, expires_at, revoked_at FROM revoked_tokens "
+                        + "WHERE revoked_at > now() - interval '1 minute' AND expires_at > now()");
+        // RevokedTokenStore.purgeExpired
+        assertUses("idx_revoked_tokens_expires_at",
+                "DELETE FROM revoked_tokens WHERE expires_at <= now() + interval '1 minute'");
+    }
+
+    // V8
+
+    @Test
+    void catchUpsByUpdatedAtUseUpdatedAtIndex() {
+        // UserRepository.streamChangedSince, streamIdsAndPhoneNumbersChangedSince, findIdsAndUsernamesChangedSince
+        assertUses("idx_users_updated_at",
+                "SELECT id, phone_number FROM users WHERE updated_at > now() - interval '70 seconds' ORDER BY id");
+    }
+
+    // V9
+
+    @Test
+    void streamPollUsesCreatedAtIndex() {
+        // AlertRepository.findKeysCreatedAfter
+        assertUses("idx_alerts_created_at",
+                "SELECT id, created_at, district FROM alerts WHERE district IN ('D7', 'D8', 'D9') "
+                        + "AND created_at <= now() AND created_at >= now() - interval '2 seconds' "
+                        + "AND (created_at > now() - interval '2 seconds' "
+                        + "OR (created_at = now() - interval '2 seconds' AND id > 9223372036854775807)) "
+                        + "ORDER BY created_at, id LIMIT 1000");
+        // AlertRepository.findKeysCreatedBetween
+        assertUses("idx_alerts_created_at",
+                "SELECT id, created_at, district FROM alerts WHERE district IN ('D7', 'D8', 'D9') "
+                        + "AND created_at >= now() - interval '62 seconds' AND created_at <= now() - interval '2 seconds'");
+    }
+
+    // V10
+
+    @Test
+    void openAlertLookupUsesPartialOpenDistrictIndex() {
+        // AlertDeduplicator.mergeIntoOpenAlerts
+        assertUses("idx_alerts_open_district_created_at",
+                "SELECT id, village_id, district, disease, severity, created_at FROM alerts "
+                        + "WHERE status = 'OPEN' AND created_at > now() - interval '30 minutes' "
+                        + "AND district IN ('D7', 'D8')");
+    }
+
+    private static void assertUses(String expected, String sql) {
+        String plan = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class).stream()
+                .collect(Collectors.joining("\n"));
+        assertTrue(plan.contains(expected), () -> "Expected " + expected + " for\n" + sql + "\nbut got\n" + plan);
+    }
+}
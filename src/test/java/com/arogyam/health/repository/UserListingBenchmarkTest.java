@@ -0,0 +1,146 @@
+package com.arogyam.health.repository;
+
+import com.arogyam.health.dto.UserResponseDto;
+import com.arogyam.health.entity.UserEntity;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * CPU time and allocation of the keyset user listing: loading managed
+ * UserEntity rows and mapping them to UserResponseDto, as the listings did,
+ * against the UserRepository constructor projection they use now. Walks 50k
+ * users in pages of 50, one read-only transaction per page like the service,
+ * on a throwaway embedded Postgres migrated by Flyway. Opt-in: mvn -Pbenchmark test.
+ *
+ * Both figures include the JDBC driver, which decodes rows on the calling
+ * thread. The first round warms up.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "app.security.password-hashing.strength=4")
+class UserListingBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserListingBenchmarkTest.class);
+
+    private static final int USERS = 50_000;
+    private static final int PAGE_SIZE = 50;
+    private static final int ROUNDS = 3;
+
+    private static final EmbeddedPostgres postgres = start();
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void entityLoadingAgainstProjection() {
+        jdbcTemplate.execute("INSERT INTO users (id, username, password_hash, full_name, email, role, is_active, "
+                + "phone_number, district, state, village, created_at, updated_at, last_login, token_epoch) "
+                + "SELECT g, 'user' || g, '$2a$10$' || md5(g::text) || md5(g::text), 'User ' || g, "
+                + "'user' || g || '@example.org', 'ASHA_WORKER', true, '+91' || (9000000000 + g), "
+                + "'D' || g % 50, 'S', 'V' || g % 500, now(), now(), now(), 0 "
+                + "FROM generate_series(1, " + USERS + ") g");
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            Result entities = walk(readOnly, afterId -> entityManager
+                    .createQuery("SELECT u FROM UserEntity u WHERE u.id > :afterId ORDER BY u.id", UserEntity.class)
+                    .setParameter("afterId", afterId)
+                    .setMaxResults(PAGE_SIZE)
+                    .getResultList()
+                    .stream()
+                    .map(UserListingBenchmarkTest::toResponse)
+                    .toList());
+            Result projection = walk(readOnly, afterId -> userRepository.findPageAfter(afterId,
+                    PageRequest.of(0, PAGE_SIZE)));
+
+            logger.info("Round {}: entities {} ms CPU, {} MB allocated; projection {} ms CPU, {} MB allocated",
+                    round, entities.cpuMs, entities.allocatedMb, projection.cpuMs, projection.allocatedMb);
+            assertEquals(USERS, entities.rows);
+            assertEquals(USERS, projection.rows);
+        }
+    }
+
+    private Result walk(TransactionTemplate readOnly, LongFunction<List<UserResponseDto>> page) {
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long cpuBefore = threads.getCurrentThreadCpuTime();
+        long afterId = 0;
+        int rows = 0;
+        List<UserResponseDto> items;
+        do {
+            long after = afterId;
+            items = readOnly.execute(status -> page.apply(after));
+            rows += items.size();
+            if (!items.isEmpty()) {
+                afterId = items.get(items.size() - 1).getId();
+            }
+        } while (items.size() == PAGE_SIZE);
+        long cpuMs = (threads.getCurrentThreadCpuTime() - cpuBefore) / 1_000_000;
+        long allocatedMb = (threads.getThreadAllocatedBytes(thread) - allocatedBefore) / (1024 * 1024);
+        return new Result(cpuMs, allocatedMb, rows);
+    }
+
+    // The entity-to-DTO mapping the listings used before the projection
+    private static UserResponseDto toResponse(UserEntity user) {
+        return new UserResponseDto(user.getId(), user.getUsername(), user.getFullName(), user.getPhoneNumber(),
+                user.getEmail(), user.getRole(), user.getDistrict(), user.getState(), user.getVillage(),
+                user.getIsActive(), user.getCreatedAt(), user.getLastLogin());
+    }
+
+    private record Result(long cpuMs, long allocatedMb, int rows) {
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start embedded Postgres", e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.arogyam.health.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BCryptStrengthCalibratorTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+    }
+
+    @Test
+    void storedStrengthIsUsedWithoutCalibrating() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Integer.class))).thenReturn(List.of(12));
+
+        assertEquals(12, BCryptStrengthCalibrator.resolve(jdbcTemplate, 50, 10, 16));
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void storedStrengthBelowARaisedFloorIsRaised() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Integer.class))).thenReturn(List.of(10));
+
+        assertEquals(11, BCryptStrengthCalibrator.resolve(jdbcTemplate, 50, 11, 16));
+    }
+
+    @Test
+    void firstStartStoresItsCalibrationAndUsesWhateverWasStoredFirst() {
+        // Another node inserted 5 while this one was calibrating
+        when(jdbcTemplate.queryForList(anyString(), eq(Integer.class))).thenReturn(List.of(), List.of(5));
+
+        assertEquals(5, BCryptStrengthCalibrator.resolve(jdbcTemplate, 1_000, 4, 4));
+        verify(jdbcTemplate).update(anyString(), eq(4), any());
+    }
+
+    @Test
+    void onlyHashesBelowTheFloorAreUpgraded() {
+        FlooredBCryptPasswordEncoder encoder = new FlooredBCryptPasswordEncoder(6, 5);
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("secret")));
+        // Written by a node on faster hardware
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(7).encode("secret")));
+        assertTrue(encoder.matches("secret", new BCryptPasswordEncoder(7).encode("secret")));
+    }
+}
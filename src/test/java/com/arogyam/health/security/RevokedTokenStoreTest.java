@@ -0,0 +1,156 @@
+package com.arogyam.health.security;
+
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.DataOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RevokedTokenStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+    }
+
+    @Test
+    void revokedTokenIsRefusedAndOthersAreNot() {
+        RevokedTokenStore store = store(dir.resolve("revoked.bin"));
+        VerifiedToken revoked = token(3_600_000);
+        VerifiedToken other = token(3_600_000);
+
+        store.revoke(revoked);
+
+        assertTrue(store.isRevoked(revoked));
+        assertFalse(store.isRevoked(other));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void tokenWithoutUuidJtiIsNeverRevoked() {
+        RevokedTokenStore store = store(dir.resolve("revoked.bin"));
+        VerifiedToken legacy = VerifiedToken.from(Jwts.claims().subject("worker").id("not-a-uuid")
+                .expiration(new Date(System.currentTimeMillis() + 60_000)).build());
+
+        store.revoke(legacy);
+
+        assertFalse(store.isRevoked(legacy));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void entriesExpireWithTheirTokenAndArePurged() throws InterruptedException {
+        RevokedTokenStore store = store(dir.resolve("revoked.bin"));
+        VerifiedToken shortLived = token(2000);
+        VerifiedToken longLived = token(3_600_000);
+        store.revoke(shortLived);
+        store.revoke(longLived);
+        assertTrue(store.isRevoked(shortLived));
+
+        Thread.sleep(2100);
+
+        assertFalse(store.isRevoked(shortLived));
+        store.purgeExpired();
+        assertEquals(1, store.size());
+        assertTrue(store.isRevoked(longLived));
+    }
+
+    @Test
+    void snapshotRoundTripKeepsLiveEntriesAndSkipsExpiredOnes() throws InterruptedException {
+        Path snapshot = dir.resolve("revoked.bin");
+        RevokedTokenStore store = store(snapshot);
+        // Enough to grow the table past its initial 1024 slots
+        List<VerifiedToken> live = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            VerifiedToken token = token(3_600_000);
+            live.add(token);
+            store.revoke(token);
+        }
+        VerifiedToken shortLived = token(2000);
+        store.revoke(shortLived);
+        store.shutdown();
+        assertTrue(Files.exists(snapshot));
+
+        Thread.sleep(2100);
+        RevokedTokenStore restarted = store(snapshot);
+
+        assertEquals(3000, restarted.size());
+        for (VerifiedToken token : live) {
+            assertTrue(restarted.isRevoked(token));
+        }
+        assertFalse(restarted.isRevoked(shortLived));
+        assertFalse(restarted.isRevoked(token(3_600_000)));
+    }
+
+    @Test
+    void snapshotWithUnknownFormatIsIgnored() throws Exception {
+        Path snapshot = dir.resolve("revoked.bin");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(snapshot))) {
+            out.writeInt(0x12345678);
+            out.writeInt(1);
+        }
+
+        RevokedTokenStore store = store(snapshot);
+
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void failedDatabaseWriteStillRevokesLocallyAndIsRetried() {
+        when(jdbcTemplate.update(anyString(), any(Object[].class), any(int[].class)))
+                .thenThrow(new DataAccessResourceFailureException("database down"))
+                .thenReturn(1);
+        RevokedTokenStore store = store(dir.resolve("revoked.bin"));
+        VerifiedToken token = token(3_600_000);
+
+        store.revoke(token);
+        assertTrue(store.isRevoked(token));
+
+        store.refresh();
+        store.refresh();
+        verify(jdbcTemplate, times(2)).update(anyString(), any(Object[].class), any(int[].class));
+    }
+
+    private RevokedTokenStore store(Path snapshot) {
+        RevokedTokenStore store = new RevokedTokenStore(new SimpleMeterRegistry(), jdbcTemplate);
+        ReflectionTestUtils.setField(store, "expectedTokens", 10_000);
+        ReflectionTestUtils.setField(store, "snapshotPath", snapshot.toString());
+        store.init();
+        return store;
+    }
+
+    // JWT expiry has one-second resolution, so short lifetimes are whole seconds
+    private static VerifiedToken token(long ttlMs) {
+        return VerifiedToken.from(Jwts.claims()
+                .subject("worker")
+                .id(UUID.randomUUID().toString())
+                .expiration(new Date(System.currentTimeMillis() + ttlMs))
+                .build());
+    }
+}
@@ -0,0 +1,109 @@
+package com.arogyam.health.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * CPU time and allocation per request of the filter's token check: one
+ * {@link JwtTokenProvider#verify(String)} against the old path, which parsed
+ * the token in validateToken, again for the username and twice more in
+ * validateToken(token, userDetails), rebuilding the key and the parser every
+ * time. Opt-in: mvn -Pbenchmark test.
+ *
+ * The first round warms up; the figures of the later rounds are the ones to read.
+ */
+@Tag("benchmark")
+class TokenVerificationBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenVerificationBenchmarkTest.class);
+
+    private static final String SECRET = "benchmarkSecretKey1234567890123456789012345";
+    private static final int REQUESTS = 50_000;
+    private static final int ROUNDS = 3;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void singleVerifyAgainstRepeatedParsing() {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpirationMs", 3_600_000L);
+        ReflectionTestUtils.invokeMethod(provider, "init");
+
+        String token = provider.generateToken(Map.of("userId", 42L, "role", "CHW", "fullName", "Asha Devi",
+                JwtTokenProvider.TOKEN_EPOCH_CLAIM, 0), "asha");
+        UserDetails userDetails = User.withUsername("asha").password("x").authorities(List.of()).build();
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            Result repeated = measure(() -> repeatedParsing(token, userDetails));
+            Result single = measure(() -> provider.verify(token)
+                    .filter(verified -> provider.validateToken(verified, userDetails))
+                    .isPresent());
+
+            logger.info("Round {}: repeated parsing {} ns, {} bytes per request; single verify {} ns, {} bytes per request",
+                    round, repeated.nanosPerRequest, repeated.bytesPerRequest,
+                    single.nanosPerRequest, single.bytesPerRequest);
+            assertEquals(REQUESTS, repeated.accepted);
+            assertEquals(REQUESTS, single.accepted);
+        }
+    }
+
+    // The filter as it was: validateToken(jwt), getUsernameFromToken(jwt), then validateToken(jwt, userDetails),
+    // which read the subject and the expiry with a parse each
+    private static boolean repeatedParsing(String token, UserDetails userDetails) {
+        parse(token, Claims::getSubject);
+        String username = parse(token, Claims::getSubject);
+        return username.equals(userDetails.getUsername())
+                && parse(token, Claims::getSubject).equals(userDetails.getUsername())
+                && !parse(token, Claims::getExpiration).before(new Date());
+    }
+
+    private static <T> T parse(String token, Function<Claims, T> claim) {
+        return claim.apply(Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload());
+    }
+
+    private Result measure(Check check) {
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long cpuBefore = threads.getCurrentThreadCpuTime();
+        int accepted = 0;
+        for (int i = 0; i < REQUESTS; i++) {
+            if (check.accept()) {
+                accepted++;
+            }
+        }
+        long cpu = threads.getCurrentThreadCpuTime() - cpuBefore;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        return new Result(cpu / REQUESTS, allocated / REQUESTS, accepted);
+    }
+
+    @FunctionalInterface
+    private interface Check {
+        boolean accept();
+    }
+
+    private record Result(long nanosPerRequest, long bytesPerRequest, int accepted) {
+    }
+}
@@ -0,0 +1,279 @@
+package com.arogyam.health.service;
+
+import com.arogyam.health.dto.AlertDto;
+import com.arogyam.health.entity.AlertSeverity;
+import com.arogyam.health.repository.AlertRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Streams are connected to an in-memory client that records each event by
+ * name and id, and can hold its first alert write open to play a client that
+ * stopped reading. The sender pool is real, so results are awaited rather
+ * than timed.
+ */
+class AlertBroadcasterTest {
+
+    private static final long WAIT_SECONDS = 5;
+
+    private AlertRepository alertRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private AlertBroadcaster broadcaster;
+
+    // Released at the end of each test, so no sender thread stays parked in a write
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        alertRepository = mock(AlertRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        broadcaster = new AlertBroadcaster();
+        ReflectionTestUtils.setField(broadcaster, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(broadcaster, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(broadcaster, "alertRepository", alertRepository);
+        ReflectionTestUtils.setField(broadcaster, "recipientResolver", mock(RecipientResolver.class));
+        ReflectionTestUtils.setField(broadcaster, "bufferSize", 2);
+        ReflectionTestUtils.setField(broadcaster, "timeoutMs", 60_000L);
+        ReflectionTestUtils.setField(broadcaster, "maxSubscribers", 10);
+        ReflectionTestUtils.setField(broadcaster, "senderThreads", 1);
+        ReflectionTestUtils.setField(broadcaster, "sendTimeoutMs", 10_000L);
+        ReflectionTestUtils.setField(broadcaster, "maxBlockedSenders", 4);
+        ReflectionTestUtils.setField(broadcaster, "pollLimit", 100);
+        broadcaster.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        released.countDown();
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void overflowDropsTheBufferAndSendsAResync() throws Exception {
+        Client client = connect(broadcaster.subscribe("Pune"), true);
+        assertEquals("subscribed", client.next());
+        broadcast(alert(0, "Pune"));
+        assertEquals("alert:0", client.next());
+
+        // Stuck in that write: two alerts fill the buffer, the third overflows it
+        broadcast(alert(1, "Pune"), alert(2, "Pune"), alert(3, "Pune"));
+        assertEquals(1, meterRegistry.counter("alerts.stream.resyncs").count());
+
+        released.countDown();
+        assertEquals("resync", client.next());
+        broadcast(alert(4, "Pune"));
+        assertEquals("alert:4", client.next());
+        assertNull(client.events.poll());
+        assertEquals(1, broadcaster.getSubscriberCount());
+    }
+
+    @Test
+    void overflowBeforeTheResyncWasSentDisconnects() throws Exception {
+        Client client = connect(broadcaster.subscribe("Pune"), true);
+        assertEquals("subscribed", client.next());
+        broadcast(alert(0, "Pune"));
+        assertEquals("alert:0", client.next());
+
+        broadcast(alert(1, "Pune"), alert(2, "Pune"), alert(3, "Pune"));
+        broadcast(alert(4, "Pune"), alert(5, "Pune"), alert(6, "Pune"));
+        assertEquals(1, meterRegistry.counter("alerts.stream.resyncs").count());
+        assertEquals(1, meterRegistry.counter("alerts.stream.disconnected").count());
+
+        released.countDown();
+        assertEquals("complete", client.next());
+        awaitTrue(() -> broadcaster.getSubscriberCount() == 0);
+        assertNull(client.events.poll());
+    }
+
+    @Test
+    void watchdogAbandonsABlockedWriteAndAddsASender() throws Exception {
+        ReflectionTestUtils.setField(broadcaster, "sendTimeoutMs", 0L);
+        ThreadPoolExecutor sender = (ThreadPoolExecutor) ReflectionTestUtils.getField(broadcaster, "sender");
+
+        Client stuck = connect(broadcaster.subscribe("Pune"), true);
+        assertEquals("subscribed", stuck.next());
+        broadcast(alert(0, "Pune"));
+        assertEquals("alert:0", stuck.next());
+        broadcaster.watchdog();
+
+        assertEquals(1, meterRegistry.counter("alerts.stream.blocked").count());
+        assertEquals(0, broadcaster.getSubscriberCount());
+        assertEquals(2, sender.getMaximumPoolSize());
+
+        // The only configured sender is still parked in the write; the added one serves the next subscriber
+        Client reading = connect(broadcaster.subscribe("Pune"), false);
+        assertEquals("subscribed", reading.next());
+        broadcast(alert(1, "Pune"));
+        assertEquals("alert:1", reading.next());
+
+        // Once the write gives up, the pool shrinks back
+        released.countDown();
+        awaitTrue(() -> sender.getMaximumPoolSize() == 1);
+    }
+
+    @Test
+    void pollSkipsAlertsThisNodeAlreadySent() throws Exception {
+        Client client = connect(broadcaster.subscribe("Pune"), false);
+        assertEquals("subscribed", client.next());
+        broadcast(alert(1, "Pune"));
+        assertEquals("alert:1", client.next());
+
+        keysAfter(List.of(key(1, "Pune"), key(2, "Pune")));
+        when(alertRepository.findResponsesByIdIn(anyCollection())).thenReturn(List.of(alert(2, "Pune")));
+        broadcaster.poll();
+
+        assertEquals(List.of(2L), List.copyOf(loadedIds()));
+        assertEquals("alert:2", client.next());
+
+        // Both are known now, nothing is loaded the next time round
+        keysBetween(List.of(key(1, "Pune"), key(2, "Pune")));
+        keysAfter(List.of());
+        broadcaster.poll();
+        verify(alertRepository).findResponsesByIdIn(anyCollection());
+        assertNull(client.events.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void pollPastTheLimitResyncsOnlyTheDistrictsCutOff() throws Exception {
+        ReflectionTestUtils.setField(broadcaster, "pollLimit", 2);
+        Client pune = connect(broadcaster.subscribe("Pune"), false);
+        Client mumbai = connect(broadcaster.subscribe("Mumbai"), false);
+        assertEquals("subscribed", pune.next());
+        assertEquals("subscribed", mumbai.next());
+
+        keysAfter(List.of(key(10, "Pune"), key(11, "Pune")), List.<Object[]>of(key(12, "Mumbai")));
+        when(alertRepository.findResponsesByIdIn(anyCollection()))
+                .thenReturn(List.of(alert(10, "Pune"), alert(11, "Pune")));
+        broadcaster.poll();
+
+        assertEquals(List.of(10L, 11L), List.copyOf(loadedIds()));
+        assertEquals("alert:10", pune.next());
+        assertEquals("alert:11", pune.next());
+        assertEquals("resync", mumbai.next());
+        assertNull(pune.events.poll(100, TimeUnit.MILLISECONDS));
+        assertNull(mumbai.events.poll());
+    }
+
+    private void broadcast(AlertDto... alerts) {
+        broadcaster.onAlertsPersisted(new AlertsPersistedEvent(List.of(alerts)));
+    }
+
+    @SafeVarargs
+    private void keysAfter(List<Object[]> first, List<Object[]>... more) {
+        when(alertRepository.findKeysCreatedAfter(any(), anyLong(), any(), anyCollection(), any()))
+                .thenReturn(first, more);
+    }
+
+    private void keysBetween(List<Object[]> keys) {
+        when(alertRepository.findKeysCreatedBetween(any(), any(), anyCollection())).thenReturn(keys);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<Long> loadedIds() {
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(alertRepository).findResponsesByIdIn(ids.capture());
+        return ids.getValue();
+    }
+
+    private static Object[] key(long id, String district) {
+        return new Object[]{id, LocalDateTime.now().minusSeconds(1), district};
+    }
+
+    private static AlertDto alert(long id, String district) {
+        AlertDto alert = new AlertDto();
+        alert.setId(id);
+        alert.setDistrict(district);
+        alert.setDisease("Cholera");
+        alert.setSeverity(AlertSeverity.HIGH);
+        return alert;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out");
+            Thread.onSpinWait();
+            Thread.yield();
+        }
+    }
+
+    // Hands the emitter the handler the MVC infrastructure would give it for a live response
+    private Client connect(SseEmitter emitter, boolean blockFirstAlert) throws Exception {
+        Client client = new Client();
+        Class<?> handlerType = Class.forName(ResponseBodyEmitter.class.getName() + "$Handler");
+        Object handler = Proxy.newProxyInstance(handlerType.getClassLoader(), new Class<?>[]{handlerType},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("send") && args.length == 1) {
+                        // Not on the subscribed frame, which may be flushed on the test thread by initialize
+                        if (client.record(args[0]).startsWith("alert") && blockFirstAlert && !client.blocked) {
+                            client.blocked = true;
+                            released.await();
+                        }
+                    } else if (method.getName().equals("complete")) {
+                        client.events.add("complete");
+                    }
+                    return null;
+                });
+        ReflectionTestUtils.invokeMethod(emitter, "initialize", handler);
+        return client;
+    }
+
+    private static final class Client {
+        final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        // Only written from inside the emitter's send, which is synchronized
+        boolean blocked;
+
+        // One SSE frame: "event:<name>" and, for alerts, "id:<id>" lines
+        String record(Object frame) {
+            String name = null;
+            String id = null;
+            for (Object part : (Set<?>) frame) {
+                for (String line : String.valueOf(((DataWithMediaType) part).getData()).split("\n")) {
+                    if (line.startsWith("event:")) {
+                        name = line.substring("event:".length());
+                    } else if (line.startsWith("id:")) {
+                        id = line.substring("id:".length());
+                    }
+                }
+            }
+            String event = id != null ? name + ":" + id : name;
+            events.add(event);
+            return event;
+        }
+
+        String next() throws InterruptedException {
+            return events.poll(WAIT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.arogyam.health.service;
+
+import com.arogyam.health.dto.AlertDto;
+import com.arogyam.health.entity.AlertSeverity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AlertDeduplicatorTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private AlertDeduplicator deduplicator;
+
+    // Moved on by advance(); no test waits for a window to expire
+    private Instant now = Instant.parse("2024-06-01T08:00:00Z");
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        deduplicator = deduplicator(Duration.ofMinutes(15));
+    }
+
+    @Test
+    void droppedAlertClosesItsWindow() {
+        AlertDto first = alert();
+        assertNotNull(deduplicator.admit(first));
+        assertNull(deduplicator.admit(alert()));
+        assertNull(deduplicator.admit(alert()));
+
+        deduplicator.onAlertsDropped(List.of(first));
+
+        assertNotNull(deduplicator.admit(alert()));
+        assertEquals(2, meterRegistry.counter("alerts.dedup.lost").count());
+    }
+
+    @Test
+    void countsMergedBeforeTheWindowExpiredAreWrittenOnceTheAlertIsPersisted() {
+        deduplicator = deduplicator(Duration.ofMinutes(1));
+        AlertDto first = alert();
+        assertNotNull(deduplicator.admit(first));
+        assertNull(deduplicator.admit(alert()));
+        assertNull(deduplicator.admit(alert()));
+        assertNull(deduplicator.admit(alert()));
+
+        // The writer is still behind when the window expires and is swept
+        advance(Duration.ofMinutes(2));
+        deduplicator.sweep();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), any(int[].class));
+
+        first.setId(42L);
+        deduplicator.onAlertsPersisted(new AlertsPersistedEvent(List.of(first)));
+        deduplicator.flush();
+
+        Object[] row = updatedRow();
+        assertEquals(3, row[0]);
+        assertEquals(42L, row[3]);
+    }
+
+    @Test
+    void countsOfAReplacedWindowAreWrittenToTheirOwnAlert() {
+        deduplicator = deduplicator(Duration.ofMinutes(1));
+        AlertDto first = alert();
+        assertNotNull(deduplicator.admit(first));
+        assertNull(deduplicator.admit(alert()));
+
+        // A new report after expiry replaces the window before any sweep ran
+        advance(Duration.ofSeconds(90));
+        AlertDto second = alert();
+        assertNotNull(deduplicator.admit(second));
+
+        first.setId(42L);
+        second.setId(43L);
+        deduplicator.onAlertsPersisted(new AlertsPersistedEvent(List.of(first, second)));
+        advance(Duration.ofMinutes(2));
+        deduplicator.sweep();
+
+        Object[] row = updatedRow();
+        assertEquals(1, row[0]);
+        assertEquals(42L, row[3]);
+    }
+
+    @Test
+    void alertWithAnOpenAlertFromAnotherNodeIsMergedIntoIt() throws SQLException {
+        AlertDto first = alert();
+        AlertDto elsewhere = alert();
+        elsewhere.setVillageId(8L);
+        assertNotNull(deduplicator.admit(first));
+        assertNotNull(deduplicator.admit(elsewhere));
+        assertNull(deduplicator.admit(alert()));
+
+        // Village 7's alert is inside the window; village 8's is older than a window and no longer counts
+        openAlerts(openAlert(42L, 7L, "cholera", now.minus(Duration.ofMinutes(5))),
+                openAlert(41L, 8L, "Cholera", now.minus(Duration.ofMinutes(20))));
+        assertEquals(List.of(elsewhere), deduplicator.mergeIntoOpenAlerts(List.of(first, elsewhere)));
+
+        // The window now belongs to alert 42 and keeps catching reports for it
+        assertNull(deduplicator.admit(alert()));
+        deduplicator.flush();
+
+        Object[] row = updatedRow();
+        assertEquals(3, row[0]);
+        assertEquals(42L, row[3]);
+        assertEquals(3, meterRegistry.counter("alerts.dedup.suppressed").count());
+    }
+
+    @Test
+    void failedOpenAlertLookupWritesTheAlertsAsNew() {
+        AlertDto first = alert();
+        assertNotNull(deduplicator.admit(first));
+        doThrow(new DataAccessResourceFailureException("Connection refused"))
+                .when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+
+        assertEquals(List.of(first), deduplicator.mergeIntoOpenAlerts(List.of(first)));
+    }
+
+    private void openAlerts(ResultSet... rows) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (ResultSet row : rows) {
+                handler.processRow(row);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    private static ResultSet openAlert(long id, long villageId, String disease, Instant createdAt)
+            throws SQLException {
+        ResultSet row = mock(ResultSet.class);
+        when(row.getLong("id")).thenReturn(id);
+        when(row.getLong("village_id")).thenReturn(villageId);
+        when(row.getString("district")).thenReturn("Pune");
+        when(row.getString("disease")).thenReturn(disease);
+        when(row.getString("severity")).thenReturn("HIGH");
+        when(row.getTimestamp("created_at")).thenReturn(Timestamp.from(createdAt));
+        return row;
+    }
+
+    private void advance(Duration duration) {
+        now = now.plus(duration);
+        ReflectionTestUtils.setField(deduplicator, "clock", Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object[] updatedRow() {
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture(), any(int[].class));
+        assertEquals(1, rows.getValue().size());
+        return rows.getValue().get(0);
+    }
+
+    private AlertDeduplicator deduplicator(Duration window) {
+        AlertDeduplicator dedup = new AlertDeduplicator();
+        ReflectionTestUtils.setField(dedup, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(dedup, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(dedup, "enabled", true);
+        ReflectionTestUtils.setField(dedup, "defaultWindow", window);
+        ReflectionTestUtils.setField(dedup, "diseaseWindowsSpec", "");
+        ReflectionTestUtils.setField(dedup, "maxWindows", 100);
+        ReflectionTestUtils.setField(dedup, "sweepMs", 10_000L);
+        ReflectionTestUtils.setField(dedup, "clock", Clock.fixed(now, ZoneOffset.UTC));
+        ReflectionTestUtils.invokeMethod(dedup, "init");
+        return dedup;
+    }
+
+    private static AlertDto alert() {
+        AlertDto alert = new AlertDto();
+        alert.setVillageId(7L);
+        alert.setDistrict("Pune");
+        alert.setDisease("Cholera");
+        alert.setSeverity(AlertSeverity.HIGH);
+        alert.setCaseCount(2);
+        return alert;
+    }
+}
@@ -0,0 +1,242 @@
+package com.arogyam.health.service;
+
+import com.arogyam.health.controller.AlertController;
+import com.arogyam.health.dto.AlertBatchReceiptDto;
+import com.arogyam.health.dto.AlertDto;
+import com.arogyam.health.entity.AlertSeverity;
+import com.arogyam.health.entity.UserEntity;
+import com.arogyam.health.entity.UserRole;
+import com.arogyam.health.security.UserPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives the writer thread against a mocked JdbcTemplate. Each test ends with
+ * {@link AlertIngestionService#shutdown()}, which waits for the writer to empty
+ * the queue, so the outcome is settled before it is checked.
+ */
+class AlertIngestionServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private AlertDeduplicator deduplicator;
+    private ApplicationEventPublisher eventPublisher;
+    private SimpleMeterRegistry meterRegistry;
+    private AlertIngestionService service;
+
+    // Copied on each call: the writer clears its batch list once the deduplicator has seen it
+    private final List<AlertDto> droppedAlerts = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        deduplicator = mock(AlertDeduplicator.class);
+        when(deduplicator.admit(any())).thenReturn(AlertDeduplicator.Ticket.UNTRACKED);
+        when(deduplicator.mergeIntoOpenAlerts(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        doAnswer(invocation -> droppedAlerts.addAll(invocation.getArgument(0)))
+                .when(deduplicator).onAlertsDropped(anyList());
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        Validator validator = mock(Validator.class);
+        when(validator.validate(any())).thenReturn(Set.of());
+
+        AtomicLong nextId = new AtomicLong();
+        SequenceIdAllocator idAllocator = mock(SequenceIdAllocator.class);
+        when(idAllocator.allocate(anyString(), anyInt())).thenAnswer(invocation -> {
+            long[] ids = new long[invocation.<Integer>getArgument(1)];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = nextId.incrementAndGet();
+            }
+            return ids;
+        });
+
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        service = new AlertIngestionService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(service, "idAllocator", idAllocator);
+        ReflectionTestUtils.setField(service, "validator", validator);
+        ReflectionTestUtils.setField(service, "deduplicator", deduplicator);
+        ReflectionTestUtils.setField(service, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(service, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(service, "queueCapacity", 100);
+        ReflectionTestUtils.setField(service, "batchSize", 10);
+        ReflectionTestUtils.setField(service, "lingerMs", 20L);
+        ReflectionTestUtils.setField(service, "maxBackoffMs", 200L);
+        ReflectionTestUtils.setField(service, "shutdownTimeoutMs", 10_000L);
+        ReflectionTestUtils.setField(service, "maxClockSkew", Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.shutdown();
+    }
+
+    @Test
+    void fullQueueIsRefusedWithServiceUnavailable() throws InterruptedException {
+        ReflectionTestUtils.setField(service, "queueCapacity", 1);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), any(int[].class))).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return new int[]{1};
+        });
+        service.start();
+
+        // The writer holds the first alert, the second fills the queue
+        service.submit(List.of(alert("Cholera")), 1L);
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        AlertBatchReceiptDto receipt = service.submit(List.of(alert("Cholera"), alert("Dengue")), 1L);
+        assertEquals(1, receipt.getAccepted());
+        assertEquals(1, receipt.getRejected());
+
+        assertThrows(AlertQueueFullException.class, () -> service.submit(List.of(alert("Typhoid")), 1L));
+        verify(deduplicator, times(2)).abandon(AlertDeduplicator.Ticket.UNTRACKED);
+
+        AlertController controller = new AlertController();
+        ReflectionTestUtils.setField(controller, "alertIngestionService", service);
+        ReflectionTestUtils.setField(controller, "maxRequestSize", 1000);
+        ResponseEntity<?> response = controller.raiseAlerts(List.of(alert("Typhoid")), authentication());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        release.countDown();
+        service.shutdown();
+        assertEquals(2, meterRegistry.counter("alerts.ingest.persisted").count());
+    }
+
+    @Test
+    void transientErrorRetriesTheWholeBatch() throws InterruptedException {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), any(int[].class)))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"))
+                .thenReturn(new int[]{1, 1});
+        service.start();
+
+        service.submit(List.of(alert("Cholera"), alert("Dengue")), 1L);
+        service.shutdown();
+
+        assertEquals(3, insertedBatches().size());
+        insertedBatches().forEach(rows -> assertEquals(2, rows.size()));
+        assertEquals(2, meterRegistry.counter("alerts.ingest.persisted").count());
+        assertEquals(0, meterRegistry.counter("alerts.ingest.dropped").count());
+        assertTrue(droppedAlerts.isEmpty());
+    }
+
+    @Test
+    void rejectedBatchIsWrittenRowByRowAndOnlyFailingRowsAreDropped() throws InterruptedException {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), any(int[].class))).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            if (rows.size() > 1 || "Unknown".equals(rows.get(0)[5])) {
+                throw new BadSqlGrammarException("insert", "INSERT INTO alerts", new SQLException("bad value"));
+            }
+            return new int[]{1};
+        });
+        service.start();
+
+        AlertDto bad = alert("Unknown");
+        service.submit(List.of(alert("Cholera"), bad, alert("Dengue")), 1L);
+        service.shutdown();
+
+        // One batch attempt, then one insert per alert
+        assertEquals(4, insertedBatches().size());
+        assertEquals(2, meterRegistry.counter("alerts.ingest.persisted").count());
+        assertEquals(1, meterRegistry.counter("alerts.ingest.dropped").count());
+
+        ArgumentCaptor<AlertsPersistedEvent> persisted = ArgumentCaptor.forClass(AlertsPersistedEvent.class);
+        verify(eventPublisher).publishEvent(persisted.capture());
+        assertEquals(List.of("Cholera", "Dengue"),
+                persisted.getValue().getAlerts().stream().map(AlertDto::getDisease).toList());
+        assertEquals(List.of(bad), droppedAlerts);
+    }
+
+    @Test
+    void shutdownDropsABatchAfterItsLastAttempt() throws InterruptedException {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), any(int[].class)))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+        service.start();
+
+        AlertDto first = alert("Cholera");
+        AlertDto second = alert("Dengue");
+        service.submit(List.of(first, second), 1L);
+        service.shutdown();
+
+        verify(jdbcTemplate, atLeast(3)).batchUpdate(anyString(), anyList(), any(int[].class));
+        assertEquals(0, meterRegistry.counter("alerts.ingest.persisted").count());
+        assertEquals(2, meterRegistry.counter("alerts.ingest.dropped").count());
+        assertEquals(List.of(first, second), droppedAlerts);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Object[]>> insertedBatches() {
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, atLeast(1)).batchUpdate(anyString(), rows.capture(), any(int[].class));
+        return rows.getAllValues();
+    }
+
+    private static UsernamePasswordAuthenticationToken authentication() {
+        UserEntity user = new UserEntity();
+        user.setId(1L);
+        user.setUsername("asha");
+        user.setRole(UserRole.ASHA_WORKER);
+        UserPrincipal principal = UserPrincipal.create(user);
+        return new UsernamePasswordAuthenticationToken(principal, null, List.of());
+    }
+
+    private static AlertDto alert(String disease) {
+        AlertDto alert = new AlertDto();
+        alert.setDistrict("Pune");
+        alert.setState("Maharashtra");
+        alert.setDisease(disease);
+        alert.setSeverity(AlertSeverity.HIGH);
+        alert.setCaseCount(1);
+        return alert;
+    }
+}
@@ -0,0 +1,135 @@
+package com.arogyam.health.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PhoneNumberIndexTest {
+
+    private static final int INITIAL_MASK = 1023;
+
+    @Test
+    void anySpellingFindsTheSameUser() {
+        PhoneNumberIndex index = new PhoneNumberIndex();
+        index.put("+919812345678", 7L);
+
+        assertEquals(7L, index.findUserId("09812345678"));
+        assertEquals(7L, index.findUserId("98123 45678"));
+        assertEquals(PhoneNumberIndex.NOT_FOUND, index.findUserId("9812345679"));
+        assertEquals(PhoneNumberIndex.NOT_FOUND, index.findUserId("not a number"));
+    }
+
+    @Test
+    void deletingFromACollisionChainKeepsTheRestReachable() {
+        List<Long> chain = collidingNumbers(5);
+        for (int victim = 0; victim < chain.size(); victim++) {
+            PhoneNumberIndex index = new PhoneNumberIndex();
+            for (int i = 0; i < chain.size(); i++) {
+                index.put("+" + chain.get(i), i + 1);
+            }
+
+            index.remove("+" + chain.get(victim), victim + 1);
+
+            assertEquals(chain.size() - 1, index.size());
+            for (int i = 0; i < chain.size(); i++) {
+                long expected = i == victim ? PhoneNumberIndex.NOT_FOUND : i + 1;
+                assertEquals(expected, index.findUserId("+" + chain.get(i)), "victim " + victim + ", entry " + i);
+            }
+        }
+    }
+
+    @Test
+    void removeLeavesANumberThatMovedToAnotherUser() {
+        PhoneNumberIndex index = new PhoneNumberIndex();
+        index.put("9812345678", 1L);
+        index.put("9812345678", 2L);
+
+        index.remove("9812345678", 1L);
+
+        assertEquals(2L, index.findUserId("9812345678"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void indexingAUsersNewNumberDropsTheirOldOne() {
+        PhoneNumberIndex index = new PhoneNumberIndex();
+        index.put("9812345678", 1L);
+
+        // What a catch-up does for a user renumbered on another node
+        index.put("09812340000", 1L);
+
+        assertEquals(PhoneNumberIndex.NOT_FOUND, index.findUserId("9812345678"));
+        assertEquals(1L, index.findUserId("+919812340000"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void numbersSwappedBetweenUsersEndUpWithTheirNewOwners() {
+        PhoneNumberIndex index = new PhoneNumberIndex();
+        index.put("9812345678", 1L);
+        index.put("9812340000", 2L);
+
+        index.put("9812340000", 1L);
+        index.put("9812345678", 2L);
+
+        assertEquals(1L, index.findUserId("9812340000"));
+        assertEquals(2L, index.findUserId("9812345678"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void unparseableNewNumberStillDropsTheOldOne() {
+        PhoneNumberIndex index = new PhoneNumberIndex();
+        index.put("9812345678", 1L);
+
+        index.put("not a number", 1L);
+
+        assertEquals(PhoneNumberIndex.NOT_FOUND, index.findUserId("9812345678"));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void growsPastItsInitialCapacityAndMatchesAMapUnderRandomChurn() {
+        PhoneNumberIndex index = new PhoneNumberIndex();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // Well past the 512 entries that force the first resize
+        for (int i = 0; i < 20_000; i++) {
+            long phone = 919_700_000_000L + random.nextInt(5_000);
+            if (random.nextInt(3) == 0 && expected.containsKey(phone)) {
+                index.remove("+" + phone, expected.remove(phone));
+            } else {
+                long userId = i + 1;
+                index.put("+" + phone, userId);
+                expected.put(phone, userId);
+            }
+        }
+
+        assertEquals(expected.size(), index.size());
+        for (int i = 0; i < 5_000; i++) {
+            long phone = 919_700_000_000L + i;
+            assertEquals(expected.getOrDefault(phone, PhoneNumberIndex.NOT_FOUND), index.findUserId("+" + phone));
+        }
+    }
+
+    // Numbers whose home slot is the same in the initial 1024-slot table
+    private static List<Long> collidingNumbers(int count) {
+        Map<Integer, List<Long>> bySlot = new HashMap<>();
+        for (long phone = 919_800_000_000L; ; phone++) {
+            int slot = ReflectionTestUtils.invokeMethod(PhoneNumberIndex.class, "slot", phone, INITIAL_MASK);
+            List<Long> numbers = bySlot.computeIfAbsent(slot, key -> new ArrayList<>());
+            numbers.add(phone);
+            if (numbers.size() == count) {
+                return numbers;
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.arogyam.health.service;
+
+import com.arogyam.health.dto.VillageDistanceDto;
+import com.arogyam.health.repository.VillageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VillageSpatialIndexTest {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    @Test
+    void nearestMatchesBruteForceAcrossCellSizes() {
+        List<Object[]> villages = randomVillages(new Random(1), 5_000);
+        Random random = new Random(2);
+        for (double cellDegrees : new double[]{0.05, 0.1, 1.0}) {
+            VillageSpatialIndex index = index(villages, cellDegrees);
+            for (int q = 0; q < 200; q++) {
+                double latitude = 6 + random.nextDouble() * 32;
+                double longitude = 66 + random.nextDouble() * 33;
+                int k = 1 + random.nextInt(20);
+
+                assertSameResults(bruteForce(villages, latitude, longitude, k, 200),
+                        index.findNearest(latitude, longitude, k, 200), "cell " + cellDegrees + ", query " + q);
+            }
+        }
+    }
+
+    @Test
+    void withinMatchesBruteForce() {
+        List<Object[]> villages = randomVillages(new Random(3), 5_000);
+        VillageSpatialIndex index = index(villages, 0.1);
+        Random random = new Random(4);
+        for (int q = 0; q < 200; q++) {
+            double latitude = 8 + random.nextDouble() * 28;
+            double longitude = 68 + random.nextDouble() * 29;
+            double radiusKm = 1 + random.nextDouble() * 80;
+
+            assertSameResults(bruteForce(villages, latitude, longitude, 500, radiusKm),
+                    index.findWithin(latitude, longitude, radiusKm, 500), "query " + q);
+        }
+    }
+
+    @Test
+    void queryOutsideTheGridStillFindsTheNearestVillages() {
+        List<Object[]> villages = randomVillages(new Random(5), 1_000);
+        VillageSpatialIndex index = index(villages, 0.1);
+
+        // In the Arabian Sea and beyond the north-east corner of the grid
+        assertSameResults(bruteForce(villages, 15.0, 60.0, 5, 2_000), index.findNearest(15.0, 60.0, 5, 2_000), "west");
+        assertSameResults(bruteForce(villages, 40.0, 100.0, 5, 2_000), index.findNearest(40.0, 100.0, 5, 2_000), "north-east");
+    }
+
+    @Test
+    void emptyIndexAndZeroLimitReturnNothing() {
+        assertTrue(index(List.of(), 0.1).findNearest(20.0, 78.0, 5, 100).isEmpty());
+        assertTrue(index(randomVillages(new Random(6), 100), 0.1).findNearest(20.0, 78.0, 0, 100).isEmpty());
+    }
+
+    private static void assertSameResults(List<Candidate> expected, List<VillageDistanceDto> actual, String label) {
+        assertEquals(expected.size(), actual.size(), label);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).id, actual.get(i).getVillageId(), label + ", rank " + i);
+            assertEquals(expected.get(i).km, actual.get(i).getDistanceKm(), 1e-6, label + ", rank " + i);
+        }
+    }
+
+    private static List<Candidate> bruteForce(List<Object[]> villages, double latitude, double longitude,
+                                              int k, double maxKm) {
+        List<Candidate> candidates = new ArrayList<>();
+        for (Object[] village : villages) {
+            double km = distanceKm(latitude, longitude,
+                    ((BigDecimal) village[3]).doubleValue(), ((BigDecimal) village[4]).doubleValue());
+            if (km <= maxKm) {
+                candidates.add(new Candidate((Long) village[0], km));
+            }
+        }
+        candidates.sort(Comparator.comparingDouble(candidate -> candidate.km));
+        return candidates.subList(0, Math.min(k, candidates.size()));
+    }
+
+    private static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double sinLat = Math.sin(Math.toRadians(lat2 - lat1) / 2);
+        double sinLon = Math.sin(Math.toRadians(lon2 - lon1) / 2);
+        double h = sinLat * sinLat
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(h));
+    }
+
+    // Rows shaped like VillageRepository.streamCoordinates, spread over India's bounding box
+    private static List<Object[]> randomVillages(Random random, int count) {
+        List<Object[]> villages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            villages.add(new Object[]{(long) i + 1, "Village " + i, "District " + (i % 40),
+                    BigDecimal.valueOf(8 + random.nextDouble() * 28), BigDecimal.valueOf(68 + random.nextDouble() * 29)});
+        }
+        return villages;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static VillageSpatialIndex index(List<Object[]> villages, double cellDegrees) {
+        VillageRepository villageRepository = mock(VillageRepository.class);
+        when(villageRepository.streamCoordinates()).thenAnswer(invocation -> villages.stream());
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+
+        VillageSpatialIndex index = new VillageSpatialIndex();
+        ReflectionTestUtils.setField(index, "villageRepository", villageRepository);
+        ReflectionTestUtils.setField(index, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(index, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(index, "cellDegrees", cellDegrees);
+        ReflectionTestUtils.setField(index, "refreshMs", 600_000L);
+        index.load();
+        assertEquals(villages.size(), index.size());
+        return index;
+    }
+
+    private static final class Candidate {
+        final long id;
+        final double km;
+
+        Candidate(long id, double km) {
+            this.id = id;
+            this.km = km;
+        }
+    }
+}
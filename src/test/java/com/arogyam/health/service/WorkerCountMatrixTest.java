@@ -0,0 +1,78 @@
+package com.arogyam.health.service;
+
+import com.arogyam.health.entity.UserRole;
+import com.arogyam.health.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WorkerCountMatrixTest {
+
+    private UserRepository userRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private WorkerCountMatrix matrix;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(userRepository.countActiveByRoleAndDistrict()).thenReturn(counts(UserRole.CHW, "Pune", 5L));
+
+        matrix = new WorkerCountMatrix();
+        ReflectionTestUtils.setField(matrix, "userRepository", userRepository);
+        ReflectionTestUtils.setField(matrix, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.invokeMethod(matrix, "seed");
+    }
+
+    @Test
+    void reconcileCorrectsDrift() {
+        // A change committed on another node
+        when(userRepository.countActiveByRoleAndDistrict()).thenReturn(counts(UserRole.CHW, "Pune", 6L));
+
+        matrix.reconcile();
+
+        assertEquals(6, matrix.getCount(UserRole.CHW, "Pune"));
+        assertEquals(1, meterRegistry.counter("users.counts.drift").count());
+    }
+
+    @Test
+    void changesCountedWhileTheQueryRunsAreKept() {
+        // The query sees 5 workers; two users committed after it read are counted by the listener meanwhile,
+        // one of them in a district the matrix did not know yet
+        when(userRepository.countActiveByRoleAndDistrict()).thenAnswer(invocation -> {
+            matrix.increment(UserRole.CHW, "Pune");
+            matrix.increment(UserRole.ASHA_WORKER, "Nashik");
+            return counts(UserRole.CHW, "Pune", 5L);
+        });
+
+        matrix.reconcile();
+
+        assertEquals(6, matrix.getCount(UserRole.CHW, "Pune"));
+        assertEquals(1, matrix.getCount(UserRole.ASHA_WORKER, "Nashik"));
+        assertEquals(0, meterRegistry.counter("users.counts.drift").count());
+    }
+
+    @Test
+    void districtWithoutActiveWorkersIsZeroed() {
+        when(userRepository.countActiveByRoleAndDistrict()).thenReturn(List.of());
+
+        matrix.reconcile();
+
+        assertEquals(0, matrix.getCount(UserRole.CHW, "Pune"));
+        assertEquals(0, matrix.getSnapshot().getCounts().size());
+    }
+
+    private static List<Object[]> counts(UserRole role, String district, long count) {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{role, district, count});
+        return rows;
+    }
+}
@@ -0,0 +1,45 @@
+package com.arogyam.health.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PhoneNumbersTest {
+
+    @Test
+    void indianSpellingsNormalizeToTheSameNumber() {
+        assertEquals(919812345678L, PhoneNumbers.toE164("9812345678"));
+        assertEquals(919812345678L, PhoneNumbers.toE164("09812345678"));
+        assertEquals(919812345678L, PhoneNumbers.toE164("+919812345678"));
+        assertEquals(919812345678L, PhoneNumbers.toE164("+91 98123-45678"));
+        assertEquals(919812345678L, PhoneNumbers.toE164(" (098123) 45678 "));
+        assertEquals(919812345678L, PhoneNumbers.toE164("00919812345678"));
+    }
+
+    @Test
+    void foreignNumbersKeepTheirCountryCode() {
+        assertEquals(447911123456L, PhoneNumbers.toE164("+44 7911 123456"));
+        assertEquals(447911123456L, PhoneNumbers.toE164("00447911123456"));
+        // Ten digits after a '+' are already international, not an Indian mobile
+        assertEquals(1415555267L, PhoneNumbers.toE164("+1415555267"));
+    }
+
+    @Test
+    void malformedNumbersAreInvalid() {
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.toE164(null));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.toE164(""));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.toE164("   "));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.toE164("98123x45678"));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.toE164("9812+345678"));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.toE164("+0812345678"));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.toE164("12345"));
+        // Sixteen digits is one past the E.164 limit
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.toE164("+1234567890123456"));
+        assertEquals(123456789012345L, PhoneNumbers.toE164("+123456789012345"));
+    }
+
+    @Test
+    void formatRestoresThePlus() {
+        assertEquals("+919812345678", PhoneNumbers.format(PhoneNumbers.toE164("09812345678")));
+    }
+}